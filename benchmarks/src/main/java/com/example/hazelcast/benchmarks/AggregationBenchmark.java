@@ -0,0 +1,81 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BulkLoader;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.NumericStats;
+import com.example.hazelcast.NumericStatsAggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * The four aggregations of {@code MapExamples.demonstrateAggregations} as separate
+ * scans versus one {@link NumericStatsAggregator} pass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AggregationBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int entryCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        cluster = EmbeddedCluster.start();
+        map = cluster.client().getMap("aggregation-users");
+        new BulkLoader<HazelcastPartitionAwareKey, User>(cluster.member(), "aggregation-users", 10000, 8)
+                .load(IntStream.range(0, entryCount)
+                        .mapToObj(i -> Map.entry(BenchmarkData.key(i, 271), BenchmarkData.user(i, valueSize))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public void fourScans(Blackhole blackhole) {
+        blackhole.consume(map.aggregate(Aggregators.doubleAvg("age")));
+        blackhole.consume(map.aggregate(Aggregators.integerMax("age")));
+        blackhole.consume(map.aggregate(Aggregators.count()));
+        blackhole.consume(map.aggregate(Aggregators.longSum("age")));
+    }
+
+    @Benchmark
+    public NumericStats singlePass() {
+        return map.aggregate(new NumericStatsAggregator<>("age"));
+    }
+
+    @Benchmark
+    public NumericStats singlePassWithHistogram() {
+        return map.aggregate(new NumericStatsAggregator<>("age", 10));
+    }
+}
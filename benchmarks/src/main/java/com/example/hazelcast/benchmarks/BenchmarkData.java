@@ -0,0 +1,36 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+
+import java.util.Arrays;
+
+/**
+ * Deterministic keys and values shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Key number {@code i}, colocated with the other keys of the same group
+     */
+    public static HazelcastPartitionAwareKey key(int i, int groups) {
+        return new HazelcastPartitionAwareKey("key" + i, i % groups);
+    }
+
+    /**
+     * User number {@code i} whose last name is padded so that the value is
+     * roughly {@code valueSize} characters long
+     */
+    public static User user(int i, int valueSize) {
+        return new User("First" + i, padding(valueSize), 18 + i % 60, "user" + i + "@example.com");
+    }
+
+    private static String padding(int size) {
+        char[] chars = new char[Math.max(1, size)];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BulkLoader;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Time to load {@code entryCount} partition aware entries with one synchronous put per
+ * entry, with {@link BulkLoader#load} and with {@link BulkLoader#loadPipelined}.
+ * A map without eviction is used so every entry stays resident.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int entryCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @Param({"64"})
+    public int maxInFlight;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private BulkLoader<HazelcastPartitionAwareKey, User> loader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        map = cluster.client().getMap("bulk-users");
+        loader = new BulkLoader<>(cluster.client(), "bulk-users", batchSize, maxInFlight);
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        map.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public long sequentialPut() {
+        entries().forEach(entry -> map.set(entry.getKey(), entry.getValue()));
+        return entryCount;
+    }
+
+    @Benchmark
+    public long putAllBatches() throws InterruptedException {
+        return loader.load(entries()).getEntries();
+    }
+
+    @Benchmark
+    public long pipelined() throws InterruptedException {
+        return loader.loadPipelined(entries()).getEntries();
+    }
+
+    private Stream<Map.Entry<HazelcastPartitionAwareKey, User>> entries() {
+        return IntStream.range(0, entryCount)
+                .mapToObj(i -> Map.entry(BenchmarkData.key(i, 271), BenchmarkData.user(i, valueSize)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.AsyncClient;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.VirtualThreads;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve {@code requests} map reads with {@code concurrency} of them outstanding
+ * at once, in three models:
+ * <ul>
+ *   <li>{@code platform}: a blocking {@code get} per request on a pool of
+ *       {@code concurrency} platform threads</li>
+ *   <li>{@code virtual}: a blocking {@code get} per request, each on its own virtual thread,
+ *       with {@code concurrency} of them running at once</li>
+ *   <li>{@code async}: {@link AsyncClient#get} with {@code concurrency} calls in flight and
+ *       no thread per request</li>
+ * </ul>
+ * The peak number of live threads is logged at teardown. {@code virtual} needs Java 21;
+ * on older JVMs its trials fail at setup, so pass {@code -p model=platform,async} there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+// With a common pool of one thread, Hazelcast starts a thread per completed async call
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.concurrent.ForkJoinPool.common.parallelism=2")
+public class ConcurrencyModelBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyModelBenchmark.class);
+
+    private static final int ENTRY_COUNT = 10_000;
+
+    @Param({"platform", "virtual", "async"})
+    public String model;
+
+    @Param({"100", "10000"})
+    public int concurrency;
+
+    @Param({"100000"})
+    public int requests;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private HazelcastPartitionAwareKey[] keys;
+    private ExecutorService executor;
+    private ThreadFactory virtualThreads;
+    private AsyncClient async;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        map = cluster.client().getMap("concurrency-users");
+        keys = new HazelcastPartitionAwareKey[requests];
+        Random random = new Random(42);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.set(BenchmarkData.key(i, 271), BenchmarkData.user(i, 100));
+        }
+        for (int i = 0; i < requests; i++) {
+            keys[i] = BenchmarkData.key(random.nextInt(ENTRY_COUNT), 271);
+        }
+        switch (model) {
+            case "platform":
+                executor = Executors.newFixedThreadPool(concurrency);
+                break;
+            case "virtual":
+                virtualThreads = VirtualThreads.factory("concurrency-");
+                break;
+            default:
+                async = new AsyncClient(cluster.client(), concurrency, requests);
+        }
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        logger.info("{} with {} concurrent requests: peak of {} live threads", model, concurrency,
+                ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (async != null) {
+            async.close();
+        }
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public long serve() throws Exception {
+        CompletableFuture<?>[] reads = new CompletableFuture<?>[requests];
+        if (async != null) {
+            for (int i = 0; i < requests; i++) {
+                reads[i] = async.get(map.getName(), keys[i]).toCompletableFuture();
+            }
+        } else if (virtualThreads != null) {
+            // A new thread per request, never more than concurrency at once
+            Semaphore permits = new Semaphore(concurrency);
+            for (int i = 0; i < requests; i++) {
+                HazelcastPartitionAwareKey key = keys[i];
+                CompletableFuture<User> read = new CompletableFuture<>();
+                permits.acquire();
+                virtualThreads.newThread(() -> {
+                    try {
+                        read.complete(map.get(key));
+                    } catch (RuntimeException e) {
+                        read.completeExceptionally(e);
+                    } finally {
+                        permits.release();
+                    }
+                }).start();
+                reads[i] = read;
+            }
+        } else {
+            for (int i = 0; i < requests; i++) {
+                HazelcastPartitionAwareKey key = keys[i];
+                reads[i] = CompletableFuture.supplyAsync(() -> map.get(key), executor);
+            }
+        }
+        CompletableFuture.allOf(reads).join();
+        long found = 0;
+        for (CompletableFuture<?> read : reads) {
+            found += read.join() != null ? 1 : 0;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.LogMapStore;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process member plus client used by the benchmarks.
+ * The member is built from {@link HazelcastConfig#createConfig()} so any change
+ * made there is what gets measured.
+ */
+public class EmbeddedCluster {
+
+    private final List<HazelcastInstance> members;
+    private final HazelcastInstance client;
+
+    private EmbeddedCluster(List<HazelcastInstance> members, HazelcastInstance client) {
+        this.members = members;
+        this.client = client;
+    }
+
+    /**
+     * Starts a member with the project configuration and connects a client to it
+     */
+    public static EmbeddedCluster start() {
+        return start(HazelcastConfig.createConfig());
+    }
+
+    /**
+     * Starts a member with the given configuration and connects a client to it
+     */
+    public static EmbeddedCluster start(Config config) {
+        return start(config, HazelcastConfig.createClientConfig());
+    }
+
+    /**
+     * Starts a member and a client with the given configurations
+     */
+    public static EmbeddedCluster start(Config config, ClientConfig clientConfig) {
+        return start(config, clientConfig, 1);
+    }
+
+    /**
+     * Starts {@code memberCount} members with the given configuration, so that backups
+     * live on another member, and connects a client to them
+     */
+    public static EmbeddedCluster start(Config config, ClientConfig clientConfig, int memberCount) {
+        if (System.getProperty(LogMapStore.DIRECTORY_PROPERTY) == null) {
+            useFreshStoreDirectory(config);
+        }
+        List<HazelcastInstance> members = new ArrayList<>();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(Hazelcast.newHazelcastInstance(config));
+        }
+        HazelcastInstance client = HazelcastConfig.createClient(clientConfig);
+        return new EmbeddedCluster(members, client);
+    }
+
+    // Every trial starts from empty map stores instead of what earlier runs left behind
+    private static void useFreshStoreDirectory(Config config) {
+        try {
+            Path directory = Files.createTempDirectory("hazelcast-study-store");
+            for (MapConfig mapConfig : config.getMapConfigs().values()) {
+                MapStoreConfig mapStoreConfig = mapConfig.getMapStoreConfig();
+                if (mapStoreConfig.isEnabled() && mapStoreConfig.getProperty("directory") != null) {
+                    mapStoreConfig.setProperty("directory", directory.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public HazelcastInstance member() {
+        return members.get(0);
+    }
+
+    public HazelcastInstance client() {
+        return client;
+    }
+
+    public void shutdown() {
+        client.shutdown();
+        members.forEach(HazelcastInstance::shutdown);
+    }
+}
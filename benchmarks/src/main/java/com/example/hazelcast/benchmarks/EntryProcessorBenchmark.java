@@ -0,0 +1,88 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BulkLoader;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.IncrementFieldProcessor;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk age increments with the object based processor of {@code MapExamples} versus
+ * {@link IncrementFieldProcessor}, with and without results, offloaded and scoped by a
+ * predicate. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EntryProcessorBenchmark {
+
+    @Param({"100000"})
+    public int entryCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        cluster = EmbeddedCluster.start();
+        map = cluster.client().getMap("processor-users");
+        new BulkLoader<HazelcastPartitionAwareKey, User>(cluster.member(), "processor-users", 10000, 8)
+                .load(IntStream.range(0, entryCount)
+                        .mapToObj(i -> Map.entry(BenchmarkData.key(i, 271), BenchmarkData.user(i, valueSize))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public Map<HazelcastPartitionAwareKey, Object> objectProcessor() {
+        return map.executeOnEntries(new MapQueryBenchmark.AgeIncrementProcessor());
+    }
+
+    @Benchmark
+    public Map<HazelcastPartitionAwareKey, Integer> recordProcessor() {
+        return map.executeOnEntries(new IncrementFieldProcessor<>("age", 1, true));
+    }
+
+    @Benchmark
+    public Map<HazelcastPartitionAwareKey, Integer> recordProcessorNoResults() {
+        return map.executeOnEntries(new IncrementFieldProcessor<>("age", 1, false));
+    }
+
+    @Benchmark
+    public Map<HazelcastPartitionAwareKey, Integer> recordProcessorOffloaded() {
+        return map.executeOnEntries(new IncrementFieldProcessor<>("age", 1, false, Offloadable.OFFLOADABLE_EXECUTOR));
+    }
+
+    @Benchmark
+    public Map<HazelcastPartitionAwareKey, Integer> recordProcessorWithPredicate() {
+        return map.executeOnEntries(new IncrementFieldProcessor<>("age", 1, false), Predicates.lessThan("age", 30));
+    }
+}
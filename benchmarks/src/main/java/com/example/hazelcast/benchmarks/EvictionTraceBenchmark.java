@@ -0,0 +1,179 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.FrequencyEvictionPolicyComparator;
+import com.example.hazelcast.KeyDistribution;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.map.impl.SimpleEntryView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays key traces through a simulated map that evicts the way a member does: when
+ * it is full, {@value #SAMPLE_SIZE} resident entries are sampled and the one the
+ * comparator orders first is removed. Compares Hazelcast's LRU and LFU orders with
+ * {@link FrequencyEvictionPolicyComparator} on a zipfian trace, on the same trace
+ * interleaved with scans of keys that are read once, and on a zipfian trace whose
+ * popular keys change over time. The score is the time to replay
+ * a trace; the hit ratio and the cost of choosing each victim are logged at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EvictionTraceBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(EvictionTraceBenchmark.class);
+
+    private static final int SAMPLE_SIZE = 15;
+
+    @Param({"lru", "lfu", "frequency"})
+    public String policy;
+
+    @Param({"zipfian", "scan", "shifting"})
+    public String trace;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    @Param({"10000"})
+    public int capacity;
+
+    @Param({"1000000"})
+    public int traceLength;
+
+    private long[] keys;
+    private Comparator<EntryView<Object, Object>> comparator;
+    private SimulatedMap last;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        KeyDistribution zipfian = KeyDistribution.zipfian(keyCount, 0.99);
+        keys = new long[traceLength];
+        long nextScanKey = keyCount;
+        for (int i = 0; i < traceLength; i++) {
+            if ("scan".equals(trace) && i % 50_000 >= 30_000) {
+                // Every 50,000 accesses, 20,000 of them walk through keys that are never read again
+                keys[i] = nextScanKey++;
+            } else if ("shifting".equals(trace)) {
+                // Every 200,000 accesses a different set of keys becomes popular
+                keys[i] = (zipfian.next(random) + i / 200_000 * (keyCount / 3)) % keyCount;
+            } else {
+                keys[i] = zipfian.next(random);
+            }
+        }
+        switch (policy) {
+            case "lru":
+                // Hazelcast's LRUEvictionPolicyComparator order
+                comparator = Comparator.<EntryView<Object, Object>>comparingLong(EntryView::getLastAccessTime)
+                        .thenComparingLong(EntryView::getCreationTime);
+                break;
+            case "lfu":
+                // Hazelcast's LFUEvictionPolicyComparator order
+                comparator = Comparator.<EntryView<Object, Object>>comparingLong(EntryView::getHits)
+                        .thenComparingLong(EntryView::getCreationTime);
+                break;
+            default:
+                comparator = new FrequencyEvictionPolicyComparator(1 << 16, 60_000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        logger.info("{} on {}: hit ratio {}, {} ns per eviction", policy, trace,
+                String.format(Locale.ROOT, "%.4f", last.hits / (double) traceLength),
+                String.format(Locale.ROOT, "%.1f", last.evictionNanos / (double) Math.max(1, last.evictions)));
+    }
+
+    @Benchmark
+    public long replay() {
+        // A fresh comparator per replay keeps the sketch from remembering earlier runs
+        if (comparator instanceof FrequencyEvictionPolicyComparator) {
+            comparator = new FrequencyEvictionPolicyComparator(1 << 16, 60_000);
+        }
+        SimulatedMap map = new SimulatedMap(capacity, comparator);
+        for (int i = 0; i < keys.length; i++) {
+            // One access per simulated millisecond
+            map.access(keys[i], i);
+        }
+        last = map;
+        return map.hits;
+    }
+
+    private static final class SimulatedMap {
+        private final Comparator<EntryView<Object, Object>> comparator;
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final SimpleEntryView<Object, Object>[] entries;
+        private final Random random = new Random(7);
+        private int size;
+        long hits;
+        long evictions;
+        long evictionNanos;
+
+        @SuppressWarnings("unchecked")
+        SimulatedMap(int capacity, Comparator<EntryView<Object, Object>> comparator) {
+            this.comparator = comparator;
+            this.entries = new SimpleEntryView[capacity];
+        }
+
+        void access(long key, long now) {
+            Integer slot = slots.get(key);
+            if (slot != null) {
+                SimpleEntryView<Object, Object> entry = entries[slot];
+                entry.setHits(entry.getHits() + 1);
+                entry.setLastAccessTime(now);
+                hits++;
+                return;
+            }
+            if (size == entries.length) {
+                long start = System.nanoTime();
+                int victim = selectVictim();
+                evictionNanos += System.nanoTime() - start;
+                evictions++;
+                slots.remove((Long) entries[victim].getKey());
+                size--;
+                if (victim != size) {
+                    entries[victim] = entries[size];
+                    slots.put((Long) entries[victim].getKey(), victim);
+                }
+            }
+            SimpleEntryView<Object, Object> entry = new SimpleEntryView<>(key, null);
+            entry.setCreationTime(now);
+            entry.setLastAccessTime(now);
+            entries[size] = entry;
+            slots.put(key, size++);
+        }
+
+        private int selectVictim() {
+            int victim = random.nextInt(size);
+            for (int i = 1; i < SAMPLE_SIZE; i++) {
+                int candidate = random.nextInt(size);
+                if (comparator.compare(entries[candidate], entries[victim]) < 0) {
+                    victim = candidate;
+                }
+            }
+            return victim;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BalancedPartitioningStrategy;
+import com.example.hazelcast.DataLocalExecutor;
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastDemo.SimpleTask;
+import com.example.hazelcast.HazelcastDemo.UserValueTask;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.PartitioningStrategyConfig;
+import com.hazelcast.core.IExecutorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of {@link SimpleTask} through {@code demo-executor}, and of a task that
+ * reads a map entry when sent to any member versus to the key owner. Two members run, so
+ * a task sent to any member finds the entry elsewhere about half the time. The map has
+ * the partitioning strategy of {@code users} but none of its store, journal or eviction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExecutorBenchmark {
+    private static final String MAP = "executor-benchmark-users";
+    private static final int KEYS = 1000;
+
+    private EmbeddedCluster cluster;
+    private IExecutorService executor;
+    private DataLocalExecutor localExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = HazelcastConfig.createConfig();
+        // Owners must be found the way DataLocalExecutor finds them
+        config.addMapConfig(new MapConfig(MAP).setPartitioningStrategyConfig(
+                new PartitioningStrategyConfig(new BalancedPartitioningStrategy())));
+        cluster = EmbeddedCluster.start(config, HazelcastConfig.createClientConfig(), 2);
+        executor = cluster.client().getExecutorService("demo-executor");
+        localExecutor = new DataLocalExecutor(cluster.client(), "demo-executor", new BalancedPartitioningStrategy(), 100);
+        for (int i = 0; i < KEYS; i++) {
+            cluster.client().getMap(MAP).set(new HazelcastPartitionAwareKey("key" + i, i), "value" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public String submit() throws ExecutionException, InterruptedException {
+        return executor.submit(new SimpleTask()).get();
+    }
+
+    @Benchmark
+    public String readOnAnyMember() throws ExecutionException, InterruptedException {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        return executor.submit(new UserValueTask(MAP, "key" + i, i)).get();
+    }
+
+    @Benchmark
+    public String readOnKeyOwner() throws ExecutionException, InterruptedException {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        return localExecutor.submitToKeyOwner(new UserValueTask(MAP, "key" + i, i),
+                new HazelcastPartitionAwareKey("key" + i, i)).get();
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.ExpiryMonitor;
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.LatencyHistogram;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mass expiry: {@code entryCount} entries with a time to live or max idle of
+ * {@code expirySeconds} are loaded, nobody reads them, and the benchmark times how long
+ * the members take from the first deadline until the last entry has expired, with the
+ * expiration task tuned by {@code periodSeconds}, {@code cleanupPercentage} and
+ * {@code cleanupOperations} through
+ * {@link HazelcastConfig#configureExpiration}.
+ *
+ * <p>A client meanwhile reads and writes another map at {@value #LOAD_OPS_PER_SECOND}
+ * operations a second. Logged at teardown:
+ * <ul>
+ *   <li>the lag from each entry's deadline to its expired event, from {@link ExpiryMonitor}</li>
+ *   <li>CPU used by the partition threads, which run the expiration task, per second of
+ *       wall time before the first deadline and while entries expire</li>
+ *   <li>put and get latency percentiles of the client before and during expiry</li>
+ * </ul>
+ * The load must finish within {@code expirySeconds} for there to be a window before the
+ * first deadline; a warning is logged otherwise. With the default operation count a
+ * small host cleans only a few partitions per period, so draining a million entries takes
+ * many minutes; narrow the parameters with {@code -p} for quick runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ExpirationBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ExpirationBenchmark.class);
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int LIVE_ENTRIES = 10_000;
+    private static final int LOAD_OPS_PER_SECOND = 1_000;
+
+    @Param({"ttl", "maxIdle"})
+    public String expiry;
+
+    @Param({"1000000"})
+    public int entryCount;
+
+    @Param({"30"})
+    public int expirySeconds;
+
+    @Param({"5"})
+    public int periodSeconds;
+
+    @Param({"10", "100"})
+    public int cleanupPercentage;
+
+    /**
+     * Partitions cleaned per period; {@code 0} leaves Hazelcast's default
+     */
+    @Param({"0", "271"})
+    public int cleanupOperations;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private EmbeddedCluster cluster;
+    private IMap<Integer, Long> expiring;
+    private ExpiryMonitor<Integer, Long> monitor;
+    private Thread load;
+    private volatile boolean running;
+    private volatile LatencyHistogram[] latencies;
+    private LatencyHistogram[] before;
+    private LatencyHistogram[] during;
+    private int iteration;
+    private long firstDeadline;
+    private long baselineStart;
+    private long baselineCpu;
+    private long expiryStart;
+    private long expiryCpu;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = HazelcastConfig.createConfig();
+        HazelcastConfig.configureExpiration(config, periodSeconds, cleanupPercentage, cleanupOperations);
+        MapConfig mapConfig = new MapConfig("expiring-*");
+        if ("ttl".equals(expiry)) {
+            mapConfig.setTimeToLiveSeconds(expirySeconds);
+        } else {
+            mapConfig.setMaxIdleSeconds(expirySeconds);
+        }
+        config.addMapConfig(mapConfig);
+        cluster = EmbeddedCluster.start(config);
+
+        IMap<Integer, Long> live = cluster.client().getMap("expiration-live");
+        for (int i = 0; i < LIVE_ENTRIES; i++) {
+            live.set(i, (long) i);
+        }
+        latencies = histograms();
+        running = true;
+        load = new Thread(() -> applyLoad(live), "expiration-load");
+        load.setDaemon(true);
+        load.start();
+    }
+
+    @Setup(Level.Iteration)
+    public void load() throws InterruptedException {
+        expiring = cluster.member().getMap("expiring-" + iteration++);
+        monitor = new ExpiryMonitor<>(expiring, Long::longValue, event -> { });
+        // Each value is its entry's deadline, taken just before the batch is put
+        Map<Integer, Long> batch = new HashMap<>();
+        firstDeadline = 0;
+        for (int i = 0; i < entryCount; i++) {
+            batch.put(i, 0L);
+            if (batch.size() == BATCH_SIZE || i == entryCount - 1) {
+                long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expirySeconds);
+                batch.replaceAll((key, value) -> deadline);
+                expiring.putAll(batch);
+                batch.clear();
+                if (firstDeadline == 0) {
+                    firstDeadline = deadline;
+                }
+            }
+        }
+        before = histograms();
+        latencies = before;
+        baselineStart = System.currentTimeMillis();
+        baselineCpu = partitionThreadCpu();
+        long untilFirstDeadline = firstDeadline - baselineStart;
+        if (untilFirstDeadline <= 0) {
+            logger.warn("Loading {} entries took longer than {}s, no baseline before expiry", entryCount, expirySeconds);
+        } else {
+            Thread.sleep(untilFirstDeadline);
+        }
+        during = histograms();
+        latencies = during;
+        expiryStart = System.currentTimeMillis();
+        expiryCpu = partitionThreadCpu();
+    }
+
+    @Benchmark
+    public long expireAll() throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(expirySeconds + 600L);
+        while (monitor.getExpired() < entryCount && System.nanoTime() < end) {
+            Thread.sleep(10);
+        }
+        return monitor.getExpired();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long now = System.currentTimeMillis();
+        long cpu = partitionThreadCpu();
+        LatencyHistogram lag = monitor.getLag();
+        logger.info("{} {}s, period {}s, {}%, {} operations: {} of {} expired, lag p50={}ms p99={}ms p999={}ms max={}ms",
+                expiry, expirySeconds, periodSeconds, cleanupPercentage, cleanupOperations, monitor.getExpired(), entryCount,
+                millis(lag.quantile(0.5)), millis(lag.quantile(0.99)), millis(lag.quantile(0.999)), millis(lag.getMaxNanos()));
+        logger.info("Partition thread CPU: {} ms/s before expiry, {} ms/s during",
+                cpuRate(expiryCpu - baselineCpu, expiryStart - baselineStart), cpuRate(cpu - expiryCpu, now - expiryStart));
+        logger.info("Get before expiry {}, during {}", before[0], during[0]);
+        logger.info("Put before expiry {}, during {}", before[1], during[1]);
+        monitor.close();
+        expiring.destroy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        load.join();
+        cluster.shutdown();
+    }
+
+    private void applyLoad(IMap<Integer, Long> live) {
+        Random random = new Random(42);
+        long interval = TimeUnit.SECONDS.toNanos(1) / LOAD_OPS_PER_SECOND;
+        long next = System.nanoTime();
+        while (running) {
+            LatencyHistogram[] current = latencies;
+            int key = random.nextInt(LIVE_ENTRIES);
+            long start = System.nanoTime();
+            if (random.nextBoolean()) {
+                live.get(key);
+                current[0].record(System.nanoTime() - start);
+            } else {
+                live.set(key, start);
+                current[1].record(System.nanoTime() - start);
+            }
+            // Open loop: keep the schedule so a slow call is not hidden by fewer calls
+            next += interval;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    private long partitionThreadCpu() {
+        long total = 0;
+        for (long id : threads.getAllThreadIds()) {
+            ThreadInfo info = threads.getThreadInfo(id);
+            if (info != null && info.getThreadName().contains("partition-operation")) {
+                total += Math.max(0, threads.getThreadCpuTime(id));
+            }
+        }
+        return total;
+    }
+
+    private static LatencyHistogram[] histograms() {
+        return new LatencyHistogram[]{new LatencyHistogram(), new LatencyHistogram()};
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String cpuRate(long cpuNanos, long wallMillis) {
+        return wallMillis <= 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", cpuNanos / 1e6 / (wallMillis / 1e3));
+    }
+}
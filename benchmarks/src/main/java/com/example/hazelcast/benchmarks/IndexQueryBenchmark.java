@@ -0,0 +1,106 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BulkLoader;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Query latency for the predicates of {@code MapExamples.demonstratePredicates} on the
+ * indexed {@code indexed-users} map and on an unindexed copy. Range predicates are
+ * counted with an aggregation so the plan is measured rather than the result transfer.
+ * The {@code like("email", "%john%")} case is measured on its own since no index helps it.
+ * The default sizes fit the 4 GB fork heap; 10M entries need a larger one, so run them on
+ * their own with {@code -p entryCount=10000000 -jvmArgsAppend -Xmx16g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndexQueryBenchmark {
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    @Param({"10000", "1000000"})
+    public int entryCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        cluster = EmbeddedCluster.start();
+        String mapName = indexed ? "indexed-users" : "scan-users";
+        map = cluster.client().getMap(mapName);
+
+        // Load through the member so large maps fill quickly
+        new BulkLoader<HazelcastPartitionAwareKey, User>(cluster.member(), mapName, 10000, 8)
+                .load(IntStream.range(0, entryCount)
+                        .mapToObj(i -> Map.entry(BenchmarkData.key(i, 271), BenchmarkData.user(i, valueSize))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public Long ageGreaterThan() {
+        return count(Predicates.greaterThan("age", 30));
+    }
+
+    @Benchmark
+    public Long ageBetweenAndEmailContains() {
+        return count(Predicates.and(
+                Predicates.between("age", 25, 35),
+                Predicates.like("email", "%john%")));
+    }
+
+    @Benchmark
+    public Long emailSuffix() {
+        return count(Predicates.like("email", "%@example.com"));
+    }
+
+    @Benchmark
+    public Long emailContains() {
+        return count(Predicates.like("email", "%john%"));
+    }
+
+    @Benchmark
+    public Set<Map.Entry<HazelcastPartitionAwareKey, User>> emailEquals() {
+        int i = ThreadLocalRandom.current().nextInt(entryCount);
+        return map.entrySet(Predicates.equal("email", "user" + i + "@example.com"));
+    }
+
+    private Long count(Predicate<HazelcastPartitionAwareKey, User> predicate) {
+        return map.aggregate(Aggregators.count(), predicate);
+    }
+}
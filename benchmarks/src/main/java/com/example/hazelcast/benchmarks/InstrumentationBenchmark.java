@@ -0,0 +1,93 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.Instrumentation;
+import com.example.hazelcast.LatencyHistogram;
+import com.example.hazelcast.LatencyMetrics;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Instrumentation}: client get/set on a plain and on an instrumented
+ * handle, and {@link LatencyHistogram#record(long)} on its own. Run with several
+ * {@code -t} values to see whether recording contends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"raw", "instrumented"})
+    public String handle;
+
+    @Param({"10000"})
+    public int keyCount;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private HazelcastPartitionAwareKey[] keys;
+    private User value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        HazelcastInstance client = "instrumented".equals(handle)
+                ? Instrumentation.instrument(cluster.client(), new LatencyMetrics(false)) : cluster.client();
+        map = client.getMap("instrumented-users");
+        keys = new HazelcastPartitionAwareKey[keyCount];
+        value = BenchmarkData.user(0, 100);
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = BenchmarkData.key(i, keyCount);
+            map.set(keys[i], value);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public User get() {
+        return map.get(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public void set() {
+        map.set(keys[ThreadLocalRandom.current().nextInt(keyCount)], value);
+    }
+
+    /**
+     * A shared histogram without any cluster
+     */
+    @State(Scope.Benchmark)
+    public static class HistogramState {
+        final LatencyHistogram histogram = new LatencyHistogram();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void record(HistogramState state) {
+        state.histogram.record(ThreadLocalRandom.current().nextLong(1_000, 10_000_000));
+    }
+}
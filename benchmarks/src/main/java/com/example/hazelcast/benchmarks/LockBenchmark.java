@@ -0,0 +1,130 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.EntityLocks;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock acquisitions under contention: the CP {@code FencedLock}, per-name and striped
+ * {@link EntityLocks}, and an entry processor that needs no lock at all. Each operation
+ * takes the lock for one entity, increments that entity's counter and releases it.
+ *
+ * <p>{@code uniform} spreads the operations over {@value #ENTITIES} entities, {@code hot}
+ * sends all of them to one. Each benchmark method runs the same operation at a fixed
+ * thread count of 1, 8 or 64, so one run covers no contention up to heavy contention and
+ * SampleTime reports the tail latency for each thread count. A {@code -t} on the command
+ * line overrides all three.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LockBenchmark {
+    private static final int ENTITIES = 10_000;
+
+    @Param({"cp", "entity", "striped", "entry-processor"})
+    public String lock;
+
+    @Param({"uniform", "hot"})
+    public String keys;
+
+    private EmbeddedCluster cluster;
+    private EntityLocks entityLocks;
+    private IMap<String, Long> counters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        entityLocks = new EntityLocks(cluster.client(), "entity-locks", "striped".equals(lock) ? 256 : 0);
+        counters = cluster.client().getMap("lock-counters");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long oneThread() throws InterruptedException {
+        return acquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long eightThreads() throws InterruptedException {
+        return acquire();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Long sixtyFourThreads() throws InterruptedException {
+        return acquire();
+    }
+
+    private Long acquire() throws InterruptedException {
+        String name = "hot".equals(keys) ? "entity-0" : "entity-" + ThreadLocalRandom.current().nextInt(ENTITIES);
+        switch (lock) {
+            case "cp": {
+                var fencedLock = entityLocks.globalLock(name);
+                fencedLock.lock();
+                try {
+                    return increment(name);
+                } finally {
+                    fencedLock.unlock();
+                }
+            }
+            case "entry-processor":
+                return EntityLocks.atomically(counters, name, new Increment());
+            default:
+                if (!entityLocks.tryLock(name, 1, TimeUnit.MINUTES)) {
+                    throw new IllegalStateException("Lock " + name + " not acquired");
+                }
+                try {
+                    return increment(name);
+                } finally {
+                    entityLocks.unlock(name);
+                }
+        }
+    }
+
+    // Read-modify-write that is only safe under the lock
+    private Long increment(String name) {
+        Long value = counters.get(name);
+        long next = value == null ? 1 : value + 1;
+        counters.set(name, next);
+        return next;
+    }
+
+    /**
+     * Lock-free counterpart of {@link #increment(String)}
+     */
+    public static class Increment implements EntryProcessor<String, Long, Long> {
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            long next = entry.getValue() == null ? 1 : entry.getValue() + 1;
+            entry.setValue(next);
+            return next;
+        }
+    }
+}
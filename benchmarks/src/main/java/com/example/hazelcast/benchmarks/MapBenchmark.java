@@ -0,0 +1,100 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client put/get/putAll with partition aware keys, against a map with the default map
+ * config and against {@code users} as {@link com.example.hazelcast.HazelcastConfig}
+ * configures it. {@code users} evicts at 1000 entries per member by default and writes
+ * behind to a store, so with larger key counts it mostly measures misses and store loads;
+ * the plain map shows the client and network cost alone.
+ * Thread count is chosen on the command line with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"map-benchmark-users", "users"})
+    public String mapName;
+
+    @Param({"1000", "100000"})
+    public int keyCount;
+
+    @Param({"100", "1024"})
+    public int valueSize;
+
+    @Param({"271"})
+    public int partitionGroups;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private HazelcastPartitionAwareKey[] keys;
+    private User[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        map = cluster.client().getMap(mapName);
+
+        keys = new HazelcastPartitionAwareKey[keyCount];
+        values = new User[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = BenchmarkData.key(i, partitionGroups);
+            values[i] = BenchmarkData.user(i, valueSize);
+            map.set(keys[i], values[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public User put() {
+        int i = ThreadLocalRandom.current().nextInt(keyCount);
+        return map.put(keys[i], values[i]);
+    }
+
+    @Benchmark
+    public User get() {
+        return map.get(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public void putAll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<HazelcastPartitionAwareKey, User> batch = new HashMap<>();
+        for (int n = 0; n < batchSize; n++) {
+            int i = random.nextInt(keyCount);
+            batch.put(keys[i], values[i]);
+        }
+        map.putAll(batch);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partition-wide operations used by {@code MapExamples}: entry processors,
+ * predicate queries and aggregations over the {@code users} map
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MapQueryBenchmark {
+
+    @Param({"1000"})
+    public int keyCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    @Param({"271"})
+    public int partitionGroups;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        map = cluster.client().getMap("users");
+        for (int i = 0; i < keyCount; i++) {
+            map.set(BenchmarkData.key(i, partitionGroups), BenchmarkData.user(i, valueSize));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public Map<HazelcastPartitionAwareKey, Object> executeOnEntries() {
+        return map.executeOnEntries(new AgeIncrementProcessor());
+    }
+
+    @Benchmark
+    public Set<Map.Entry<HazelcastPartitionAwareKey, User>> entrySetPredicate() {
+        return map.entrySet(Predicates.greaterThan("age", 30));
+    }
+
+    @Benchmark
+    public Double aggregateAverage() {
+        return map.aggregate(Aggregators.doubleAvg("age"));
+    }
+
+    @Benchmark
+    public Long aggregateCount() {
+        return map.aggregate(Aggregators.count());
+    }
+
+    /**
+     * Same update as {@code MapExamples.demonstrateEntryProcessor}
+     */
+    public static class AgeIncrementProcessor implements EntryProcessor<HazelcastPartitionAwareKey, User, Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object process(Map.Entry<HazelcastPartitionAwareKey, User> entry) {
+            User user = entry.getValue();
+            if (user != null) {
+                user.setAge(user.getAge() + 1);
+                entry.setValue(user);
+                return user.getAge();
+            }
+            return null;
+        }
+    }
+}
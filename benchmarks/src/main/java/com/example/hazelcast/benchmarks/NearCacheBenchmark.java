@@ -0,0 +1,92 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.NearCacheMetrics;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client reads of {@code users} with and without the near cache.
+ * {@code writePercent} mixes in puts to show the cost of invalidations;
+ * the near cache counters are logged at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NearCacheBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheBenchmark.class);
+
+    @Param({"NONE", "BINARY", "OBJECT"})
+    public String nearCache;
+
+    @Param({"1000"})
+    public int keyCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    @Param({"0", "10"})
+    public int writePercent;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private HazelcastPartitionAwareKey[] keys;
+    private User[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFormat format = "NONE".equals(nearCache) ? null : InMemoryFormat.valueOf(nearCache);
+        cluster = EmbeddedCluster.start(HazelcastConfig.createConfig(), HazelcastConfig.createClientConfig(format));
+        map = cluster.client().getMap("users");
+
+        keys = new HazelcastPartitionAwareKey[keyCount];
+        values = new User[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = BenchmarkData.key(i, 271);
+            values[i] = BenchmarkData.user(i, valueSize);
+            map.set(keys[i], values[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!"NONE".equals(nearCache)) {
+            logger.info("{} near cache: {}", nearCache, NearCacheMetrics.of(map));
+        }
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public User get() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(keyCount);
+        if (random.nextInt(100) < writePercent) {
+            map.set(keys[i], values[i]);
+            return values[i];
+        }
+        return map.get(keys[i]);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BalancedPartitioningStrategy;
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastCustomPartitioningStrategy;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.PartitionSkewReport;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.PartitioningStrategyConfig;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.PartitioningStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link HazelcastCustomPartitioningStrategy} with {@link BalancedPartitioningStrategy}.
+ * Operations go through the member proxy because per-map strategies are only applied
+ * member side. The per-partition skew report is logged at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PartitioningBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(PartitioningBenchmark.class);
+
+    @Param({"constant", "balanced"})
+    public String strategy;
+
+    @Param({"100000"})
+    public int keyCount;
+
+    @Param({"1000"})
+    public int partitionGroups;
+
+    /**
+     * Share of the keys that belong to group 0, the hot group
+     */
+    @Param({"0", "50"})
+    public int hotGroupPercent;
+
+    @Param({"16"})
+    public int hotGroupSplits;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private HazelcastPartitionAwareKey[] keys;
+    private User value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PartitioningStrategy<Object> partitioningStrategy = "constant".equals(strategy)
+                ? new HazelcastCustomPartitioningStrategy()
+                : new BalancedPartitioningStrategy(Map.of(0, hotGroupSplits));
+        String mapName = "partitioning-" + strategy;
+
+        Config config = HazelcastConfig.createConfig();
+        config.addMapConfig(new MapConfig(mapName)
+                .setPartitioningStrategyConfig(new PartitioningStrategyConfig(partitioningStrategy)));
+        cluster = EmbeddedCluster.start(config);
+        map = cluster.member().getMap(mapName);
+
+        keys = new HazelcastPartitionAwareKey[keyCount];
+        value = BenchmarkData.user(0, valueSize);
+        for (int i = 0; i < keyCount; i++) {
+            int group = i % 100 < hotGroupPercent ? 0 : 1 + i % (partitionGroups - 1);
+            keys[i] = new HazelcastPartitionAwareKey("key" + i, group);
+            map.set(keys[i], value);
+        }
+
+        PartitionSkewReport report = PartitionSkewReport.of(
+                cluster.member().getPartitionService(), partitioningStrategy, Arrays.asList(keys));
+        logger.info("{} strategy: {}", strategy, report);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public User get() {
+        return map.get(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public void set() {
+        map.set(keys[ThreadLocalRandom.current().nextInt(keyCount)], value);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BulkLoader;
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.WorkloadProfile;
+import com.example.hazelcast.benchmarks.MapQueryBenchmark.AgeIncrementProcessor;
+import com.hazelcast.config.Config;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Each {@link WorkloadProfile} against the workload it is tuned for and the others, on a
+ * two-member cluster so backups and backup reads take effect. {@code entryProcessor} runs
+ * against {@code profile-ep-users}, which the profiles treat as entry-processor heavy,
+ * the other workloads against {@code profile-users}. {@code NONE} is the untuned
+ * project configuration. Compare a profile's score on its own workload with {@code NONE}:
+ * {@code get} for READ_HEAVY, {@code set} for WRITE_HEAVY, {@code query} and
+ * {@code entryProcessor} for QUERY_HEAVY, and the {@code get}/{@code set} SampleTime
+ * percentiles for LOW_LATENCY.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProfileBenchmark {
+
+    @Param({"NONE", "READ_HEAVY", "WRITE_HEAVY", "QUERY_HEAVY", "LOW_LATENCY"})
+    public String profile;
+
+    @Param({"10000"})
+    public int keyCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private IMap<HazelcastPartitionAwareKey, User> entryProcessorMap;
+    private HazelcastPartitionAwareKey[] keys;
+    private User value;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        Config config = HazelcastConfig.createConfig(null);
+        if (!"NONE".equals(profile)) {
+            WorkloadProfile.valueOf(profile).apply(config, "profile-ep-users");
+        }
+        cluster = EmbeddedCluster.start(config, HazelcastConfig.createClientConfig(null), 2);
+        map = cluster.client().getMap("profile-users");
+        entryProcessorMap = cluster.client().getMap("profile-ep-users");
+        keys = IntStream.range(0, keyCount).mapToObj(i -> BenchmarkData.key(i, keyCount))
+                .toArray(HazelcastPartitionAwareKey[]::new);
+        value = BenchmarkData.user(0, valueSize);
+        for (String name : new String[]{"profile-users", "profile-ep-users"}) {
+            new BulkLoader<HazelcastPartitionAwareKey, User>(cluster.member(), name, 10_000, 8)
+                    .load(IntStream.range(0, keyCount).mapToObj(i -> Map.entry(keys[i], BenchmarkData.user(i, valueSize))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    private HazelcastPartitionAwareKey randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keyCount)];
+    }
+
+    @Benchmark
+    public User get() {
+        return map.get(randomKey());
+    }
+
+    @Benchmark
+    public void set() {
+        map.set(randomKey(), value);
+    }
+
+    @Benchmark
+    public Collection<User> query() {
+        return map.values(Predicates.between("age", 30, 32));
+    }
+
+    @Benchmark
+    public Object entryProcessor() {
+        return entryProcessorMap.executeOnKey(randomKey(), new AgeIncrementProcessor());
+    }
+}
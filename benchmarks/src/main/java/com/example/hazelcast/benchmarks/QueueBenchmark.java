@@ -0,0 +1,124 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.QueuePipeline;
+import com.hazelcast.collection.IQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offer/poll round trips on {@code demo-queue}, compared with moving the same items
+ * through a batched {@link QueuePipeline}. Pipeline scores are per item. Offers alone go
+ * to an unbounded queue of their own, emptied before each iteration, since
+ * {@code demo-queue} is bounded and would fill up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class QueueBenchmark {
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IQueue<String> queue;
+    private IQueue<String> offerQueue;
+    private String item;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        queue = cluster.client().getQueue("demo-queue");
+        offerQueue = cluster.client().getQueue("queue-benchmark-offers");
+        char[] chars = new char[valueSize];
+        Arrays.fill(chars, 'q');
+        item = new String(chars);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Setup(Level.Iteration)
+    public void drain() {
+        offerQueue.clear();
+    }
+
+    @Benchmark
+    public boolean offer() {
+        return offerQueue.offer(item);
+    }
+
+    @Benchmark
+    public String offerPoll() {
+        queue.offer(item);
+        return queue.poll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PipelineState.ITEMS)
+    public long pipeline(PipelineState state) throws InterruptedException {
+        return state.publishAndAwait();
+    }
+
+    /**
+     * Running pipeline on the benchmark's {@code demo-queue} client
+     */
+    @State(Scope.Benchmark)
+    public static class PipelineState {
+        static final int ITEMS = 10_000;
+
+        @Param({"500"})
+        public int maxBatchSize;
+
+        @Param({"2"})
+        public int consumers;
+
+        private QueuePipeline<String> pipeline;
+        private final AtomicLong received = new AtomicLong();
+        private List<String> items;
+
+        @Setup(Level.Trial)
+        public void setUp(QueueBenchmark benchmark) {
+            items = Collections.nCopies(ITEMS, benchmark.item);
+            pipeline = new QueuePipeline<>(benchmark.cluster.client(), "demo-queue", maxBatchSize, consumers,
+                    batch -> received.addAndGet(batch.size()));
+            pipeline.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pipeline.close();
+        }
+
+        long publishAndAwait() throws InterruptedException {
+            long target = received.get() + ITEMS;
+            pipeline.publish(items);
+            while (received.get() < target) {
+                Thread.onSpinWait();
+            }
+            return target;
+        }
+    }
+}
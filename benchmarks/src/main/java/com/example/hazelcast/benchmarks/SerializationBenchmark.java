@@ -0,0 +1,158 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.compact.Schema;
+import com.hazelcast.internal.serialization.impl.compact.SchemaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize/deserialize cost of one users entry (key plus value) with the registered
+ * Compact serializers, zero-config (reflective) Compact and Java serialization.
+ * Bytes per entry are logged at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(SerializationBenchmark.class);
+
+    @Param({"compact", "reflective", "java"})
+    public String format;
+
+    @Param({"100", "1024"})
+    public int valueSize;
+
+    private InternalSerializationService serializationService;
+    private Object key;
+    private Object value;
+    private Data keyData;
+    private Data valueData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SerializationConfig serializationConfig = new SerializationConfig();
+        if ("compact".equals(format)) {
+            HazelcastConfig.configureSerialization(serializationConfig);
+        }
+        serializationService = new DefaultSerializationServiceBuilder()
+                .setConfig(serializationConfig)
+                .setSchemaService(new LocalSchemaService())
+                .build();
+
+        HazelcastPartitionAwareKey partitionAwareKey = BenchmarkData.key(1, 271);
+        User user = BenchmarkData.user(1, valueSize);
+        if ("java".equals(format)) {
+            key = new SerializableKey(partitionAwareKey);
+            value = new SerializableUser(user);
+        } else {
+            key = partitionAwareKey;
+            value = user;
+        }
+
+        keyData = serializationService.toData(key);
+        valueData = serializationService.toData(value);
+        logger.info("{} format, value size {}: key {} bytes, value {} bytes, entry {} bytes",
+                format, valueSize, keyData.totalSize(), valueData.totalSize(),
+                keyData.totalSize() + valueData.totalSize());
+    }
+
+    @Benchmark
+    public Data serializeKey() {
+        return serializationService.toData(key);
+    }
+
+    @Benchmark
+    public Data serializeValue() {
+        return serializationService.toData(value);
+    }
+
+    @Benchmark
+    public Object deserializeKey() {
+        return serializationService.toObject(keyData);
+    }
+
+    @Benchmark
+    public Object deserializeValue() {
+        return serializationService.toObject(valueData);
+    }
+
+    /**
+     * Java serializable copy of {@link HazelcastPartitionAwareKey}
+     */
+    public static class SerializableKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String val;
+        private final int partitionKey;
+
+        SerializableKey(HazelcastPartitionAwareKey key) {
+            this.val = key.getVal();
+            this.partitionKey = (Integer) key.getPartitionKey();
+        }
+    }
+
+    /**
+     * Java serializable copy of {@link User}
+     */
+    public static class SerializableUser implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String firstName;
+        private final String lastName;
+        private final int age;
+        private final String email;
+
+        SerializableUser(User user) {
+            this.firstName = user.getFirstName();
+            this.lastName = user.getLastName();
+            this.age = user.getAge();
+            this.email = user.getEmail();
+        }
+    }
+
+    private static class LocalSchemaService implements SchemaService {
+        private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+        @Override
+        public Schema get(long schemaId) {
+            return schemas.get(schemaId);
+        }
+
+        @Override
+        public void put(Schema schema) {
+            schemas.put(schema.getSchemaId(), schema);
+        }
+
+        @Override
+        public void putLocal(Schema schema) {
+            put(schema);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.StartupProfiler;
+import com.example.hazelcast.StartupProfiler.Phase;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to ready of a cluster of {@code members} in-process members started together,
+ * joining over the TCP/IP member list of {@link HazelcastConfig#configureTcpJoin} or by
+ * multicast. Every member waits for all the others before it returns from startup. The
+ * score is the time from the first member's start until every partition is assigned and
+ * {@code entries} users are loaded; the breakdown by {@link StartupProfiler} phase is
+ * logged at teardown, and the fork's own JVM start once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StartupBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final String MAP = "startup-users";
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"1", "3", "5"})
+    public int members;
+
+    @Param({"tcp", "multicast"})
+    public String join;
+
+    @Param({"100000"})
+    public int entries;
+
+    private final List<HazelcastInstance> cluster = new ArrayList<>();
+    private int iteration;
+    private StartupProfiler profiler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        logger.info("Benchmark JVM: {}", StartupProfiler.sinceJvmStart());
+    }
+
+    @Benchmark
+    public int start() throws Exception {
+        profiler = new StartupProfiler();
+        String clusterName = "startup-" + join + "-" + iteration++;
+        cluster.addAll(profiler.time(Phase.JOIN, () -> startMembers(clusterName)));
+        HazelcastInstance member = cluster.get(0);
+        profiler.assignPartitions(member, 5, TimeUnit.MINUTES);
+        return profiler.time(Phase.DATA_LOAD, () -> load(member.getMap(MAP)));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        logger.info("{} members joining by {}: {}", members, join, profiler);
+        cluster.forEach(HazelcastInstance::shutdown);
+        cluster.clear();
+    }
+
+    private List<HazelcastInstance> startMembers(String clusterName) throws Exception {
+        // Each member knows the ports of the others instead of probing for them
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            addresses.add("127.0.0.1:" + (5701 + i));
+        }
+        List<CompletableFuture<HazelcastInstance>> starts = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            Config config = HazelcastConfig.createConfig();
+            config.setClusterName(clusterName);
+            if ("tcp".equals(join)) {
+                HazelcastConfig.configureTcpJoin(config, addresses, 0, members, 60);
+            } else {
+                JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+                joinConfig.getTcpIpConfig().setEnabled(false);
+                joinConfig.getMulticastConfig().setEnabled(true);
+                config.setProperty(HazelcastConfig.JOIN_MIN_CLUSTER_SIZE_PROPERTY, String.valueOf(members));
+                config.setProperty(HazelcastConfig.JOIN_TIMEOUT_PROPERTY, "60");
+            }
+            // Members block in startup until all of them have joined, so start them together
+            starts.add(CompletableFuture.supplyAsync(() -> HazelcastConfig.startMember(config)));
+        }
+        List<HazelcastInstance> started = new ArrayList<>();
+        for (CompletableFuture<HazelcastInstance> start : starts) {
+            started.add(start.get(5, TimeUnit.MINUTES));
+        }
+        return started;
+    }
+
+    private int load(IMap<Integer, User> map) {
+        Map<Integer, User> batch = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            batch.put(i, BenchmarkData.user(i, 100));
+            if (batch.size() == BATCH_SIZE) {
+                map.putAll(batch);
+                batch.clear();
+            }
+        }
+        map.putAll(batch);
+        return map.size();
+    }
+}
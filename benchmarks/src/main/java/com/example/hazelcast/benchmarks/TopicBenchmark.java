@@ -0,0 +1,127 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.ReliableTopicListener;
+import com.example.hazelcast.SlowSubscriberPolicy;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.MessageListener;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishing with one listener attached, on the globally ordered {@code demo-topic}
+ * and on the ringbuffer-backed {@code fast-topic}. Each message carries its publish
+ * time so the listener can report the delivery latency after every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TopicBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TopicBenchmark.class);
+
+    @Param({"100"})
+    public int valueSize;
+
+    @Param({"global-ordering", "reliable"})
+    public String mode;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private EmbeddedCluster cluster;
+    private ITopic<String> topic;
+    private UUID listenerId;
+    private String padding;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = EmbeddedCluster.start();
+        topic = "reliable".equals(mode)
+                ? cluster.client().getReliableTopic("fast-topic")
+                : cluster.client().getTopic("demo-topic");
+        MessageListener<String> listener = m -> {
+            String message = m.getMessageObject();
+            latencyNanos.add(System.nanoTime() - Long.parseLong(message, 0, message.indexOf(':'), 10));
+            received.increment();
+        };
+        // A plain listener on a reliable topic is cancelled as soon as it falls behind
+        listenerId = topic.addMessageListener("reliable".equals(mode)
+                ? new ReliableTopicListener<>(listener, SlowSubscriberPolicy.DROP)
+                : listener);
+        char[] chars = new char[valueSize];
+        Arrays.fill(chars, 't');
+        padding = ":" + new String(chars);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportLatency() {
+        long count = received.sumThenReset();
+        long nanos = latencyNanos.sumThenReset();
+        if (count > 0) {
+            logger.warn("{} delivered {} messages, mean delivery latency {} us",
+                    mode, count, nanos / count / 1000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        topic.removeMessageListener(listenerId);
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public void publish(Delivery delivery) {
+        topic.publish(System.nanoTime() + padding);
+        delivery.sum = received.sum();
+    }
+
+    /**
+     * One {@code publishAll} call per invocation; compare with {@link #publish} after
+     * dividing the score by {@code batchSize}
+     */
+    @Benchmark
+    public void publishAll(Delivery delivery) throws ExecutionException, InterruptedException {
+        List<String> batch = new ArrayList<>(batchSize);
+        long now = System.nanoTime();
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(now + padding);
+        }
+        topic.publishAll(batch);
+        delivery.sum = received.sum();
+    }
+
+    /**
+     * Reports how many messages reached the listener next to the publish rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Delivery {
+        public long sum;
+    }
+}
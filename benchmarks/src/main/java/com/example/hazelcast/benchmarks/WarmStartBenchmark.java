@@ -0,0 +1,98 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.BalancedPartitioningStrategy;
+import com.example.hazelcast.BulkLoader;
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.MapSnapshots;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.PartitioningStrategyConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Time to ready of a member restoring {@code entries} users from {@link MapSnapshots}.
+ * The snapshot is written once per trial; every iteration starts a fresh member and
+ * restores it, which is what a restart of the service does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class WarmStartBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartBenchmark.class);
+    private static final String MAP = "snapshot-users";
+
+    @Param({"1000000"})
+    public int entries;
+
+    @Param({"100"})
+    public int valueSize;
+
+    @Param({"4"})
+    public int threads;
+
+    private Path directory;
+    private Config config;
+    private HazelcastInstance member;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("hazelcast-study-snapshots");
+        config = HazelcastConfig.createConfig();
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.addMapConfig(new MapConfig(MAP).setPartitioningStrategyConfig(
+                new PartitioningStrategyConfig(new BalancedPartitioningStrategy())));
+        HazelcastInstance source = Hazelcast.newHazelcastInstance(config);
+        try {
+            new BulkLoader<HazelcastPartitionAwareKey, User>(source, MAP, 10_000, 8)
+                    .load(IntStream.range(0, entries).mapToObj(i -> Map.entry(BenchmarkData.key(i, 10_000),
+                            BenchmarkData.user(i, valueSize))));
+            new MapSnapshots(source, MAP, directory, threads).snapshot();
+        } finally {
+            source.shutdown();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startMember() {
+        member = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopMember() {
+        logger.warn("{} entries in the map after restore", member.getMap(MAP).size());
+        member.shutdown();
+    }
+
+    @Benchmark
+    public MapSnapshots.RestoreResult restore() throws IOException, InterruptedException {
+        return new MapSnapshots(member, MAP, directory, threads).restore();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.hazelcast.benchmarks;
+
+import com.example.hazelcast.HazelcastConfig;
+import com.example.hazelcast.HazelcastPartitionAwareKey;
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.IMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Client {@code set} latency on a map without a store, with a write-through
+ * {@link com.example.hazelcast.LogMapStore} and with the same store write-behind.
+ * Every iteration logs the entries still waiting in the write-behind queue; with
+ * coalescing they stay below {@code keyCount} however hard the map is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WriteBehindBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBenchmark.class);
+
+    @Param({"none", "write-through", "write-behind"})
+    public String store;
+
+    @Param({"10000"})
+    public int keyCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private EmbeddedCluster cluster;
+    private IMap<HazelcastPartitionAwareKey, User> map;
+    private HazelcastPartitionAwareKey[] keys;
+    private User[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = HazelcastConfig.createConfig();
+        MapConfig mapConfig = new MapConfig("stored-users");
+        if (!"none".equals(store)) {
+            mapConfig.setMapStoreConfig(HazelcastConfig.createLogMapStoreConfig("write-behind".equals(store) ? 1 : 0));
+        }
+        config.addMapConfig(mapConfig);
+        cluster = EmbeddedCluster.start(config);
+        map = cluster.client().getMap("stored-users");
+        keys = IntStream.range(0, keyCount).mapToObj(i -> BenchmarkData.key(i, keyCount))
+                .toArray(HazelcastPartitionAwareKey[]::new);
+        values = IntStream.range(0, keyCount).mapToObj(i -> BenchmarkData.user(i, valueSize))
+                .toArray(User[]::new);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportQueue() {
+        logger.warn("{}: {} entries, {} waiting to be stored", store,
+                map.size(), cluster.member().getMap("stored-users").getLocalMapStats().getDirtyEntryCount());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cluster.shutdown();
+    }
+
+    @Benchmark
+    public void set() {
+        int i = ThreadLocalRandom.current().nextInt(keyCount);
+        map.set(keys[i], values[i]);
+    }
+}
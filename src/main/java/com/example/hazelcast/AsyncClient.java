@@ -0,0 +1,234 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.HazelcastInstance;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over maps, queues, topics and executors: every call returns a
+ * {@link CompletionStage} at once and no thread waits for the cluster.
+ *
+ * <p>Map and topic calls use Hazelcast's async operations, and executor tasks are
+ * submitted with a callback. Queues have no async operations, so {@link #offer} and
+ * {@link #poll} run on blocking executors from {@link VirtualThreads}: one virtual
+ * thread per call where enabled, otherwise pools of {@value #BLOCKING_THREADS} platform
+ * threads. Polls get a pool of their own, since a poll may wait its whole timeout for an
+ * item, and polls waiting on an empty queue must not hold up the offers that fill it.
+ *
+ * <p>At most {@code maxInFlight} calls are outstanding. Further calls wait in a queue
+ * of at most {@code maxWaiting} and are sent as earlier ones complete. Calls beyond
+ * that fail with a {@link RejectedExecutionException}, so an overloaded caller sees
+ * back pressure instead of filling the heap. Stages complete on Hazelcast's threads, so
+ * dependent actions must not block; use the {@code *Async} variants to move them
+ * elsewhere. Hazelcast hands completed calls to the common fork-join pool, and when that
+ * pool has a single thread, as on a one-CPU host, it starts a new thread for each call
+ * instead; set {@code java.util.concurrent.ForkJoinPool.common.parallelism} to at least 2
+ * there.
+ */
+public class AsyncClient implements AutoCloseable {
+
+    /**
+     * Platform threads for offers, and as many for polls, when virtual threads are not enabled
+     */
+    public static final int BLOCKING_THREADS = 16;
+
+    private final HazelcastInstance instance;
+    private final int maxInFlight;
+    private final int maxWaiting;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final ExecutorService offers;
+    private final ExecutorService polls;
+
+    public AsyncClient(HazelcastInstance instance, int maxInFlight, int maxWaiting) {
+        if (maxInFlight < 1 || maxWaiting < 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive and maxWaiting not negative");
+        }
+        this.instance = instance;
+        this.maxInFlight = maxInFlight;
+        this.maxWaiting = maxWaiting;
+        this.offers = VirtualThreads.newExecutor("async-client-offer-", BLOCKING_THREADS);
+        this.polls = VirtualThreads.newExecutor("async-client-poll-", BLOCKING_THREADS);
+    }
+
+    public <K, V> CompletionStage<V> get(String mapName, K key) {
+        return limit(() -> instance.<K, V>getMap(mapName).getAsync(key));
+    }
+
+    /**
+     * Puts the value and completes with the previous one
+     */
+    public <K, V> CompletionStage<V> put(String mapName, K key, V value) {
+        return limit(() -> instance.<K, V>getMap(mapName).putAsync(key, value));
+    }
+
+    /**
+     * Puts the value without returning the previous one, which saves deserializing it
+     */
+    public <K, V> CompletionStage<Void> set(String mapName, K key, V value) {
+        return limit(() -> instance.<K, V>getMap(mapName).setAsync(key, value));
+    }
+
+    public <K, V> CompletionStage<V> remove(String mapName, K key) {
+        return limit(() -> instance.<K, V>getMap(mapName).removeAsync(key));
+    }
+
+    public <E> CompletionStage<Void> publish(String topicName, E message) {
+        return limit(() -> instance.<E>getTopic(topicName).publishAsync(message));
+    }
+
+    public <E> CompletionStage<Boolean> offer(String queueName, E item) {
+        return limit(() -> CompletableFuture.supplyAsync(() -> instance.<E>getQueue(queueName).offer(item), offers));
+    }
+
+    /**
+     * Completes with the head of the queue, or {@code null} if nothing arrives in time
+     */
+    public <E> CompletionStage<E> poll(String queueName, long timeout, TimeUnit unit) {
+        return limit(() -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return instance.<E>getQueue(queueName).poll(timeout, unit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while polling " + queueName, e);
+            }
+        }, polls));
+    }
+
+    /**
+     * Runs the task on a member of the executor's cluster
+     */
+    public <T> CompletionStage<T> submit(String executorName, Callable<T> task) {
+        return limit(() -> {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            instance.getExecutorService(executorName).submit(task, new ExecutionCallback<T>() {
+                @Override
+                public void onResponse(T response) {
+                    result.complete(response);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            return result;
+        });
+    }
+
+    /**
+     * Calls sent and not yet completed
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Calls waiting for one in flight to complete
+     */
+    public int getWaiting() {
+        return waitingCount.get();
+    }
+
+    private <T> CompletionStage<T> limit(Supplier<? extends CompletionStage<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable send = () -> send(call, result);
+        if (tryAcquire()) {
+            send.run();
+            return result;
+        }
+        if (waitingCount.incrementAndGet() > maxWaiting) {
+            waitingCount.decrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException(
+                    "More than " + maxInFlight + " calls in flight and " + maxWaiting + " waiting"));
+            return result;
+        }
+        waiting.add(send);
+        // A call may have completed between the failed acquire and the add
+        drain();
+        return result;
+    }
+
+    private <T> void send(Supplier<? extends CompletionStage<T>> call, CompletableFuture<T> result) {
+        CompletionStage<T> stage;
+        try {
+            stage = call.get();
+        } catch (RuntimeException e) {
+            release();
+            result.completeExceptionally(e);
+            return;
+        }
+        // Plain whenComplete actions would run on Hazelcast's default executor; these are
+        // short, so run them on the thread that completes the call
+        stage.whenCompleteAsync((value, failure) -> {
+            release();
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }, Runnable::run);
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        // One thread drains at a time: a call that completes while it is being sent would
+        // otherwise drain again from inside send and nest one frame per waiting call
+        do {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                while (!waiting.isEmpty() && tryAcquire()) {
+                    Runnable send = waiting.poll();
+                    if (send == null) {
+                        inFlight.decrementAndGet();
+                        break;
+                    }
+                    waitingCount.decrementAndGet();
+                    send.run();
+                }
+            } finally {
+                draining.set(false);
+            }
+        } while (!waiting.isEmpty() && inFlight.get() < maxInFlight);
+    }
+
+    /**
+     * Stops the blocking executors; queue calls still running are interrupted
+     */
+    @Override
+    public void close() {
+        offers.shutdownNow();
+        polls.shutdownNow();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.hazelcast;
+
+import com.hazelcast.partition.PartitionAware;
+import com.hazelcast.partition.PartitioningStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Partitioning strategy that keeps colocation groups together while spreading
+ * the groups over all partitions.
+ *
+ * <p>The group of a {@link PartitionAware} key (for example the {@code partitionKey}
+ * of {@link HazelcastPartitionAwareKey}) is returned unchanged, so Hazelcast hashes it
+ * with MurmurHash3 exactly like the default strategy does and clients that use the
+ * default strategy still route to the same partition. Other keys are partitioned by
+ * themselves.
+ *
+ * <p>Known hot groups can be split into sub-keys: every key of a hot group is mapped
+ * to one of {@code splits} well-mixed sub-keys derived from the group and a hash of the
+ * key that must be the same on every JVM and for every copy of the key: the hash of
+ * {@link HazelcastPartitionAwareKey#getVal()}, or the {@code hashCode} of other keys,
+ * which must therefore be value-based. Keys of hot groups whose class keeps
+ * {@code Object.hashCode} are rejected, since copies of them would land in different
+ * partitions. Keys of a split
+ * group are no longer colocated with each other. Because clients only pick up a
+ * global strategy through the {@code hazelcast.partitioning.strategy.class} system
+ * property, set that property (and {@value #HOT_GROUPS_PROPERTY}) on clients as well
+ * when splitting hot groups.
+ */
+public class BalancedPartitioningStrategy implements PartitioningStrategy<Object> {
+
+    /**
+     * System property listing hot groups as {@code group:splits} pairs, for example {@code 1:16,42:8}
+     */
+    public static final String HOT_GROUPS_PROPERTY = "hazelcast.study.partitioning.hot-groups";
+
+    private static final Logger logger = LoggerFactory.getLogger(BalancedPartitioningStrategy.class);
+    private static final long serialVersionUID = 1L;
+
+    // Whether a key class overrides Object.hashCode
+    private static final ClassValue<Boolean> VALUE_BASED_HASH = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("hashCode").getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final Map<String, Integer> hotGroups;
+
+    /**
+     * Creates a strategy with the hot groups configured through {@value #HOT_GROUPS_PROPERTY}
+     */
+    public BalancedPartitioningStrategy() {
+        this(parseHotGroups(System.getProperty(HOT_GROUPS_PROPERTY, "")));
+    }
+
+    /**
+     * Creates a strategy that splits each given group into the given number of sub-keys
+     */
+    public BalancedPartitioningStrategy(Map<?, Integer> hotGroups) {
+        Map<String, Integer> groups = new HashMap<>();
+        hotGroups.forEach((group, splits) -> {
+            if (splits > 1) {
+                groups.put(String.valueOf(group), splits);
+            }
+        });
+        this.hotGroups = Collections.unmodifiableMap(groups);
+        if (!groups.isEmpty()) {
+            logger.info("Splitting hot partition groups: {}", groups);
+        }
+    }
+
+    @Override
+    public Object getPartitionKey(Object key) {
+        if (!(key instanceof PartitionAware)) {
+            return null;
+        }
+        Object group = ((PartitionAware<?>) key).getPartitionKey();
+        if (group == null || hotGroups.isEmpty()) {
+            return group;
+        }
+        Integer splits = hotGroups.get(String.valueOf(group));
+        if (splits == null) {
+            return group;
+        }
+        int subKey = Math.floorMod(mix(stableHash(key)), splits);
+        return mix64(((long) group.hashCode() << 32) | subKey);
+    }
+
+    public Map<String, Integer> getHotGroups() {
+        return hotGroups;
+    }
+
+    /**
+     * Hash of the key that is identical on every JVM, used to pick the sub-key of a hot group
+     */
+    static int stableHash(Object key) {
+        if (key instanceof HazelcastPartitionAwareKey) {
+            String val = ((HazelcastPartitionAwareKey) key).getVal();
+            return val == null ? 0 : val.hashCode();
+        }
+        if (!VALUE_BASED_HASH.get(key.getClass())) {
+            throw new IllegalArgumentException("Keys of hot groups need a value-based hashCode: " + key.getClass().getName());
+        }
+        return key.hashCode();
+    }
+
+    // MurmurHash3 finalizers
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static Map<String, Integer> parseHotGroups(String value) {
+        Map<String, Integer> groups = new HashMap<>();
+        for (String pair : value.split(",")) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid hot group '" + trimmed + "', expected group:splits");
+            }
+            groups.put(trimmed.substring(0, separator), Integer.parseInt(trimmed.substring(separator + 1)));
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.hazelcast;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.PartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Loads large numbers of entries into a map without paying one round trip per entry.
+ *
+ * <p>{@link #load(Stream)} groups entries by the member that owns their partition and
+ * sends each group with {@code putAllAsync} once it reaches {@code batchSize} entries.
+ * {@link #loadPipelined(Stream)} sends every entry with {@code setAsync}. Both keep at
+ * most {@code maxInFlight} requests outstanding and block the caller when that limit
+ * is reached, so a fast producer cannot flood the cluster or the client heap.
+ */
+public class BulkLoader<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoader.class);
+
+    private final IMap<K, V> map;
+    private final PartitionService partitionService;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    public BulkLoader(HazelcastInstance instance, String mapName, int batchSize, int maxInFlight) {
+        if (batchSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("batchSize and maxInFlight must be positive");
+        }
+        this.map = instance.getMap(mapName);
+        this.partitionService = instance.getPartitionService();
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Loads the entries with per-member {@code putAllAsync} batches and waits until all are stored
+     */
+    public Result load(Stream<? extends Map.Entry<? extends K, ? extends V>> entries) throws InterruptedException {
+        long start = System.nanoTime();
+        Requests requests = new Requests(maxInFlight);
+        Map<UUID, Map<K, V>> batches = new HashMap<>();
+        long count = 0;
+        long batchCount = 0;
+
+        Iterator<? extends Map.Entry<? extends K, ? extends V>> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<? extends K, ? extends V> entry = iterator.next();
+            Member owner = partitionService.getPartition(entry.getKey()).getOwner();
+            // owner is null while the partition table is not yet known, keep those together
+            Map<K, V> batch = batches.computeIfAbsent(owner == null ? null : owner.getUuid(), uuid -> new HashMap<>());
+            batch.put(entry.getKey(), entry.getValue());
+            count++;
+            if (batch.size() >= batchSize) {
+                requests.submit(() -> map.putAllAsync(batch));
+                batches.put(owner == null ? null : owner.getUuid(), new HashMap<>());
+                batchCount++;
+            }
+        }
+        for (Map<K, V> batch : batches.values()) {
+            if (!batch.isEmpty()) {
+                requests.submit(() -> map.putAllAsync(batch));
+                batchCount++;
+            }
+        }
+        requests.awaitAll();
+
+        Result result = new Result(count, batchCount, System.nanoTime() - start);
+        logger.info("Bulk loaded map {}: {}", map.getName(), result);
+        return result;
+    }
+
+    /**
+     * Loads the entries with pipelined {@code setAsync} calls and waits until all are stored
+     */
+    public Result loadPipelined(Stream<? extends Map.Entry<? extends K, ? extends V>> entries) throws InterruptedException {
+        long start = System.nanoTime();
+        Requests requests = new Requests(maxInFlight);
+        long count = 0;
+
+        Iterator<? extends Map.Entry<? extends K, ? extends V>> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<? extends K, ? extends V> entry = iterator.next();
+            requests.submit(() -> map.setAsync(entry.getKey(), entry.getValue()));
+            count++;
+        }
+        requests.awaitAll();
+
+        Result result = new Result(count, count, System.nanoTime() - start);
+        logger.info("Pipelined load of map {}: {}", map.getName(), result);
+        return result;
+    }
+
+    /**
+     * Bounds the number of outstanding requests and remembers the first failure
+     */
+    private static class Requests {
+        private final Semaphore permits;
+        private final int maxInFlight;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Requests(int maxInFlight) {
+            this.permits = new Semaphore(maxInFlight);
+            this.maxInFlight = maxInFlight;
+        }
+
+        // The request is only issued once a permit is held, so the caller blocks before sending
+        void submit(Supplier<CompletionStage<?>> request) throws InterruptedException {
+            throwIfFailed();
+            permits.acquire();
+            CompletionStage<?> stage;
+            try {
+                stage = request.get();
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            // Release on the completing thread; Hazelcast's default callback executor may
+            // start a thread per callback on small machines
+            stage.whenCompleteAsync((ignored, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                permits.release();
+            }, Runnable::run);
+        }
+
+        void awaitAll() throws InterruptedException {
+            permits.acquire(maxInFlight);
+            permits.release(maxInFlight);
+            throwIfFailed();
+        }
+
+        private void throwIfFailed() {
+            Throwable error = failure.get();
+            if (error != null) {
+                throw new CompletionException("Bulk load failed", error);
+            }
+        }
+    }
+
+    /**
+     * Outcome of a bulk load
+     */
+    public static class Result {
+        private final long entries;
+        private final long requests;
+        private final long elapsedNanos;
+
+        Result(long entries, long requests, long elapsedNanos) {
+            this.entries = entries;
+            this.requests = requests;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getEntriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : entries * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result{entries=%d, requests=%d, elapsed=%d ms, entriesPerSecond=%.0f}",
+                    entries, requests, elapsedNanos / 1_000_000, getEntriesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.hazelcast;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.core.MultiExecutionCallback;
+import com.hazelcast.partition.PartitioningStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Runs tasks next to the data they work on.
+ *
+ * <p>{@link #submitToKeyOwner(Callable, Object)} sends a task to the member that owns the
+ * key's partition, so a task that reads that key from a map reads it locally. Keys are
+ * routed through the same {@link PartitioningStrategy} as the map they belong to; with
+ * {@link BalancedPartitioningStrategy} this keeps tasks for split hot groups on the
+ * partition that actually holds the entry.
+ *
+ * <p>At most {@code maxInFlight} keyed tasks are outstanding; further submissions block
+ * the caller. A member whose executor queue is full rejects the task, in which case it
+ * is resubmitted with an increasing delay instead of failing the caller.
+ *
+ * <p>{@link #submitToAllMembers(Callable, BiConsumer)} and
+ * {@link #reduceOverMembers(Callable, Object, BiFunction)} fan a task out to every member
+ * and hand each result over as soon as its member answers.
+ */
+public class DataLocalExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(DataLocalExecutor.class);
+
+    private static final int MAX_ATTEMPTS = 20;
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1;
+    private static final long MAX_RETRY_DELAY_MILLIS = 200;
+
+    private final IExecutorService executor;
+    private final PartitioningStrategy<Object> partitioningStrategy;
+    private final Semaphore permits;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * @param partitioningStrategy strategy of the map the keys belong to, or {@code null}
+     *                             to route by the key itself
+     * @param maxInFlight          keyed tasks allowed to be outstanding, for example the
+     *                             executor's queue capacity
+     */
+    public DataLocalExecutor(HazelcastInstance instance, String executorName,
+                             PartitioningStrategy<Object> partitioningStrategy, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = instance.getExecutorService(executorName);
+        this.partitioningStrategy = partitioningStrategy;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Runs the task on the owner of the key's partition, waiting while {@code maxInFlight}
+     * tasks are outstanding
+     */
+    public <T> CompletableFuture<T> submitToKeyOwner(Callable<T> task, Object key) throws InterruptedException {
+        permits.acquire();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete((value, error) -> permits.release());
+        submitted.incrementAndGet();
+        submit(task, routingKey(key), result, 1);
+        return result;
+    }
+
+    private Object routingKey(Object key) {
+        Object partitionKey = partitioningStrategy == null ? null : partitioningStrategy.getPartitionKey(key);
+        return partitionKey == null ? key : partitionKey;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void submit(Callable<T> task, Object routingKey, CompletableFuture<T> result, int attempt) {
+        CompletionStage<T> stage;
+        try {
+            // Member and client proxies both return an InternalCompletableFuture
+            stage = (CompletionStage<T>) executor.submitToKeyOwner(task, routingKey);
+        } catch (RuntimeException e) {
+            retryOrFail(task, routingKey, result, attempt, e);
+            return;
+        }
+        // Complete on the responding thread; the default callback executor may start
+        // a thread per callback on small machines
+        stage.whenCompleteAsync((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+            } else {
+                retryOrFail(task, routingKey, result, attempt, error);
+            }
+        }, Runnable::run);
+    }
+
+    private <T> void retryOrFail(Callable<T> task, Object routingKey, CompletableFuture<T> result,
+                                 int attempt, Throwable error) {
+        if (isRejection(error) && attempt < MAX_ATTEMPTS) {
+            rejected.incrementAndGet();
+            // Jitter keeps tasks rejected together from coming back together
+            long maxDelay = Math.min(INITIAL_RETRY_DELAY_MILLIS << Math.min(attempt - 1, 16), MAX_RETRY_DELAY_MILLIS);
+            long delay = ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay + 1);
+            // submit does not block, so it can run on the timer thread
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, Runnable::run)
+                    .execute(() -> submit(task, routingKey, result, attempt + 1));
+            return;
+        }
+        if (isRejection(error)) {
+            logger.warn("Task still rejected by executor {} after {} attempts", executor.getName(), attempt);
+        }
+        failed.incrementAndGet();
+        result.completeExceptionally(error);
+    }
+
+    private static boolean isRejection(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the task on every member and passes each result to {@code onResult} as it
+     * arrives. The returned future completes once all members answered and fails with
+     * the first member failure.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Void> submitToAllMembers(Callable<T> task, BiConsumer<Member, ? super T> onResult) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        executor.submitToAllMembers(task, new MultiExecutionCallback() {
+            @Override
+            public void onResponse(Member member, Object value) {
+                // Member failures arrive as the thrown exception instead of a result
+                if (value instanceof Throwable) {
+                    failure.compareAndSet(null, (Throwable) value);
+                    return;
+                }
+                try {
+                    onResult.accept(member, (T) value);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+
+            @Override
+            public void onComplete(Map<Member, Object> values) {
+                Throwable error = failure.get();
+                if (error != null) {
+                    failed.incrementAndGet();
+                    done.completeExceptionally(error);
+                } else {
+                    done.complete(null);
+                }
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Runs the task on every member and folds the results into one value as they arrive
+     */
+    public <T, R> CompletableFuture<R> reduceOverMembers(Callable<T> task, R identity,
+                                                         BiFunction<R, ? super T, R> reducer) {
+        AtomicReference<R> accumulator = new AtomicReference<>(identity);
+        return submitToAllMembers(task, (Member member, T value) -> accumulator.updateAndGet(
+                        current -> reducer.apply(current, value)))
+                .thenApply(ignored -> accumulator.get());
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    /**
+     * Number of times a member rejected a keyed task because its executor queue was full
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DataLocalExecutor{executor=" + executor.getName() + ", submitted=" + submitted
+                + ", rejected=" + rejected + ", failed=" + failed + "}";
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.cp.lock.FencedLock;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Per-entity mutual exclusion without going through the CP subsystem.
+ *
+ * <p>Lock names are mapped onto key locks of an {@link IMap}. Such a lock lives in the
+ * partition that owns the key, so acquiring it is a single operation on one member
+ * instead of a consensus round, and locks for different entities spread over the
+ * cluster. With {@code stripes > 0} names are hashed onto that many lock keys, which
+ * bounds the number of locks at the cost of unrelated names sometimes sharing one.
+ * Map locks are owned by the calling thread and reentrant, and they are taken with a
+ * lease so a holder that dies cannot block an entity forever.
+ *
+ * <p>The lease is also released from a holder that is still running: once it runs out,
+ * another caller can take the lock while the first is still inside its critical section.
+ * Choose a lease well above the longest time a lock is held. {@link #withLock} fails
+ * with an {@link IllegalStateException} when its action outlived the lease, since the
+ * action may then have overlapped another holder.
+ *
+ * <p>Updates that only touch one map entry do not need a lock at all:
+ * {@link #atomically(IMap, Object, EntryProcessor)} runs the change on the entry's
+ * partition thread, which already serializes it with every other operation on that key.
+ *
+ * <p>{@link #globalLock(String)} returns the CP {@link FencedLock}; keep it for the few
+ * locks that must be linearizable across the whole cluster.
+ */
+public class EntityLocks {
+    public static final long DEFAULT_LEASE_SECONDS = 60;
+
+    private final IMap<Object, Object> locks;
+    private final HazelcastInstance instance;
+    private final int stripes;
+    private final long leaseMillis;
+
+    /**
+     * Locks with a lease of {@value #DEFAULT_LEASE_SECONDS} seconds
+     *
+     * @param stripes number of lock keys names are hashed onto, or {@code 0} for one lock per name
+     */
+    public EntityLocks(HazelcastInstance instance, String lockMapName, int stripes) {
+        this(instance, lockMapName, stripes, DEFAULT_LEASE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param stripes number of lock keys names are hashed onto, or {@code 0} for one lock per name
+     * @param lease   time after which a lock is released even if its holder has not unlocked it
+     */
+    public EntityLocks(HazelcastInstance instance, String lockMapName, int stripes, long lease, TimeUnit unit) {
+        if (stripes < 0 || lease <= 0) {
+            throw new IllegalArgumentException("stripes must not be negative and lease must be positive");
+        }
+        this.instance = instance;
+        this.locks = instance.getMap(lockMapName);
+        this.stripes = stripes;
+        this.leaseMillis = unit.toMillis(lease);
+    }
+
+    /**
+     * Waits up to the timeout for the lock of the given name
+     */
+    public boolean tryLock(String name, long timeout, TimeUnit unit) throws InterruptedException {
+        return locks.tryLock(lockKey(name), timeout, unit, leaseMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void unlock(String name) {
+        locks.unlock(lockKey(name));
+    }
+
+    public boolean isLocked(String name) {
+        return locks.isLocked(lockKey(name));
+    }
+
+    /**
+     * Time after which a lock is released even if its holder has not unlocked it
+     */
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    /**
+     * Runs the action while holding the lock of the given name
+     *
+     * @throws TimeoutException      when the lock could not be acquired within the timeout
+     * @throws IllegalStateException when the action ran longer than the lease, so the lock
+     *                               was released before it finished
+     */
+    public <R> R withLock(String name, long timeout, TimeUnit unit, Supplier<R> action)
+            throws InterruptedException, TimeoutException {
+        if (!tryLock(name, timeout, unit)) {
+            throw new TimeoutException("Could not lock " + name + " within " + timeout + " " + unit);
+        }
+        long start = System.nanoTime();
+        try {
+            R result = action.get();
+            long heldMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (heldMillis >= leaseMillis) {
+                throw new IllegalStateException("Lock " + name + " was held for " + heldMillis
+                        + " ms, past its lease of " + leaseMillis + " ms");
+            }
+            return result;
+        } finally {
+            // The lease started before start, so past it the lock is no longer ours to release
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < leaseMillis) {
+                unlock(name);
+            }
+        }
+    }
+
+    /**
+     * Applies the processor to one entry as an atomic section on the entry's partition
+     */
+    public static <K, V, R> R atomically(IMap<K, V> map, K key, EntryProcessor<K, V, R> section) {
+        return map.executeOnKey(key, section);
+    }
+
+    /**
+     * Cluster-wide CP lock for the rare cases that need it
+     */
+    public FencedLock globalLock(String name) {
+        return instance.getCPSubsystem().getLock(name);
+    }
+
+    Object lockKey(String name) {
+        return stripes == 0 ? name : Math.floorMod(BalancedPartitioningStrategy.mix(name.hashCode()), stripes);
+    }
+}
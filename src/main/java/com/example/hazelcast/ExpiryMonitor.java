@@ -0,0 +1,97 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reacts to entries of a map expiring through their time to live or max idle, instead
+ * of polling the map for them.
+ *
+ * <p>An expired entry is not removed at its deadline: it is removed when it is next
+ * read, or by the members' background expiration task, which goes over a share of
+ * every partition each period (see {@link HazelcastConfig#configureExpiration}). Either
+ * way an expired event is published, and the monitor passes it to the handler and
+ * counts it. When given a function reading an entry's deadline from its value, in epoch
+ * milliseconds, the monitor also records the lag between the deadline and the event,
+ * which is how long expired data lingered on the members; the lag is only as accurate
+ * as the clocks of the members and of this process agree.
+ *
+ * <p>The handler runs on Hazelcast's event threads, so it must not block. Failures in
+ * it are logged and do not stop later events.
+ */
+public class ExpiryMonitor<K, V> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ExpiryMonitor.class);
+
+    private final IMap<K, V> map;
+    private final ToLongFunction<? super V> deadline;
+    private final Consumer<? super EntryEvent<K, V>> handler;
+    private final LongAdder expired = new LongAdder();
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final UUID registration;
+
+    /**
+     * Passes expired entries of the map to the handler without measuring the lag
+     */
+    public ExpiryMonitor(IMap<K, V> map, Consumer<? super EntryEvent<K, V>> handler) {
+        this(map, null, handler);
+    }
+
+    /**
+     * Passes expired entries of the map to the handler and records their lag
+     *
+     * @param deadline reads the time an entry was due to expire from its old value, or
+     *                 {@code null} to skip the lag and the transfer of values with events
+     */
+    public ExpiryMonitor(IMap<K, V> map, ToLongFunction<? super V> deadline, Consumer<? super EntryEvent<K, V>> handler) {
+        this.map = map;
+        this.deadline = deadline;
+        this.handler = Objects.requireNonNull(handler, "handler");
+        this.registration = map.addEntryListener((EntryExpiredListener<K, V>) this::onExpired, deadline != null);
+    }
+
+    private void onExpired(EntryEvent<K, V> event) {
+        long now = System.currentTimeMillis();
+        expired.increment();
+        if (deadline != null && event.getOldValue() != null) {
+            lag.record(TimeUnit.MILLISECONDS.toNanos(now - deadline.applyAsLong(event.getOldValue())));
+        }
+        try {
+            handler.accept(event);
+        } catch (RuntimeException e) {
+            logger.warn("Expiry handler failed for key {} of {}", event.getKey(), map.getName(), e);
+        }
+    }
+
+    /**
+     * Expired events received so far
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * Time from each entry's deadline to its expired event, in nanoseconds; empty when
+     * no deadline function was given
+     */
+    public LatencyHistogram getLag() {
+        return lag;
+    }
+
+    /**
+     * Removes the listener; events already on their way may still reach the handler
+     */
+    @Override
+    public void close() {
+        map.removeEntryListener(registration);
+    }
+}
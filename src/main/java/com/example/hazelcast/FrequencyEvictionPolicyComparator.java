@@ -0,0 +1,85 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.map.MapEvictionPolicyComparator;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TinyLFU-style eviction for maps: evicts the least frequently used of the sampled
+ * entries, and the least recently used among equally frequent ones.
+ *
+ * <p>Hazelcast evicts by sampling a few entries of the partition and removing the one
+ * this comparator orders first. Plain LRU loses hot entries whenever a scan touches
+ * more entries than fit, and plain LFU keeps entries that were hot long ago forever.
+ * Here an entry's frequency is its hit count, capped at
+ * {@value FrequencySketch#MAX_FREQUENCY} and halved for every {@code agingMillis} it
+ * has been idle longer than the entry it is compared with. Hit counts are also
+ * remembered in a {@link FrequencySketch} keyed by the key's hash code, so an evicted
+ * entry that is loaded again keeps the frequency it had instead of starting at zero
+ * like a one-off scan entry.
+ *
+ * <p>The comparator only sees the sampled entries, not every access, so the sketch is
+ * fed with the hit counts of the entries it samples. Keys that stay resident are
+ * sampled often, which is what it needs to tell them from scan traffic.
+ */
+public class FrequencyEvictionPolicyComparator implements MapEvictionPolicyComparator<Object, Object> {
+    private static final long serialVersionUID = 1L;
+
+    private final int sketchCounters;
+    private final long agingMillis;
+    private transient volatile FrequencySketch sketch;
+
+    /**
+     * 64K-counter sketch, frequencies halved per idle minute
+     */
+    public FrequencyEvictionPolicyComparator() {
+        this(1 << 16, TimeUnit.MINUTES.toMillis(1));
+    }
+
+    public FrequencyEvictionPolicyComparator(int sketchCounters, long agingMillis) {
+        if (sketchCounters < 1 || agingMillis < 1) {
+            throw new IllegalArgumentException("sketchCounters and agingMillis must be positive");
+        }
+        this.sketchCounters = sketchCounters;
+        this.agingMillis = agingMillis;
+    }
+
+    @Override
+    public int compare(EntryView<Object, Object> e1, EntryView<Object, Object> e2) {
+        long lastAccess1 = e1.getLastAccessTime();
+        long lastAccess2 = e2.getLastAccessTime();
+        long newest = Math.max(lastAccess1, lastAccess2);
+        int frequency1 = age(frequency(e1), newest - lastAccess1);
+        int frequency2 = age(frequency(e2), newest - lastAccess2);
+        if (frequency1 != frequency2) {
+            return Integer.compare(frequency1, frequency2);
+        }
+        return Long.compare(lastAccess1, lastAccess2);
+    }
+
+    private int frequency(EntryView<Object, Object> entry) {
+        int hits = (int) Math.min(entry.getHits(), FrequencySketch.MAX_FREQUENCY);
+        return sketch().raise(Objects.hashCode(entry.getKey()), hits);
+    }
+
+    private int age(int frequency, long idleMillis) {
+        long halvings = idleMillis / agingMillis;
+        return halvings >= 4 ? 0 : frequency >> halvings;
+    }
+
+    private FrequencySketch sketch() {
+        FrequencySketch current = sketch;
+        if (current == null) {
+            synchronized (this) {
+                current = sketch;
+                if (current == null) {
+                    current = new FrequencySketch(sketchCounters);
+                    sketch = current;
+                }
+            }
+        }
+        return current;
+    }
+}
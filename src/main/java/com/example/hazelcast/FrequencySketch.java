@@ -0,0 +1,125 @@
+package com.example.hazelcast;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of 4-bit counters, the frequency filter of TinyLFU.
+ *
+ * <p>Each key hash maps to one counter in each of four rows; its estimate is the
+ * smallest of them, so collisions can only overestimate. Counters saturate at
+ * {@value #MAX_FREQUENCY} and, once {@code 10 x counters} updates have been recorded,
+ * every counter is halved. Halving ages the history, so keys that were popular a while
+ * ago lose against keys that are popular now. Sixteen counters are packed into each
+ * {@code long}, so a sketch of {@code n} counters takes {@code n / 2} bytes.
+ *
+ * <p>The sketch is shared by the partition threads of a member. A counter is changed by
+ * building its word anew from one read and swapping it in with a compare-and-set, so a
+ * concurrent change to another counter of the word is never overwritten and a counter
+ * never carries into its neighbour. Reading the estimate and raising it are separate
+ * steps, so two threads raising the same key at once may both raise it to the same value
+ * and count one occurrence instead of two.
+ */
+public class FrequencySketch {
+    public static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = {0x97cb3127L, 0xb492b66fL, 0x9ae16a3bL, 0xc3a5c85cL};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final AtomicLongArray table;
+    private final int mask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * Sketch of at least {@code counters} counters, rounded up to a power of two; size it
+     * to about the number of keys it should tell apart
+     */
+    public FrequencySketch(int counters) {
+        int size = Integer.highestOneBit(Math.max(16, counters) - 1) << 1;
+        this.table = new AtomicLongArray(size / 16);
+        this.mask = table.length() - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    /**
+     * Estimated frequency of the hash, between {@code 0} and {@value #MAX_FREQUENCY}
+     */
+    public int frequency(int hash) {
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < SEEDS.length; row++) {
+            frequency = Math.min(frequency, counter(index(hash, row), offset(hash, row)));
+        }
+        return frequency;
+    }
+
+    /**
+     * Counts one more occurrence of the hash
+     */
+    public void increment(int hash) {
+        raise(hash, frequency(hash) + 1);
+    }
+
+    /**
+     * Raises the counters of the hash that are below {@code frequency} to it, capped at
+     * {@value #MAX_FREQUENCY}; returns the new estimate. Counters already at or above it
+     * are left alone (conservative update), which keeps collisions from inflating them.
+     */
+    public int raise(int hash, int frequency) {
+        int target = Math.min(frequency, MAX_FREQUENCY);
+        boolean raised = false;
+        int estimate = MAX_FREQUENCY;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = index(hash, row);
+            int offset = offset(hash, row);
+            while (true) {
+                long word = table.get(index);
+                int counter = (int) ((word >>> offset) & 0xfL);
+                if (counter >= target) {
+                    estimate = Math.min(estimate, counter);
+                    break;
+                }
+                long raisedWord = (word & ~(0xfL << offset)) | ((long) target << offset);
+                if (table.compareAndSet(index, word, raisedWord)) {
+                    estimate = Math.min(estimate, target);
+                    raised = true;
+                    break;
+                }
+            }
+        }
+        if (raised && additions.incrementAndGet() >= sampleSize) {
+            resetIfDue();
+        }
+        return estimate;
+    }
+
+    private synchronized void resetIfDue() {
+        // Another thread may have aged the sketch while this one waited
+        if (additions.get() >= sampleSize) {
+            reset();
+        }
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            table.getAndUpdate(i, word -> (word >>> 1) & RESET_MASK);
+        }
+        additions.updateAndGet(count -> count / 2);
+    }
+
+    private int counter(int index, int offset) {
+        return (int) ((table.get(index) >>> offset) & 0xfL);
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int offset(int hash, int row) {
+        // Each row uses a different nibble of the word its hash selects
+        int spread = hash * 0x9e3779b9;
+        return (((spread >>> 28) + row * 4) & 0xf) << 2;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecord;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Base class for entry processors that work on the Compact binary form of a value
+ * instead of deserializing it into its domain class.
+ *
+ * <p>The stored value is read as a {@link GenericRecord}, which only decodes the fields
+ * that are accessed. An updated record written back with {@link #setRecord} keeps the
+ * same schema, so clients still read it as the original class. Entries whose
+ * value is missing or not Compact are skipped.
+ *
+ * <p>Returning {@code null} from {@link #process(Map.Entry, GenericRecord)} keeps the
+ * entry out of the result map of {@code executeOnEntries}/{@code executeOnKeys}.
+ */
+public abstract class GenericRecordEntryProcessor<K, V, R>
+        implements EntryProcessor<K, V, R>, HazelcastInstanceAware {
+    private static final long serialVersionUID = 1L;
+
+    private transient InternalSerializationService serializationService;
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance instance) {
+        this.serializationService = (InternalSerializationService)
+                ((SerializationServiceSupport) instance).getSerializationService();
+    }
+
+    @Override
+    public final R process(Map.Entry<K, V> entry) {
+        Data data = valueData(entry);
+        if (data == null || !data.isCompact()) {
+            return null;
+        }
+        try {
+            return process(entry, serializationService.readAsInternalGenericRecord(data));
+        } catch (IOException e) {
+            throw new HazelcastSerializationException("Could not read value of " + entry.getKey(), e);
+        }
+    }
+
+    /**
+     * Processes one entry given its value as a record
+     */
+    protected abstract R process(Map.Entry<K, V> entry, GenericRecord record);
+
+    /**
+     * Stores the record as the new value of the entry
+     */
+    @SuppressWarnings("unchecked")
+    protected void setRecord(Map.Entry<K, V> entry, GenericRecord record) {
+        entry.setValue((V) record);
+    }
+
+    private Data valueData(Map.Entry<K, V> entry) {
+        if (entry instanceof CachedQueryEntry) {
+            return ((CachedQueryEntry<?, ?>) entry).getValueData();
+        }
+        Object value = entry.getValue();
+        return value == null ? null : serializationService.toData(value);
+    }
+}
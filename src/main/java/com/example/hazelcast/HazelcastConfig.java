@@ -1,21 +1,136 @@
 package com.example.hazelcast;
 
+import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryLoader;
+import com.hazelcast.map.MapStoreFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Hazelcast configuration examples
  */
 public class HazelcastConfig {
     private static final Logger logger = LoggerFactory.getLogger(HazelcastConfig.class);
 
+    /**
+     * System property with the per-member size limit of {@code users}: an entry count such
+     * as {@code 1000}, a heap size such as {@code 256MB} or a share of the heap such as
+     * {@code 25%}; 1000 entries by default
+     */
+    public static final String USERS_MAX_SIZE_PROPERTY = "hazelcast.study.users.max-size";
+
+    /**
+     * System property with the directory client near caches store their keys in,
+     * {@code near-cache} by default
+     */
+    public static final String NEAR_CACHE_DIRECTORY_PROPERTY = "hazelcast.study.near-cache.dir";
+
+    /**
+     * System property with the period of the background expiration task in seconds; 5 by default
+     */
+    public static final String EXPIRATION_PERIOD_PROPERTY = "hazelcast.study.expiration.period-seconds";
+
+    /**
+     * System property with the percentage of a partition's expirable entries each cleanup
+     * scans; 10 by default
+     */
+    public static final String EXPIRATION_PERCENTAGE_PROPERTY = "hazelcast.study.expiration.cleanup-percentage";
+
+    /**
+     * System property with the number of partitions cleaned up per period; by default
+     * Hazelcast derives it from the partition thread count
+     */
+    public static final String EXPIRATION_OPERATIONS_PROPERTY = "hazelcast.study.expiration.cleanup-operations";
+
+    /**
+     * System property with the comma-separated addresses members join over TCP/IP,
+     * {@code 127.0.0.1} by default, or {@code multicast} to discover them by multicast
+     */
+    public static final String JOIN_MEMBERS_PROPERTY = "hazelcast.study.join.members";
+
+    /**
+     * System property with the number of members that must have joined before any of them
+     * starts; 1 by default. {@link #configureTcpJoin} also records it in the config, where
+     * {@link #startMember} reads it.
+     */
+    public static final String JOIN_MIN_CLUSTER_SIZE_PROPERTY = "hazelcast.study.join.min-cluster-size";
+
+    /**
+     * System property with the seconds after which a member that has not joined fails to
+     * start; 30 by default. {@link #configureTcpJoin} also records it in the config, where
+     * {@link #startMember} reads it.
+     */
+    public static final String JOIN_TIMEOUT_PROPERTY = "hazelcast.study.join.timeout-seconds";
+
     /**
      * Creates a Hazelcast instance with custom configuration
      */
     public static HazelcastInstance createConfiguredInstance() {
+        Config config = createConfig();
+
+        logger.info("Creating Hazelcast instance with custom configuration");
+        return startMember(config);
+    }
+
+    /**
+     * Starts a member and waits until the cluster has the minimum size recorded by
+     * {@link #configureTcpJoin}, by the deadline recorded with it. Hazelcast's own
+     * {@code hazelcast.initial.min.cluster.size} would wait forever and
+     * {@code hazelcast.max.join.seconds} only ends the search for other members, after which
+     * a member starts a cluster of its own, so the deadline is enforced here.
+     *
+     * @throws IllegalStateException if the cluster is still too small at the deadline; the
+     *                               member is shut down first
+     */
+    public static HazelcastInstance startMember(Config config) {
+        String minSize = config.getProperty(JOIN_MIN_CLUSTER_SIZE_PROPERTY);
+        String timeout = config.getProperty(JOIN_TIMEOUT_PROPERTY);
+        int minClusterSize = minSize == null ? 1 : Integer.parseInt(minSize);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout == null ? 30 : Long.parseLong(timeout));
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        try {
+            while (member.getCluster().getMembers().size() < minClusterSize) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Only " + member.getCluster().getMembers().size() + " of "
+                            + minClusterSize + " members joined cluster " + config.getClusterName() + " in time");
+                }
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            member.shutdown();
+            throw new IllegalStateException("Interrupted while waiting for members to join", e);
+        } catch (RuntimeException e) {
+            member.shutdown();
+            throw e;
+        }
+        return member;
+    }
+
+    /**
+     * Builds the member configuration used by {@link #createConfiguredInstance()}
+     * without starting a member, so callers such as the benchmarks can reuse it.
+     * The {@link WorkloadProfile} named by {@value WorkloadProfile#PROPERTY}, if any, is applied.
+     */
+    public static Config createConfig() {
+        String profile = System.getProperty(WorkloadProfile.PROPERTY);
+        return createConfig(profile == null || profile.isBlank() ? null : WorkloadProfile.valueOf(profile.trim()));
+    }
+
+    /**
+     * Builds the member configuration tuned for the given workload, or untuned when it is {@code null}
+     */
+    public static Config createConfig(WorkloadProfile profile) {
         Config config = new Config();
         
         // Set cluster name
@@ -27,8 +142,14 @@ public class HazelcastConfig {
               .setPortAutoIncrement(true)
               .setPortCount(100);
         
-        // Configure join mechanism (multicast)
-        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(true);
+        // Configure join mechanism: the TCP/IP member list, or multicast if asked for
+        String joinMembers = System.getProperty(JOIN_MEMBERS_PROPERTY, "127.0.0.1").trim();
+        if ("multicast".equalsIgnoreCase(joinMembers)) {
+            config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(true);
+        } else {
+            configureTcpJoin(config, Arrays.asList(joinMembers.split("\\s*,\\s*")), 1,
+                    Integer.getInteger(JOIN_MIN_CLUSTER_SIZE_PROPERTY, 1), Integer.getInteger(JOIN_TIMEOUT_PROPERTY, 30));
+        }
         
         // Configure maps
         configureMaps(config);
@@ -44,9 +165,101 @@ public class HazelcastConfig {
         
         // Configure CP subsystem
         configureCPSubsystem(config);
-        
-        logger.info("Creating Hazelcast instance with custom configuration");
-        return Hazelcast.newHazelcastInstance(config);
+
+        // Configure serialization
+        configureSerialization(config.getSerializationConfig());
+
+        // Run streaming jobs such as UserStatsPipeline
+        config.getJetConfig().setEnabled(true);
+
+        // Send near cache invalidations to clients in batches
+        config.setProperty("hazelcast.map.invalidation.batch.enabled", "true");
+        config.setProperty("hazelcast.map.invalidation.batch.size", "100");
+        config.setProperty("hazelcast.map.invalidation.batchfrequency.seconds", "5");
+
+        // Tune how quickly expired entries are removed when nobody reads them
+        configureExpiration(config,
+                Integer.getInteger(EXPIRATION_PERIOD_PROPERTY, 5),
+                Integer.getInteger(EXPIRATION_PERCENTAGE_PROPERTY, 10),
+                Integer.getInteger(EXPIRATION_OPERATIONS_PROPERTY, 0));
+
+        if (profile != null) {
+            // users stays in BINARY: it is queried far more than it is processed, and its
+            // eviction may be sized by heap, which OBJECT records do not count
+            profile.apply(config);
+            logger.info("Applied workload profile {}", profile);
+        }
+
+        return config;
+    }
+
+    /**
+     * Joins the members at the given addresses over TCP/IP instead of discovering them by
+     * multicast, which waits several seconds for answers at every start and does not cross
+     * most container networks. An address without a port is probed on three ports from
+     * 5701, and every port nobody listens on costs the join a refused connection and
+     * retries, so list {@code host:port} for each member where the ports are known.
+     *
+     * <p>The minimum cluster size and the timeout are only recorded in the config and take
+     * effect when the member is started with {@link #startMember}.
+     *
+     * @param initialWaitSeconds time a starting member waits for join requests of members
+     *                           starting alongside it, so they form one cluster instead of
+     *                           several that merge later; {@code 0} for a member started alone
+     * @param minClusterSize     members that must have joined before {@link #startMember}
+     *                           returns any of them
+     * @param timeoutSeconds     time after which {@link #startMember} shuts down a member whose
+     *                           cluster is still too small, and after which a member stops
+     *                           looking for the others instead of retrying for Hazelcast's
+     *                           default 5 minutes
+     */
+    public static Config configureTcpJoin(Config config, List<String> members, int initialWaitSeconds,
+                                          int minClusterSize, int timeoutSeconds) {
+        if (members.isEmpty() || initialWaitSeconds < 0 || minClusterSize < 1 || timeoutSeconds < 1) {
+            throw new IllegalArgumentException("Join needs members, a wait not negative and a positive cluster size and timeout");
+        }
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getTcpIpConfig()
+                .setEnabled(true)
+                .setMembers(new ArrayList<>(members))
+                .setConnectionTimeoutSeconds(Math.min(5, timeoutSeconds));
+        config.setProperty("hazelcast.wait.seconds.before.join", String.valueOf(initialWaitSeconds));
+        config.setProperty("hazelcast.max.wait.seconds.before.join", String.valueOf(2 * initialWaitSeconds));
+        config.setProperty("hazelcast.max.join.seconds", String.valueOf(timeoutSeconds));
+        config.setProperty(JOIN_MIN_CLUSTER_SIZE_PROPERTY, String.valueOf(minClusterSize));
+        config.setProperty(JOIN_TIMEOUT_PROPERTY, String.valueOf(timeoutSeconds));
+        logger.info("TCP/IP join to {}: wait {}s, at least {} members, fail after {}s",
+                members, initialWaitSeconds, minClusterSize, timeoutSeconds);
+        return config;
+    }
+
+    /**
+     * Tunes the background task that removes entries whose time to live or max idle has
+     * passed. Every {@code periodSeconds} it sends a cleanup to up to
+     * {@code cleanupOperationCount} partitions holding expirable entries, each cleanup
+     * scanning {@code cleanupPercentage} percent of them and at least 100, and a partition
+     * is cleaned at most once a second. Shorter periods and larger shares bound how long
+     * expired entries stay in memory and fire their expired events sooner, for more partition
+     * thread time taken from puts and gets. Entries that are read are expired on access
+     * regardless.
+     *
+     * @param cleanupOperationCount partitions cleaned per period, or {@code 0} for
+     *                              Hazelcast's default, which grows with the partition threads
+     */
+    public static Config configureExpiration(Config config, int periodSeconds, int cleanupPercentage, int cleanupOperationCount) {
+        if (periodSeconds < 1 || cleanupPercentage < 1 || cleanupPercentage > 100 || cleanupOperationCount < 0) {
+            throw new IllegalArgumentException("Expiration period must be positive, percentage within 1-100 and operation count not negative");
+        }
+        config.setProperty("hazelcast.internal.map.expiration.task.period.seconds", String.valueOf(periodSeconds));
+        config.setProperty("hazelcast.internal.map.expiration.cleanup.percentage", String.valueOf(cleanupPercentage));
+        if (cleanupOperationCount > 0) {
+            config.setProperty("hazelcast.internal.map.expiration.cleanup.operation.count", String.valueOf(cleanupOperationCount));
+        }
+        logger.info("Expiration task every {}s, {}% of expirable entries per partition, {} partitions per run",
+                periodSeconds, cleanupPercentage, cleanupOperationCount > 0 ? cleanupOperationCount : "default");
+        return config;
     }
 
     private static void configureMaps(Config config) {
@@ -56,26 +269,106 @@ public class HazelcastConfig {
         userMapConfig.setBackupCount(1);
         userMapConfig.setAsyncBackupCount(0);
         userMapConfig.setTimeToLiveSeconds(3600); // 1 hour TTL
-        // Configure custom partitioning strategy
-//        PartitioningStrategyConfig partitioningStrategyConfig = new PartitioningStrategyConfig();
-//        partitioningStrategyConfig.setPartitioningStrategy(new HazelcastCustomPartitioningStrategy());
-//        userMapConfig.setPartitioningStrategyConfig(partitioningStrategyConfig);
+        // Configure custom partitioning strategy: keeps colocation groups together,
+        // spreads them over all partitions and splits hot groups listed in
+        // BalancedPartitioningStrategy.HOT_GROUPS_PROPERTY
+        PartitioningStrategyConfig partitioningStrategyConfig = new PartitioningStrategyConfig();
+        partitioningStrategyConfig.setPartitioningStrategy(new BalancedPartitioningStrategy());
+        userMapConfig.setPartitioningStrategyConfig(partitioningStrategyConfig);
         logger.info("Custom partitioning strategy configured for map: users");
         
-        // Configure eviction
-        EvictionConfig evictionConfig = new EvictionConfig();
-        evictionConfig.setEvictionPolicy(EvictionPolicy.LRU);
-        evictionConfig.setMaxSizePolicy(MaxSizePolicy.PER_NODE);
-        evictionConfig.setSize(1000);
-        userMapConfig.setEvictionConfig(evictionConfig);
+        // Configure eviction: frequency first, so scans do not push out hot users
+        userMapConfig.setEvictionConfig(createFrequencyEvictionConfig(System.getProperty(USERS_MAX_SIZE_PROPERTY, "1000")));
+
+        // Persist users to a local log; put returns before the entry is written
+        userMapConfig.setMapStoreConfig(createLogMapStoreConfig(5));
 
+        // Keep the latest changes for UserStatsPipeline, which folds them into running stats
+        userMapConfig.setEventJournalConfig(createEventJournalConfig());
         
         config.addMapConfig(userMapConfig);
+
+        // Configure indexes for the map queried by MapExamples. The users map is not
+        // indexed because HazelcastDemo also stores plain String values in it.
+        MapConfig indexedUserMapConfig = new MapConfig("indexed-users");
+        addUserIndexes(indexedUserMapConfig);
+        config.addMapConfig(indexedUserMapConfig);
+    }
+
+    /**
+     * Adds the indexes used by the user queries: a sorted index for the range
+     * predicates on age, a hash index for email lookups and a bitmap index for
+     * lastName, whose values repeat heavily. Wildcard predicates such as
+     * {@code like("email", "%john%")} cannot use any of them and still scan.
+     */
+    public static MapConfig addUserIndexes(MapConfig mapConfig) {
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.SORTED, "age"));
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "email"));
+        mapConfig.addIndexConfig(new IndexConfig(IndexType.BITMAP, "lastName"));
+        return mapConfig;
+    }
+
+    /**
+     * Eviction with {@link FrequencyEvictionPolicyComparator} at the given per-member
+     * limit: {@code 1000} entries, {@code 256MB} or {@code 2GB} of heap for the map's
+     * entries, or {@code 25%} of the heap. Heap-based limits need the BINARY in-memory format.
+     */
+    public static EvictionConfig createFrequencyEvictionConfig(String maxSize) {
+        String size = maxSize.trim().toUpperCase(Locale.ROOT);
+        EvictionConfig evictionConfig = new EvictionConfig();
+        // Maps only accept a comparator when the policy is left at NONE
+        evictionConfig.setEvictionPolicy(EvictionPolicy.NONE);
+        evictionConfig.setComparator(new FrequencyEvictionPolicyComparator());
+        if (size.endsWith("%")) {
+            evictionConfig.setMaxSizePolicy(MaxSizePolicy.USED_HEAP_PERCENTAGE);
+            evictionConfig.setSize(Integer.parseInt(size.substring(0, size.length() - 1).trim()));
+        } else if (size.endsWith("GB")) {
+            evictionConfig.setMaxSizePolicy(MaxSizePolicy.USED_HEAP_SIZE);
+            evictionConfig.setSize(Integer.parseInt(size.substring(0, size.length() - 2).trim()) * 1024);
+        } else if (size.endsWith("MB")) {
+            evictionConfig.setMaxSizePolicy(MaxSizePolicy.USED_HEAP_SIZE);
+            evictionConfig.setSize(Integer.parseInt(size.substring(0, size.length() - 2).trim()));
+        } else {
+            evictionConfig.setMaxSizePolicy(MaxSizePolicy.PER_NODE);
+            evictionConfig.setSize(Integer.parseInt(size));
+        }
+        return evictionConfig;
+    }
+
+    /**
+     * Event journal of 100,000 events, shared by the partitions of the map; a streaming
+     * job that is down longer than that many changes can no longer resume
+     */
+    public static EventJournalConfig createEventJournalConfig() {
+        return new EventJournalConfig().setEnabled(true).setCapacity(100_000);
+    }
+
+    /**
+     * Write-behind store on a {@link LogMapStore}. Changes are flushed every
+     * {@code writeDelaySeconds} in batches of up to 1000 entries; coalescing keeps only the
+     * latest change of a key, so the write-behind queue never holds more entries than the
+     * map has keys, however fast they are updated. The logs live below the directory
+     * named by {@value LogMapStore#DIRECTORY_PROPERTY}, {@code data} by default.
+     */
+    public static MapStoreConfig createLogMapStoreConfig(int writeDelaySeconds) {
+        MapStoreConfig mapStoreConfig = new MapStoreConfig();
+        mapStoreConfig.setEnabled(true);
+        mapStoreConfig.setFactoryImplementation((MapStoreFactory<Object, EntryLoader.MetadataAwareValue<Object>>) (mapName, properties) -> new LogMapStore<>());
+        mapStoreConfig.setWriteDelaySeconds(writeDelaySeconds);
+        mapStoreConfig.setWriteBatchSize(1000);
+        mapStoreConfig.setWriteCoalescing(true);
+        mapStoreConfig.setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY);
+        mapStoreConfig.setProperty("directory", System.getProperty(LogMapStore.DIRECTORY_PROPERTY, "data"));
+        mapStoreConfig.setProperty("sync-interval-millis", "1000");
+        mapStoreConfig.setProperty("compaction-interval-seconds", "60");
+        mapStoreConfig.setProperty("compaction-ratio", "0.5");
+        return mapStoreConfig;
     }
 
     private static void configureQueues(Config config) {
         QueueConfig queueConfig = new QueueConfig("demo-queue");
-        queueConfig.setMaxSize(1000);
+        // Room for several producer batches; QueuePipeline backs off when a batch does not fit
+        queueConfig.setMaxSize(100_000);
         queueConfig.setBackupCount(1);
         queueConfig.setAsyncBackupCount(0);
         config.addQueueConfig(queueConfig);
@@ -85,6 +378,42 @@ public class HazelcastConfig {
         TopicConfig topicConfig = new TopicConfig("demo-topic");
         topicConfig.setGlobalOrderingEnabled(true);
         config.addTopicConfig(topicConfig);
+
+        // High-throughput alternative: ringbuffer-backed, ordered per publisher only
+        addReliableTopic(config, "fast-topic", SlowSubscriberPolicy.DROP, null);
+    }
+
+    /**
+     * Adds a reliable topic and its backing ringbuffer. Listeners run on
+     * {@code listenerExecutor}, or on the shared event threads when it is {@code null}.
+     */
+    public static void addReliableTopic(Config config, String name, SlowSubscriberPolicy policy,
+                                        java.util.concurrent.Executor listenerExecutor) {
+        ReliableTopicConfig topicConfig = new ReliableTopicConfig(name);
+        topicConfig.setTopicOverloadPolicy(policy.getOverloadPolicy());
+        topicConfig.setReadBatchSize(100);
+        topicConfig.setExecutor(listenerExecutor);
+        config.addReliableTopicConfig(topicConfig);
+
+        // The topic reads and writes the ringbuffer called _hz_rb_<name>
+        RingbufferConfig ringbufferConfig = new RingbufferConfig("_hz_rb_" + name);
+        ringbufferConfig.setCapacity(100_000);
+        ringbufferConfig.setBackupCount(1);
+        // BLOCK only frees space as messages expire
+        ringbufferConfig.setTimeToLiveSeconds(60);
+        config.addRingBufferConfig(ringbufferConfig);
+    }
+
+    /**
+     * Client-side settings for a reliable topic: the overload policy applies to
+     * publishes from the client and the executor runs the client's listeners
+     */
+    public static com.hazelcast.client.config.ClientReliableTopicConfig createClientReliableTopicConfig(
+            String name, SlowSubscriberPolicy policy, java.util.concurrent.Executor listenerExecutor) {
+        return new com.hazelcast.client.config.ClientReliableTopicConfig(name)
+                .setTopicOverloadPolicy(policy.getOverloadPolicy())
+                .setReadBatchSize(100)
+                .setExecutor(listenerExecutor);
     }
 
     private static void configureExecutorService(Config config) {
@@ -100,9 +429,27 @@ public class HazelcastConfig {
     }
 
     /**
-     * Creates a Hazelcast client configuration
+     * Registers the Compact serializers for the demo types. Members and clients
+     * must register the same serializers so they agree on the schemas.
+     */
+    public static void configureSerialization(SerializationConfig serializationConfig) {
+        serializationConfig.getCompactSerializationConfig()
+                .addSerializer(new UserCompactSerializer())
+                .addSerializer(new PartitionAwareKeyCompactSerializer());
+    }
+
+    /**
+     * Creates a Hazelcast client configuration with a BINARY near cache on the user maps
      */
     public static com.hazelcast.client.config.ClientConfig createClientConfig() {
+        return createClientConfig(InMemoryFormat.BINARY);
+    }
+
+    /**
+     * Creates a Hazelcast client configuration whose user map near caches keep
+     * entries in the given format, or without near caches when the format is {@code null}
+     */
+    public static com.hazelcast.client.config.ClientConfig createClientConfig(InMemoryFormat nearCacheFormat) {
         com.hazelcast.client.config.ClientConfig clientConfig = new com.hazelcast.client.config.ClientConfig();
         
         clientConfig.setClusterName("hazelcast-study-cluster");
@@ -117,10 +464,74 @@ public class HazelcastConfig {
         clientConfig.setProperty("hazelcast.client.heartbeat.interval", "10000");
         clientConfig.setProperty("hazelcast.client.heartbeat.timeout", "60000");
         clientConfig.setProperty("hazelcast.client.invocation.timeout.seconds", "120");
-        
+
+        // Configure serialization
+        configureSerialization(clientConfig.getSerializationConfig());
+
+        // Reliable topic publishes from this client follow the same policy as the members
+        clientConfig.addReliableTopicConfig(createClientReliableTopicConfig("fast-topic", SlowSubscriberPolicy.DROP, null));
+
+        // Configure near caches for the read-heavy user maps
+        if (nearCacheFormat != null) {
+            clientConfig.addNearCacheConfig(createNearCacheConfig("users", nearCacheFormat));
+            clientConfig.addNearCacheConfig(createNearCacheConfig("indexed-users", nearCacheFormat));
+
+            // Repair entries whose invalidations were lost after this many missed events
+            clientConfig.setProperty("hazelcast.invalidation.max.tolerated.miss.count", "10");
+            clientConfig.setProperty("hazelcast.invalidation.reconciliation.interval.seconds", "60");
+        }
+
+        // Continuous query caches for predicates polled through QueryCacheRegistry
+        QueryCacheRegistry.configure(clientConfig, "users", 10_000);
+
         return clientConfig;
     }
 
+    /**
+     * Starts a client, first creating the directories its near caches store their keys
+     * in; Hazelcast does not create them and skips storing the keys without them
+     */
+    public static HazelcastInstance createClient(com.hazelcast.client.config.ClientConfig clientConfig) {
+        for (NearCacheConfig nearCacheConfig : clientConfig.getNearCacheConfigMap().values()) {
+            NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
+            File directory = new File(preloaderConfig.getDirectory());
+            if (preloaderConfig.isEnabled() && !directory.isDirectory() && !directory.mkdirs()) {
+                logger.warn("Could not create near cache preloader directory: {}", directory);
+            }
+        }
+        return HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    /**
+     * Creates a client near cache configuration for the given map.
+     * OBJECT format skips deserialization on hits but hands out the cached instance,
+     * so callers must not mutate it; BINARY returns a fresh copy on every hit.
+     */
+    public static NearCacheConfig createNearCacheConfig(String mapName, InMemoryFormat inMemoryFormat) {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig(mapName);
+        nearCacheConfig.setInMemoryFormat(inMemoryFormat);
+        nearCacheConfig.setInvalidateOnChange(true);
+        nearCacheConfig.setCacheLocalEntries(false);
+
+        // Bound the near cache by entry count
+        EvictionConfig evictionConfig = new EvictionConfig();
+        evictionConfig.setEvictionPolicy(EvictionPolicy.LRU);
+        evictionConfig.setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT);
+        evictionConfig.setSize(10000);
+        nearCacheConfig.setEvictionConfig(evictionConfig);
+
+        // Persist the cached keys so a restarted client comes back warm; the directory is
+        // created by createClient
+        NearCachePreloaderConfig preloaderConfig = new NearCachePreloaderConfig();
+        preloaderConfig.setEnabled(true);
+        preloaderConfig.setDirectory(System.getProperty(NEAR_CACHE_DIRECTORY_PROPERTY, "near-cache"));
+        preloaderConfig.setStoreInitialDelaySeconds(60);
+        preloaderConfig.setStoreIntervalSeconds(60);
+        nearCacheConfig.setPreloaderConfig(preloaderConfig);
+
+        return nearCacheConfig;
+    }
+
     /**
      * Creates a Hazelcast instance with minimal configuration for development
      */
@@ -128,16 +539,19 @@ public class HazelcastConfig {
         Config config = new Config();
         config.setClusterName("dev");
         
-        // Enable multicast for easy development
-        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(true);
+        // Join other members on this host straight away; multicast waits for answers first
+        configureTcpJoin(config, List.of("127.0.0.1"), 0, 1, 10);
+        
+        // Register the same serializers as the clients
+        configureSerialization(config.getSerializationConfig());
         
-        // Disable backups for development
-        config.getMapConfigs().values().forEach(mapConfig -> {
-            mapConfig.setBackupCount(0);
-            mapConfig.setAsyncBackupCount(0);
-        });
+        // Disable backups for development; no map is configured here, so change the
+        // "default" config that every map falls back to
+        config.getMapConfig("default")
+                .setBackupCount(0)
+                .setAsyncBackupCount(0);
         
         logger.info("Creating Hazelcast instance with development configuration");
-        return Hazelcast.newHazelcastInstance(config);
+        return startMember(config);
     }
 } 
\ No newline at end of file
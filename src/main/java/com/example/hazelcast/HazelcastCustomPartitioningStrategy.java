@@ -6,6 +6,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 
+/**
+ * Sends every key to the same partition. Kept as the baseline for the partitioning
+ * benchmark; use {@link BalancedPartitioningStrategy} for real maps.
+ */
 public class HazelcastCustomPartitioningStrategy implements PartitioningStrategy, Serializable {
     
     private static final Logger logger = LoggerFactory.getLogger(HazelcastCustomPartitioningStrategy.class);
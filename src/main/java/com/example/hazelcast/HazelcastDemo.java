@@ -1,10 +1,10 @@
 package com.example.hazelcast;
 
-import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.cluster.Member;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
 import com.hazelcast.map.IMap;
 import com.hazelcast.collection.IQueue;
 import com.hazelcast.partition.Partition;
@@ -13,10 +13,18 @@ import com.hazelcast.partition.PartitionService;
 import com.hazelcast.topic.ITopic;
 import com.hazelcast.topic.Message;
 import com.hazelcast.topic.MessageListener;
+import com.sun.net.httpserver.HttpServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Main demo class showcasing Hazelcast features
@@ -24,17 +32,50 @@ import java.util.concurrent.TimeUnit;
 public class HazelcastDemo {
     private static final Logger logger = LoggerFactory.getLogger(HazelcastDemo.class);
 
+    /**
+     * System property with the port of the latency metrics endpoint, 9404 by default
+     */
+    public static final String METRICS_PORT_PROPERTY = "hazelcast.study.metrics.port";
+
     public static void main(String[] args) {
         logger.info("Starting Hazelcast Demo...");
 
-        // Start a Hazelcast server instance with custom configuration
-        HazelcastInstance server = HazelcastConfig.createConfiguredInstance();
+        // Start a Hazelcast server instance with custom configuration, timing each phase of startup
+        StartupProfiler startup = StartupProfiler.sinceJvmStart();
+        HazelcastInstance server = startup.time(StartupProfiler.Phase.JOIN, HazelcastConfig::createConfiguredInstance);
         logger.info("Hazelcast server started with custom configuration");
 
-        // Create a client to connect to the server
+        // Warm start: bring users back from the last snapshot, then keep snapshotting it
+        MapSnapshots snapshots = new MapSnapshots(server, "users", Paths.get("data", "snapshots"), 4);
+        ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            startup.assignPartitions(server, 60, TimeUnit.SECONDS);
+            startup.time(StartupProfiler.Phase.DATA_LOAD, snapshots::restore);
+        } catch (Exception e) {
+            logger.warn("Could not restore users from its snapshot", e);
+        }
+        logger.info("Hazelcast server ready: {}", startup);
+        snapshots.scheduleSnapshots(snapshotScheduler, 5, TimeUnit.MINUTES);
+
+        // Create a client to connect to the server; its maps, queues, topics and
+        // executors record their latencies, served for Prometheus and over JMX
         ClientConfig clientConfig = HazelcastConfig.createClientConfig();
-        HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+        LatencyMetrics metrics = new LatencyMetrics(true);
+        HazelcastInstance client = Instrumentation.instrument(HazelcastConfig.createClient(clientConfig), metrics);
         logger.info("Hazelcast client connected");
+        HttpServer metricsServer = null;
+        try {
+            metricsServer = metrics.startHttpServer(Integer.getInteger(METRICS_PORT_PROPERTY, 9404));
+        } catch (IOException e) {
+            logger.warn("Latency metrics endpoint not started", e);
+        }
+
+        // Keep the users stats current from the event journal instead of aggregating on demand
+        try {
+            UserStatsPipeline.start(client);
+        } catch (Exception e) {
+            logger.warn("Streaming users stats not started", e);
+        }
 
         try {
             // Demo 1: Distributed Map
@@ -56,6 +97,18 @@ public class HazelcastDemo {
             logger.error("Error during demo execution", e);
         } finally {
             // Cleanup
+            snapshotScheduler.shutdownNow();
+            try {
+                snapshots.snapshot();
+            } catch (Exception e) {
+                logger.warn("Could not snapshot users", e);
+            }
+            for (LatencyMetrics.Operation operation : metrics.getOperations()) {
+                logger.info("{}: {}", operation, operation.getHistogram());
+            }
+            if (metricsServer != null) {
+                metricsServer.stop(0);
+            }
             client.shutdown();
             server.shutdown();
             logger.info("Hazelcast instances shut down");
@@ -80,16 +133,17 @@ public class HazelcastDemo {
         // Get the PartitionService
         PartitionService partitionService = client.getPartitionService();
 
-        // Iterate over each map key
+        // Iterate over each map key, fetched 100 at a time instead of as one keySet
         logger.info("=== Partition Information ===");
-        for (HazelcastPartitionAwareKey key : map.keySet()) {
+        StreamingQuery<HazelcastPartitionAwareKey, String> query = new StreamingQuery<>(server, "users", 100);
+        query.keys().forEach(key -> {
             Partition partition = partitionService.getPartition(key);
             int partitionId = partition.getPartitionId();
             Member owner = partition.getOwner();
 
             logger.info("Key: '{}' | partition key: '{}' | Partition ID: {}  | Key Hash: {}",
                     key.getVal(), key.getPartitionKey(), partitionId, key.getPartitionKey().hashCode());
-        }
+        });
         
         logger.info("ok");
     }
@@ -113,6 +167,29 @@ public class HazelcastDemo {
         
         logger.info("Polled items: {}, {}", item1, item2);
         logger.info("Remaining queue size: {}", queue.size());
+        queue.clear();
+
+        // Batched producer/consumer pipeline: addAll/drainTo instead of one round trip per item
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            items.add("item" + i);
+        }
+        AtomicLong received = new AtomicLong();
+        try (QueuePipeline<String> pipeline = new QueuePipeline<>(client, "demo-queue", 500, 2,
+                batch -> received.addAndGet(batch.size()))) {
+            pipeline.start();
+            pipeline.publish(items);
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (received.get() < items.size() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            if (received.get() < items.size()) {
+                logger.warn("Pipeline consumed only {} of {} items in 30s", received.get(), items.size());
+            }
+            logger.info("Pipeline metrics: {}", pipeline.getMetrics());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private static void demoDistributedTopic(HazelcastInstance client) {
@@ -137,12 +214,39 @@ public class HazelcastDemo {
         
         // Remove listener
         topic.removeMessageListener(listenerId);
+
+        // Reliable topic without global ordering: publishes are batched into the ringbuffer
+        ITopic<String> fastTopic = client.getReliableTopic("fast-topic");
+        var fastListenerId = fastTopic.addMessageListener(new ReliableTopicListener<String>(
+                message -> logger.info("Received from fast-topic: {}", message.getMessageObject()),
+                SlowSubscriberPolicy.DROP));
+        try {
+            fastTopic.publishAll(List.of("batch-1", "batch-2", "batch-3"));
+            logger.info("Published a batch of 3 messages to fast-topic");
+        } catch (Exception e) {
+            logger.error("Error publishing to fast-topic", e);
+        }
+        fastTopic.removeMessageListener(fastListenerId);
     }
 
     private static void demoDistributedLock(HazelcastInstance client) {
         logger.info("=== Demo 4: Distributed Lock ===");
         
-        var lock = client.getCPSubsystem().getLock("demo-lock");
+        // Per-entity locks are partition-local map locks, not CP consensus rounds
+        EntityLocks entityLocks = new EntityLocks(client, "entity-locks", 0);
+        try {
+            String owner = entityLocks.withLock("user-42", 5, TimeUnit.SECONDS,
+                    () -> Thread.currentThread().getName());
+            logger.info("Updated user-42 under its entity lock from {}", owner);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (java.util.concurrent.TimeoutException e) {
+            logger.warn("Failed to acquire entity lock within timeout");
+        }
+        
+        // The CP lock is kept for locks that must be global
+        var lock = entityLocks.globalLock("demo-lock");
         
         try {
             // Try to acquire lock
@@ -179,8 +283,79 @@ public class HazelcastDemo {
         } catch (Exception e) {
             logger.error("Error executing distributed task", e);
         }
+
+        // Data-local tasks: run on the owner of the key instead of fetching the entry remotely
+        DataLocalExecutor localExecutor = new DataLocalExecutor(client, "demo-executor",
+                new BalancedPartitioningStrategy(), 100);
+        try {
+            String value = localExecutor.submitToKeyOwner(new UserValueTask("key1", 1),
+                    new HazelcastPartitionAwareKey("key1", 1)).get(10, TimeUnit.SECONDS);
+            logger.info("Data-local task result: {}", value);
+
+            Integer entries = localExecutor.reduceOverMembers(new LocalEntryCountTask("users"), 0, Integer::sum)
+                    .get(10, TimeUnit.SECONDS);
+            logger.info("Entries in users counted on their owners: {}", entries);
+        } catch (Exception e) {
+            logger.error("Error executing data-local task", e);
+        }
     }
     
+    // Reads an entry of users, or of another map, on the member that owns it; the key is
+    // rebuilt there because HazelcastPartitionAwareKey is Compact, not Java, serializable
+    public static class UserValueTask implements java.util.concurrent.Callable<String>, java.io.Serializable,
+            HazelcastInstanceAware {
+        private static final long serialVersionUID = 2L;
+
+        private final String mapName;
+        private final String val;
+        private final int partitionKey;
+        private transient HazelcastInstance instance;
+
+        public UserValueTask(String val, int partitionKey) {
+            this("users", val, partitionKey);
+        }
+
+        public UserValueTask(String mapName, String val, int partitionKey) {
+            this.mapName = mapName;
+            this.val = val;
+            this.partitionKey = partitionKey;
+        }
+
+        @Override
+        public void setHazelcastInstance(HazelcastInstance instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public String call() {
+            Object value = instance.getMap(mapName).get(new HazelcastPartitionAwareKey(val, partitionKey));
+            return value + " read on member " + instance.getCluster().getLocalMember().getAddress();
+        }
+    }
+
+    // Counts the entries of a map owned by the member it runs on
+    public static class LocalEntryCountTask implements java.util.concurrent.Callable<Integer>, java.io.Serializable,
+            HazelcastInstanceAware {
+        private static final long serialVersionUID = 1L;
+
+        private final String mapName;
+        private transient HazelcastInstance instance;
+
+        public LocalEntryCountTask(String mapName) {
+            this.mapName = mapName;
+        }
+
+        @Override
+        public void setHazelcastInstance(HazelcastInstance instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public Integer call() {
+            return instance.getMap(mapName).localKeySet().size();
+        }
+    }
+
     // Serializable task for distributed execution
     public static class SimpleTask implements java.util.concurrent.Callable<String>, java.io.Serializable {
         private static final long serialVersionUID = 1L;
@@ -2,6 +2,8 @@ package com.example.hazelcast;
 
 import com.hazelcast.partition.PartitionAware;
 
+import java.util.Objects;
+
 public class HazelcastPartitionAwareKey implements PartitionAware {
 
     private String val;
@@ -20,4 +22,26 @@ public class HazelcastPartitionAwareKey implements PartitionAware {
     public Object getPartitionKey() {
         return partitionKey;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HazelcastPartitionAwareKey)) {
+            return false;
+        }
+        HazelcastPartitionAwareKey that = (HazelcastPartitionAwareKey) o;
+        return partitionKey == that.partitionKey && Objects.equals(val, that.val);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(val, partitionKey);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HazelcastPartitionAwareKey{val='%s', partitionKey=%d}", val, partitionKey);
+    }
 }
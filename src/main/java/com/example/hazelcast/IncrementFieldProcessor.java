@@ -0,0 +1,52 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecord;
+
+import java.util.Map;
+
+/**
+ * Adds {@code delta} to an int32 field of a Compact value in place, for example
+ * {@code new IncrementFieldProcessor<>("age", 1, false)}.
+ *
+ * <p>Use it with {@code executeOnEntries(processor, predicate)} or
+ * {@code executeOnKeys(keys, processor)} to limit the update to part of the map. With
+ * {@code returnResults} off the result map stays empty, which avoids boxing a result
+ * per entry on large updates. Passing an executor name offloads the work from the
+ * partition thread (see {@link Offloadable}).
+ */
+public class IncrementFieldProcessor<K, V> extends GenericRecordEntryProcessor<K, V, Integer> implements Offloadable {
+    private static final long serialVersionUID = 1L;
+
+    private final String fieldName;
+    private final int delta;
+    private final boolean returnResults;
+    private final String executorName;
+
+    public IncrementFieldProcessor(String fieldName, int delta, boolean returnResults) {
+        this(fieldName, delta, returnResults, NO_OFFLOADING);
+    }
+
+    public IncrementFieldProcessor(String fieldName, int delta, boolean returnResults, String executorName) {
+        this.fieldName = fieldName;
+        this.delta = delta;
+        this.returnResults = returnResults;
+        this.executorName = executorName;
+    }
+
+    @Override
+    protected Integer process(Map.Entry<K, V> entry, GenericRecord record) {
+        if (record.getFieldKind(fieldName) != FieldKind.INT32) {
+            return null;
+        }
+        int updated = record.getInt32(fieldName) + delta;
+        setRecord(entry, record.newBuilderWithClone().setInt32(fieldName, updated).build());
+        return returnResults ? updated : null;
+    }
+
+    @Override
+    public String getExecutorName() {
+        return executorName;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.hazelcast;
+
+import com.hazelcast.collection.IQueue;
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.topic.ITopic;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps a {@link HazelcastInstance} so that the maps, queues, topics and executors it
+ * hands out record the latency of every call in {@link LatencyMetrics}.
+ *
+ * <p>The wrappers are dynamic proxies over the real handles. A call is timed from entry
+ * to return; when it returns a {@link CompletionStage} it is timed until the stage
+ * completes instead, so async operations report their round trip. Exceptions count as
+ * errors. The methods of {@link DistributedObject}, such as {@code getName}, are not
+ * recorded. Every other call of the instance is passed through unchanged.
+ */
+public final class Instrumentation {
+    private static final String[] INSTRUMENTED = {"getMap", "getQueue", "getTopic", "getReliableTopic", "getExecutorService"};
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Instance whose data structure handles record into {@code metrics}
+     */
+    public static HazelcastInstance instrument(HazelcastInstance instance, LatencyMetrics metrics) {
+        ConcurrentMap<String, Object> handles = new ConcurrentHashMap<>();
+        return (HazelcastInstance) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(),
+                new Class<?>[]{HazelcastInstance.class}, (proxy, method, args) -> {
+                    Object result = invoke(instance, method, args);
+                    if (result instanceof DistributedObject && isInstrumented(method)) {
+                        // One wrapper per handle keeps getMap(name) cheap when called per request
+                        return handles.computeIfAbsent(method.getName() + '/' + args[0],
+                                key -> wrap(result, method.getReturnType(), structure(method), metrics));
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean isInstrumented(Method method) {
+        for (String name : INSTRUMENTED) {
+            if (name.equals(method.getName()) && method.getParameterCount() == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String structure(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == IMap.class) {
+            return "map";
+        } else if (type == IQueue.class) {
+            return "queue";
+        } else if (type == ITopic.class) {
+            return "topic";
+        } else if (type == IExecutorService.class) {
+            return "executor";
+        }
+        return type.getSimpleName();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T wrap(Object target, Class<T> type, String structure, LatencyMetrics metrics) {
+        String name = ((DistributedObject) target).getName();
+        return (T) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(), new Class<?>[]{type},
+                new RecordingHandler(target, structure, name, metrics));
+    }
+
+    /**
+     * The real handle behind a recording wrapper, or the handle itself when it is not
+     * wrapped; for code that needs the Hazelcast proxy class, whose calls go unrecorded
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T unwrap(T handle) {
+        if (Proxy.isProxyClass(handle.getClass()) && Proxy.getInvocationHandler(handle) instanceof RecordingHandler) {
+            return (T) ((RecordingHandler) Proxy.getInvocationHandler(handle)).target;
+        }
+        return handle;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class RecordingHandler implements InvocationHandler {
+        private final Object target;
+        private final String structure;
+        private final String name;
+        private final LatencyMetrics metrics;
+        // Method objects are shared by all calls, so the per-call lookup allocates nothing
+        private final ConcurrentMap<Method, LatencyMetrics.Operation> operations = new ConcurrentHashMap<>();
+
+        RecordingHandler(Object target, String structure, String name, LatencyMetrics metrics) {
+            this.target = target;
+            this.structure = structure;
+            this.name = name;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Class<?> declaringClass = method.getDeclaringClass();
+            if (declaringClass == Object.class || declaringClass == DistributedObject.class) {
+                return Instrumentation.invoke(target, method, args);
+            }
+            LatencyMetrics.Operation operation = operations.get(method);
+            if (operation == null) {
+                operation = operations.computeIfAbsent(method, m -> metrics.operation(structure, name, m.getName()));
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = Instrumentation.invoke(target, method, args);
+            } catch (Throwable t) {
+                operation.recordError(System.nanoTime() - start);
+                throw t;
+            }
+            if (result instanceof CompletionStage) {
+                LatencyMetrics.Operation asyncOperation = operation;
+                // Record on the completing thread; the stage handed back is the original one
+                ((CompletionStage<?>) result).whenCompleteAsync((value, error) -> {
+                    if (error == null) {
+                        asyncOperation.record(System.nanoTime() - start);
+                    } else {
+                        asyncOperation.recordError(System.nanoTime() - start);
+                    }
+                }, Runnable::run);
+            } else {
+                operation.record(System.nanoTime() - start);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.hazelcast;
+
+import java.util.Random;
+
+/**
+ * Picks which of {@code records} keys an operation touches, as in YCSB.
+ *
+ * <p>Implementations are immutable and take the random source as a parameter, so one
+ * instance can be shared by all load generator threads.
+ */
+public interface KeyDistribution {
+
+    /**
+     * Index of the next key, between {@code 0} and {@code records - 1}
+     */
+    long next(Random random);
+
+    /**
+     * Every key equally likely
+     */
+    static KeyDistribution uniform(long records) {
+        return random -> (long) (random.nextDouble() * records);
+    }
+
+    /**
+     * Zipfian popularity: key {@code i} is chosen with a probability proportional to
+     * {@code 1 / (i + 1)^theta}. YCSB uses {@code theta = 0.99}.
+     */
+    static KeyDistribution zipfian(long records, double theta) {
+        return new Zipfian(records, theta);
+    }
+
+    /**
+     * Zipfian popularity with the popular keys scattered over the key space, as YCSB's
+     * {@code zipfian} request distribution does: the rank drawn by {@link #zipfian} is
+     * hashed to a key index. Without it the most popular keys are neighbours, and
+     * neighbouring keys share a partition key, so a few partitions take most of the load.
+     * Like in YCSB, ranks that hash to the same index add up, so a few keys are never
+     * picked.
+     */
+    static KeyDistribution scrambledZipfian(long records, double theta) {
+        Zipfian ranks = new Zipfian(records, theta);
+        return random -> Math.floorMod(fnv64(ranks.next(random)), records);
+    }
+
+    /**
+     * FNV-1a over the eight bytes of the value, low byte first
+     */
+    static long fnv64(long value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < 8; i++) {
+            hash ^= value & 0xff;
+            hash *= 0x100000001B3L;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    /**
+     * {@code hotOperationFraction} of the operations go to the first
+     * {@code hotKeyFraction} of the keys, the rest to the others, uniformly within each set
+     */
+    static KeyDistribution hotspot(long records, double hotKeyFraction, double hotOperationFraction) {
+        if (hotKeyFraction <= 0 || hotKeyFraction >= 1) {
+            throw new IllegalArgumentException("hotKeyFraction must be between 0 and 1");
+        }
+        long hotKeys = Math.max(1, (long) (records * hotKeyFraction));
+        return random -> random.nextDouble() < hotOperationFraction
+                ? (long) (random.nextDouble() * hotKeys)
+                : hotKeys + (long) (random.nextDouble() * (records - hotKeys));
+    }
+
+    /**
+     * Distribution by name: {@code uniform}, {@code zipfian} (scrambled, see
+     * {@link #scrambledZipfian}) or {@code hotspot}
+     */
+    static KeyDistribution of(String name, long records, double zipfianTheta,
+                              double hotKeyFraction, double hotOperationFraction) {
+        switch (name) {
+            case "uniform":
+                return uniform(records);
+            case "zipfian":
+                return scrambledZipfian(records, zipfianTheta);
+            case "hotspot":
+                return hotspot(records, hotKeyFraction, hotOperationFraction);
+            default:
+                throw new IllegalArgumentException("Unknown key distribution: " + name);
+        }
+    }
+
+    /**
+     * Gray et al., "Quickly Generating Billion-Record Synthetic Databases": one
+     * {@code pow} per key after an O(records) setup
+     */
+    final class Zipfian implements KeyDistribution {
+        private final long records;
+        private final double theta;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+
+        Zipfian(long records, double theta) {
+            if (records < 2 || theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("zipfian needs at least 2 records and 0 < theta < 1");
+            }
+            this.records = records;
+            this.theta = theta;
+            this.zetaN = zeta(records, theta);
+            this.alpha = 1 / (1 - theta);
+            this.eta = (1 - Math.pow(2.0 / records, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+
+        @Override
+        public long next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return 1;
+            }
+            return Math.min(records - 1, (long) (records * Math.pow(eta * u - eta + 1, alpha)));
+        }
+    }
+}
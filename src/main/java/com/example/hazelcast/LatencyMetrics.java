@@ -0,0 +1,233 @@
+package com.example.hazelcast;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per data structure and operation, filled by
+ * {@link Instrumentation}.
+ *
+ * <p>Each operation is registered as an MXBean named
+ * {@code com.example.hazelcast:type=Latency,structure=<structure>,name=<name>,operation=<operation>}
+ * when {@code registerMBeans} is set, and {@link #startHttpServer(int)} serves all of them
+ * in the Prometheus text format on {@code http://127.0.0.1:<port>/metrics}.
+ */
+public class LatencyMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyMetrics.class);
+
+    private static final String METRIC = "hazelcast_client_operation_latency_seconds";
+    private static final String ERRORS = "hazelcast_client_operation_errors_total";
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private final boolean registerMBeans;
+
+    public LatencyMetrics(boolean registerMBeans) {
+        this.registerMBeans = registerMBeans;
+    }
+
+    /**
+     * Histogram and error count of one operation, created on first use
+     */
+    public Operation operation(String structure, String name, String operation) {
+        return operations.computeIfAbsent(structure + '/' + name + '/' + operation, key -> {
+            Operation created = new Operation(structure, name, operation);
+            if (registerMBeans) {
+                register(created);
+            }
+            return created;
+        });
+    }
+
+    private static void register(Operation operation) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.example.hazelcast:type=Latency"
+                    + ",structure=" + ObjectName.quote(operation.structure)
+                    + ",name=" + ObjectName.quote(operation.name)
+                    + ",operation=" + operation.operation);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(operation, objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register latency MBean for {}", operation, e);
+        }
+    }
+
+    public List<Operation> getOperations() {
+        List<Operation> result = new ArrayList<>(operations.values());
+        result.sort(Comparator.comparing(Operation::toString));
+        return result;
+    }
+
+    /**
+     * All operations in the Prometheus text exposition format
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP ").append(METRIC).append(" Latency of operations issued through instrumented proxies\n");
+        text.append("# TYPE ").append(METRIC).append(" summary\n");
+        List<Operation> sorted = getOperations();
+        for (Operation operation : sorted) {
+            String labels = operation.labels();
+            LatencyHistogram histogram = operation.histogram;
+            for (double quantile : QUANTILES) {
+                text.append(METRIC).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.quantile(quantile))).append('\n');
+            }
+            text.append(METRIC).append("_sum{").append(labels).append("} ")
+                    .append(seconds(histogram.getSumNanos())).append('\n');
+            text.append(METRIC).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+        }
+        text.append("# HELP ").append(ERRORS).append(" Operations that threw or completed exceptionally\n");
+        text.append("# TYPE ").append(ERRORS).append(" counter\n");
+        for (Operation operation : sorted) {
+            text.append(ERRORS).append('{').append(operation.labels()).append("} ").append(operation.getErrors()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    /**
+     * Serves {@link #toPrometheusText()} on the loopback interface; stop it with {@code stop(0)}
+     */
+    public HttpServer startHttpServer(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        logger.info("Latency metrics served on http://{}:{}/metrics",
+                server.getAddress().getHostString(), server.getAddress().getPort());
+        return server;
+    }
+
+    /**
+     * JMX view of one {@link Operation}, latencies in microseconds
+     */
+    public interface OperationMXBean {
+        long getCount();
+
+        long getErrors();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaxMicros();
+    }
+
+    /**
+     * Latencies and errors of one operation on one data structure
+     */
+    public static final class Operation implements OperationMXBean {
+        private final String structure;
+        private final String name;
+        private final String operation;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        Operation(String structure, String name, String operation) {
+            this.structure = structure;
+            this.name = name;
+            this.operation = operation;
+        }
+
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+
+        public void recordError(long nanos) {
+            histogram.record(nanos);
+            errors.increment();
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return histogram.getMeanNanos() / 1000;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return micros(histogram.quantile(0.5));
+        }
+
+        @Override
+        public double getP99Micros() {
+            return micros(histogram.quantile(0.99));
+        }
+
+        @Override
+        public double getP999Micros() {
+            return micros(histogram.quantile(0.999));
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return micros(histogram.getMaxNanos());
+        }
+
+        private static double micros(long nanos) {
+            return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+        }
+
+        private String labels() {
+            return "structure=\"" + escape(structure) + "\",name=\"" + escape(name)
+                    + "\",operation=\"" + escape(operation) + "\"";
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+
+        @Override
+        public String toString() {
+            return structure + "/" + name + "/" + operation;
+        }
+    }
+}
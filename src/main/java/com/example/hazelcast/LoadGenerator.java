@@ -0,0 +1,395 @@
+package com.example.hazelcast;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+/**
+ * YCSB-style workload driver against one map of {@link HazelcastPartitionAwareKey} keys
+ * and {@code byte[]} values; the main class of the shaded jar.
+ *
+ * <p>Each operation is a {@code read} ({@code get}), an {@code update} ({@code set} of an
+ * existing key), a {@code write} ({@code set} of a key that was not loaded) or a
+ * {@code scan} ({@code getAll} of {@code scan-length} consecutive keys), drawn with the
+ * configured ratios. Existing keys are picked with a {@link KeyDistribution}, whose
+ * {@code zipfian} scatters the popular keys over the key space. Key
+ * {@code i} has the partition key {@code i / keys-per-partition-key}, so consecutive keys
+ * share a partition the way colocated entities do.
+ *
+ * <p>With a {@code target} rate every thread issues operations on a fixed schedule and
+ * latency is measured from the time the operation was due, not from when it was sent,
+ * so a stalled cluster shows up in the percentiles instead of only lowering throughput.
+ * Operations completed during {@code warmup} are not reported. The report is JSON,
+ * written to {@code output} or standard output.
+ *
+ * <p>On Java 21 {@code --virtual-threads=true} runs the threads as virtual threads, so
+ * {@code threads} can be in the tens of thousands; it defaults to
+ * {@link VirtualThreads#isEnabled()}.
+ *
+ * <pre>
+ * java -jar target/hazelcast-study-1.0.0.jar --records=100000 --read=0.5 --update=0.5 \
+ *     --distribution=zipfian --threads=16 --target=20000 --warmup=10 --duration=60
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final String[] OPERATIONS = {"read", "update", "write", "scan"};
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p95", "p99", "p999"};
+
+    private final HazelcastInstance instance;
+    private final Options options;
+    private final IMap<HazelcastPartitionAwareKey, byte[]> map;
+    private final KeyDistribution distribution;
+    private final AtomicLong nextWrite;
+    private volatile LatencyMetrics phase;
+    private volatile boolean stopped;
+
+    public LoadGenerator(HazelcastInstance instance, Options options) {
+        this.instance = instance;
+        this.options = options;
+        this.map = instance.getMap(options.map);
+        this.distribution = KeyDistribution.of(options.distribution, options.records,
+                options.zipfianConstant, options.hotspotKeys, options.hotspotOperations);
+        this.nextWrite = new AtomicLong(options.records);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<HazelcastInstance> instances = new ArrayList<>();
+        try {
+            ClientConfig clientConfig = HazelcastConfig.createClientConfig(null);
+            if (options.addresses == null) {
+                instances.add(HazelcastConfig.createConfiguredInstance());
+            } else {
+                clientConfig.setClusterName(options.cluster);
+                clientConfig.getNetworkConfig().setAddresses(List.of(options.addresses.split(",")));
+            }
+            HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+            instances.add(client);
+
+            LoadGenerator generator = new LoadGenerator(client, options);
+            if (options.load) {
+                generator.load();
+            }
+            String report = generator.run().toJson();
+            if (options.output == null) {
+                System.out.println(report);
+            } else {
+                Files.write(Paths.get(options.output), report.getBytes(StandardCharsets.UTF_8));
+                logger.info("Report written to {}", options.output);
+            }
+        } finally {
+            for (int i = instances.size() - 1; i >= 0; i--) {
+                instances.get(i).shutdown();
+            }
+        }
+    }
+
+    static HazelcastPartitionAwareKey key(long index, int keysPerPartitionKey) {
+        return new HazelcastPartitionAwareKey("user" + index, (int) (index / keysPerPartitionKey));
+    }
+
+    private HazelcastPartitionAwareKey key(long index) {
+        return key(index, options.keysPerPartitionKey);
+    }
+
+    private byte[] value(ThreadLocalRandom random) {
+        byte[] value = new byte[options.valueSize];
+        random.nextBytes(value);
+        return value;
+    }
+
+    /**
+     * Stores {@code records} keys with random values so reads and updates find them
+     */
+    public BulkLoader.Result load() throws InterruptedException {
+        BulkLoader<HazelcastPartitionAwareKey, byte[]> loader = new BulkLoader<>(instance, options.map, 1000, 8);
+        return loader.load(LongStream.range(0, options.records)
+                .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(key(i), value(ThreadLocalRandom.current()))));
+    }
+
+    /**
+     * Runs the warmup and the measured phase and reports the measured one
+     */
+    public Report run() throws InterruptedException {
+        phase = new LatencyMetrics(false);
+        stopped = false;
+        List<Thread> threads = new ArrayList<>();
+        ThreadFactory virtualThreads = options.virtualThreads ? VirtualThreads.factory("load-generator-") : null;
+        for (int i = 0; i < options.threads; i++) {
+            Thread thread = virtualThreads != null
+                    ? virtualThreads.newThread(this::work)
+                    : new Thread(this::work, "load-generator-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        logger.info("Warming up for {} s", options.warmupSeconds);
+        TimeUnit.SECONDS.sleep(options.warmupSeconds);
+        LatencyMetrics measured = new LatencyMetrics(false);
+        phase = measured;
+        long start = System.nanoTime();
+        logger.info("Measuring for {} s", options.durationSeconds);
+        TimeUnit.SECONDS.sleep(options.durationSeconds);
+        stopped = true;
+        long elapsed = System.nanoTime() - start;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Report report = new Report(options, measured, elapsed);
+        logger.info("{} operations, {} ops/s", report.getOperations(), String.format(Locale.ROOT, "%.1f", report.getThroughput()));
+        return report;
+    }
+
+    private void work() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Values are reused; the client serializes them on every call
+        byte[] value = value(random);
+        long interval = options.target > 0 ? (long) (TimeUnit.SECONDS.toNanos(options.threads) / options.target) : 0;
+        long due = System.nanoTime();
+        LatencyMetrics current = null;
+        LatencyMetrics.Operation[] recorders = new LatencyMetrics.Operation[OPERATIONS.length];
+
+        while (!stopped) {
+            if (phase != current) {
+                current = phase;
+                for (int i = 0; i < OPERATIONS.length; i++) {
+                    recorders[i] = current.operation("map", options.map, OPERATIONS[i]);
+                }
+            }
+            if (interval > 0) {
+                due += interval;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                due = System.nanoTime();
+            }
+
+            int operation = pick(random.nextDouble());
+            try {
+                execute(OPERATIONS[operation], random, value);
+                recorders[operation].record(System.nanoTime() - due);
+            } catch (RuntimeException e) {
+                recorders[operation].recordError(System.nanoTime() - due);
+                logger.debug("{} failed", OPERATIONS[operation], e);
+            }
+        }
+    }
+
+    private int pick(double draw) {
+        double cumulative = 0;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            cumulative += options.ratios[i];
+            if (draw < cumulative) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void execute(String operation, ThreadLocalRandom random, byte[] value) {
+        switch (operation) {
+            case "read":
+                map.get(key(distribution.next(random)));
+                break;
+            case "update":
+                map.set(key(distribution.next(random)), value);
+                break;
+            case "write":
+                map.set(key(nextWrite.getAndIncrement()), value);
+                break;
+            case "scan":
+                long first = Math.min(distribution.next(random), Math.max(0, options.records - options.scanLength));
+                Set<HazelcastPartitionAwareKey> keys = new HashSet<>();
+                for (long i = first; i < first + options.scanLength; i++) {
+                    keys.add(key(i));
+                }
+                map.getAll(keys);
+                break;
+            default:
+                throw new IllegalStateException(operation);
+        }
+    }
+
+    /**
+     * Workload parsed from {@code --name=value} arguments
+     */
+    public static final class Options {
+        final String addresses;
+        final String cluster;
+        final String map;
+        final long records;
+        final boolean load;
+        final double[] ratios;
+        final int scanLength;
+        final String distribution;
+        final double zipfianConstant;
+        final double hotspotKeys;
+        final double hotspotOperations;
+        final int keysPerPartitionKey;
+        final int valueSize;
+        final int threads;
+        final boolean virtualThreads;
+        final double target;
+        final long warmupSeconds;
+        final long durationSeconds;
+        final String output;
+        private final Map<String, String> values;
+
+        private Options(Map<String, String> values) {
+            this.values = values;
+            addresses = values.remove("addresses");
+            cluster = string("cluster", "hazelcast-study-cluster");
+            map = string("map", "load-generator");
+            records = Long.parseLong(string("records", "100000"));
+            load = Boolean.parseBoolean(string("load", "true"));
+            ratios = new double[OPERATIONS.length];
+            double sum = 0;
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                ratios[i] = Double.parseDouble(string(OPERATIONS[i], i == 0 ? "0.95" : i == 1 ? "0.05" : "0"));
+                sum += ratios[i];
+            }
+            if (Math.abs(sum - 1) > 1e-6) {
+                throw new IllegalArgumentException("read, update, write and scan must add up to 1, not " + sum);
+            }
+            scanLength = Integer.parseInt(string("scan-length", "10"));
+            distribution = string("distribution", "zipfian");
+            zipfianConstant = Double.parseDouble(string("zipfian-constant", "0.99"));
+            hotspotKeys = Double.parseDouble(string("hotspot-keys", "0.2"));
+            hotspotOperations = Double.parseDouble(string("hotspot-operations", "0.8"));
+            keysPerPartitionKey = Integer.parseInt(string("keys-per-partition-key", "10"));
+            valueSize = Integer.parseInt(string("value-size", "1024"));
+            threads = Integer.parseInt(string("threads", "8"));
+            virtualThreads = Boolean.parseBoolean(string("virtual-threads", Boolean.toString(VirtualThreads.isEnabled())));
+            target = Double.parseDouble(string("target", "0"));
+            warmupSeconds = Long.parseLong(string("warmup", "10"));
+            durationSeconds = Long.parseLong(string("duration", "60"));
+            output = values.remove("output");
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown options: " + values.keySet());
+            }
+        }
+
+        private String string(String name, String defaultValue) {
+            String value = values.remove(name);
+            return value == null ? defaultValue : value;
+        }
+
+        public static Options parse(String... args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+            return new Options(values);
+        }
+    }
+
+    /**
+     * Throughput and latency percentiles of the measured phase
+     */
+    public static final class Report {
+        private final Options options;
+        private final LatencyMetrics metrics;
+        private final long elapsedNanos;
+
+        Report(Options options, LatencyMetrics metrics, long elapsedNanos) {
+            this.options = options;
+            this.metrics = metrics;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getOperations() {
+            long total = 0;
+            for (LatencyMetrics.Operation operation : metrics.getOperations()) {
+                total += operation.getCount();
+            }
+            return total;
+        }
+
+        public double getThroughput() {
+            return getOperations() / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Recorder of one operation type; empty when that type never ran
+         */
+        public LatencyMetrics.Operation getOperation(String operation) {
+            return metrics.operation("map", options.map, operation);
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder("{");
+            json.append("\"workload\":{");
+            json.append("\"map\":\"").append(options.map).append('"');
+            json.append(",\"records\":").append(options.records);
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                json.append(",\"").append(OPERATIONS[i]).append("\":").append(options.ratios[i]);
+            }
+            json.append(",\"distribution\":\"").append(options.distribution).append('"');
+            json.append(",\"value_size\":").append(options.valueSize);
+            json.append(",\"threads\":").append(options.threads);
+            json.append(",\"virtual_threads\":").append(options.virtualThreads);
+            json.append(",\"target_ops_per_second\":").append(options.target);
+            json.append(",\"warmup_seconds\":").append(options.warmupSeconds);
+            json.append("},\"duration_seconds\":").append(format(elapsedNanos / 1e9));
+            json.append(",\"operations\":").append(getOperations());
+            json.append(",\"throughput_ops_per_second\":").append(format(getThroughput()));
+            json.append(",\"latency_us\":{");
+            String separator = "";
+            for (String name : OPERATIONS) {
+                LatencyMetrics.Operation operation = getOperation(name);
+                if (operation.getCount() == 0) {
+                    continue;
+                }
+                LatencyHistogram histogram = operation.getHistogram();
+                json.append(separator).append('"').append(name).append("\":{");
+                json.append("\"count\":").append(operation.getCount());
+                json.append(",\"errors\":").append(operation.getErrors());
+                json.append(",\"mean\":").append(format(operation.getMeanMicros()));
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    json.append(",\"").append(QUANTILE_NAMES[i]).append("\":")
+                            .append(format(histogram.quantile(QUANTILES[i]) / 1e3));
+                }
+                json.append(",\"max\":").append(format(operation.getMaxMicros()));
+                json.append('}');
+                separator = ",";
+            }
+            return json.append("}}").toString();
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.1f", value);
+        }
+    }
+}
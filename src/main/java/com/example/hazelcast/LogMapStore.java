@@ -0,0 +1,294 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.EntryStore;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Map store that keeps a map's entries in a local {@link SegmentedLog}.
+ *
+ * <p>Meant to run write-behind: Hazelcast queues the changes, coalesces them per key and
+ * hands them over in batches from its own thread, so {@code put} never waits for the
+ * log. Each member appends the entries it owns to {@code <directory>/<map>/member-<port>};
+ * the logs of the other members in the directory are opened read-only and followed at
+ * most once per sync interval. Loads take the newest record of a key across all logs,
+ * so entries written before a migration are still found after it and a full restart of
+ * the cluster brings every entry back.
+ *
+ * <p>As an {@link EntryStore} it is handed the expiration time of every entry that has a
+ * time to live or max idle, and keeps it with the record. Loads skip records that have
+ * expired since, so an entry that expired in the map does not come back from the log, and
+ * the entries they do return keep their original deadline instead of a fresh time to live.
+ *
+ * <p>Keys and values are written in the member's serialized form. Properties:
+ * <ul>
+ *   <li>{@code directory}: root directory of the logs, {@code data} by default</li>
+ *   <li>{@code segment-size}: bytes per segment file, 64 MB by default</li>
+ *   <li>{@code sync-interval-millis}: how often written batches are forced to disk, 1000 by default</li>
+ *   <li>{@code compaction-interval-seconds}: how often dead segments are compacted, 60 by default</li>
+ *   <li>{@code compaction-ratio}: compact segments whose live share is below this, 0.5 by default</li>
+ * </ul>
+ */
+public class LogMapStore<K, V> implements EntryStore<K, V>, MapLoaderLifecycleSupport {
+    private static final Logger logger = LoggerFactory.getLogger(LogMapStore.class);
+
+    /**
+     * System property naming the root directory used by {@link HazelcastConfig#createLogMapStoreConfig(int)}
+     */
+    public static final String DIRECTORY_PROPERTY = "hazelcast.study.store.dir";
+
+    private static final String MEMBER_PREFIX = "member-";
+
+    private SerializationService serializationService;
+    private Path mapDirectory;
+    private Path ownDirectory;
+    private SegmentedLog log;
+    private final Map<Path, SegmentedLog> siblings = new HashMap<>();
+    private long siblingsRefreshedMillis;
+    private long syncIntervalMillis;
+    private long lastSyncMillis;
+    private ScheduledExecutorService compactor;
+
+    @Override
+    public void init(HazelcastInstance instance, Properties properties, String mapName) {
+        serializationService = ((SerializationServiceSupport) instance).getSerializationService();
+        mapDirectory = Paths.get(properties.getProperty("directory", "data"), mapName);
+        ownDirectory = mapDirectory.resolve(MEMBER_PREFIX + instance.getCluster().getLocalMember().getAddress().getPort());
+        int segmentSize = Integer.parseInt(properties.getProperty("segment-size", String.valueOf(64 << 20)));
+        syncIntervalMillis = Long.parseLong(properties.getProperty("sync-interval-millis", "1000"));
+        long compactionIntervalSeconds = Long.parseLong(properties.getProperty("compaction-interval-seconds", "60"));
+        double compactionRatio = Double.parseDouble(properties.getProperty("compaction-ratio", "0.5"));
+        try {
+            log = SegmentedLog.open(ownDirectory, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open log " + ownDirectory, e);
+        }
+        logger.info("Map {} is stored in {} ({} entries)", mapName, ownDirectory, log.size());
+
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-compactor-" + mapName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                int removed = log.compact(compactionRatio);
+                if (removed > 0) {
+                    logger.info("Compacted {} segments of {}", removed, ownDirectory);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Compaction of {} failed", ownDirectory, e);
+            }
+        }, compactionIntervalSeconds, compactionIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        compactor.shutdownNow();
+        closeSiblings();
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.warn("Could not close log {}", ownDirectory, e);
+        }
+    }
+
+    @Override
+    public void store(K key, MetadataAwareValue<V> value) {
+        try {
+            log.put(toBytes(key), toBytes(value.getValue()), value.getExpirationTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        syncIfDue();
+    }
+
+    @Override
+    public void storeAll(Map<K, MetadataAwareValue<V>> map) {
+        try {
+            for (Map.Entry<K, MetadataAwareValue<V>> entry : map.entrySet()) {
+                MetadataAwareValue<V> value = entry.getValue();
+                log.put(toBytes(entry.getKey()), toBytes(value.getValue()), value.getExpirationTime());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        syncIfDue();
+    }
+
+    @Override
+    public void delete(K key) {
+        try {
+            log.delete(toBytes(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        syncIfDue();
+    }
+
+    @Override
+    public void deleteAll(Collection<K> keys) {
+        try {
+            for (K key : keys) {
+                log.delete(toBytes(key));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        syncIfDue();
+    }
+
+    // Batches arrive from the single write-behind thread, so a plain field is enough
+    private void syncIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastSyncMillis >= syncIntervalMillis) {
+            log.force();
+            lastSyncMillis = now;
+        }
+    }
+
+    @Override
+    public MetadataAwareValue<V> load(K key) {
+        SegmentedLog.Lookup latest = lookup(toBytes(key), currentSiblings());
+        return latest == null || latest.isAbsentAt(System.currentTimeMillis()) ? null : toValue(latest);
+    }
+
+    @Override
+    public Map<K, MetadataAwareValue<V>> loadAll(Collection<K> keys) {
+        Collection<SegmentedLog> logs = currentSiblings();
+        long now = System.currentTimeMillis();
+        Map<K, MetadataAwareValue<V>> result = new HashMap<>();
+        for (K key : keys) {
+            SegmentedLog.Lookup latest = lookup(toBytes(key), logs);
+            if (latest != null && !latest.isAbsentAt(now)) {
+                result.put(key, toValue(latest));
+            }
+        }
+        return result;
+    }
+
+    private MetadataAwareValue<V> toValue(SegmentedLog.Lookup lookup) {
+        return new MetadataAwareValue<>(toObject(lookup.getValue()), lookup.getExpirationTime());
+    }
+
+    @Override
+    public Iterable<K> loadAllKeys() {
+        // Keep the newest record of every key over all logs, then drop the deleted and expired ones
+        Map<HeapData, Long> versions = new HashMap<>();
+        Set<HeapData> deleted = new HashSet<>();
+        List<SegmentedLog> logs = new ArrayList<>(refreshSiblings());
+        logs.add(log);
+        long now = System.currentTimeMillis();
+        for (SegmentedLog source : logs) {
+            source.forEachKey((key, version, isDeleted, expirationTime) -> {
+                HeapData data = new HeapData(key);
+                Long known = versions.get(data);
+                if (known == null || known < version) {
+                    versions.put(data, version);
+                    if (isDeleted || expirationTime <= now) {
+                        deleted.add(data);
+                    } else {
+                        deleted.remove(data);
+                    }
+                }
+            });
+        }
+        List<K> keys = new ArrayList<>(versions.size() - deleted.size());
+        for (HeapData data : versions.keySet()) {
+            if (!deleted.contains(data)) {
+                keys.add(serializationService.toObject(data));
+            }
+        }
+        logger.info("Loading {} keys from {}", keys.size(), mapDirectory);
+        return keys;
+    }
+
+    private SegmentedLog.Lookup lookup(byte[] key, Collection<SegmentedLog> others) {
+        SegmentedLog.Lookup latest = log.lookup(key);
+        for (SegmentedLog other : others) {
+            SegmentedLog.Lookup candidate = other.lookup(key);
+            if (candidate != null && (latest == null || candidate.getVersion() > latest.getVersion())) {
+                latest = candidate;
+            }
+        }
+        return latest;
+    }
+
+    private synchronized Collection<SegmentedLog> currentSiblings() {
+        if (System.currentTimeMillis() - siblingsRefreshedMillis >= syncIntervalMillis) {
+            return refreshSiblings();
+        }
+        return new ArrayList<>(siblings.values());
+    }
+
+    /**
+     * Opens the logs of members that appeared since the last call and catches up with the others
+     */
+    private synchronized Collection<SegmentedLog> refreshSiblings() {
+        try (Stream<Path> directories = Files.list(mapDirectory)) {
+            for (Path directory : directories.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().startsWith(MEMBER_PREFIX))
+                    .filter(path -> !path.equals(ownDirectory))
+                    .collect(Collectors.toList())) {
+                try {
+                    SegmentedLog sibling = siblings.get(directory);
+                    if (sibling == null) {
+                        siblings.put(directory, SegmentedLog.openReadOnly(directory));
+                    } else {
+                        sibling.refresh();
+                    }
+                } catch (IOException e) {
+                    // A segment was compacted away between listing and opening; read it next time
+                    logger.debug("Skipping log {} for now: {}", directory, e.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list " + mapDirectory, e);
+        }
+        siblingsRefreshedMillis = System.currentTimeMillis();
+        return new ArrayList<>(siblings.values());
+    }
+
+    private synchronized void closeSiblings() {
+        for (SegmentedLog sibling : siblings.values()) {
+            try {
+                sibling.close();
+            } catch (IOException e) {
+                logger.debug("Could not close log: {}", e.toString());
+            }
+        }
+        siblings.clear();
+    }
+
+    private byte[] toBytes(Object object) {
+        return serializationService.toData(object).toByteArray();
+    }
+
+    private <T> T toObject(byte[] bytes) {
+        return serializationService.toObject(new HeapData(bytes));
+    }
+}
@@ -1,15 +1,18 @@
 package com.example.hazelcast;
 
+import com.hazelcast.aggregation.Aggregators;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.map.IMap;
 import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates;
-import com.hazelcast.aggregation.Aggregators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,10 +39,10 @@ public class MapExamples {
         demonstrateEntryProcessor(userMap);
 
         // Demo 2: Predicates (filtering)
-        demonstratePredicates(userMap);
+        demonstratePredicates(client, userMap);
 
         // Demo 3: Aggregations
-        demonstrateAggregations(userMap);
+        demonstrateAggregations(client, userMap);
 
         // Demo 4: TTL (Time To Live)
         demonstrateTTL(userMap);
@@ -51,85 +54,107 @@ public class MapExamples {
     private static void demonstrateEntryProcessor(IMap<String, User> userMap) {
         logger.info("--- Entry Processor Demo ---");
 
-        // Create an entry processor that updates age
-        EntryProcessor<String, User, Object> ageProcessor = entry -> {
-            User user = entry.getValue();
-            if (user != null) {
-                user.setAge(user.getAge() + 1);
-                entry.setValue(user);
-                return user.getAge();
-            }
-            return null;
-        };
+        // Increment age in place on the Compact record, without deserializing User
+        EntryProcessor<String, User, Integer> ageProcessor = new IncrementFieldProcessor<>("age", 1, true);
 
         // Apply to all entries
-        Map<String, Object> results = userMap.executeOnEntries(ageProcessor);
+        Map<String, Integer> results = userMap.executeOnEntries(ageProcessor);
         logger.info("Updated ages for {} users", results.size());
         results.forEach((key, value) -> logger.info("User {} new age: {}", key, value));
+
+        // Bulk update scoped by a predicate that skips building the result map
+        userMap.executeOnEntries(new IncrementFieldProcessor<>("age", 1, false),
+                Predicates.greaterThan("age", 30));
+        logger.info("Incremented age of users older than 30 without returning results");
     }
 
-    private static void demonstratePredicates(IMap<String, User> userMap) {
+    private static void demonstratePredicates(HazelcastInstance client, IMap<String, User> userMap) {
         logger.info("--- Predicates Demo ---");
 
-        // Find users older than 30
+        // Find users older than 30, streaming only their e-mails 100 at a time
         Predicate<String, User> agePredicate = Predicates.greaterThan("age", 30);
-        var olderUsers = userMap.entrySet(agePredicate);
-        logger.info("Found {} users older than 30", olderUsers.size());
+        StreamingQuery<String, User> query = new StreamingQuery<>(client, "users", 100);
+        long olderUsers = query.project(Projections.<Map.Entry<String, User>, String>singleAttribute("email"), agePredicate)
+                .peek(email -> logger.info("User older than 30: {}", email))
+                .count();
+        logger.info("Found {} users older than 30", olderUsers);
 
-        // Find users with specific email domain
+        // Count users with specific email domain; only the counts of each member come back
         Predicate<String, User> emailPredicate = Predicates.like("email", "%@example.com");
-        var exampleUsers = userMap.entrySet(emailPredicate);
-        logger.info("Found {} users with @example.com email", exampleUsers.size());
+        long exampleUsers = userMap.aggregate(Aggregators.count(), emailPredicate);
+        logger.info("Found {} users with @example.com email", exampleUsers);
 
         // Complex predicate: age between 25 and 35 AND email contains 'john'
         Predicate<String, User> complexPredicate = Predicates.and(
             Predicates.between("age", 25, 35),
             Predicates.like("email", "%john%")
         );
-        var complexResults = userMap.entrySet(complexPredicate);
-        logger.info("Found {} users matching complex criteria", complexResults.size());
+        long complexResults = userMap.aggregate(Aggregators.count(), complexPredicate);
+        logger.info("Found {} users matching complex criteria", complexResults);
+
+        // A predicate polled repeatedly is answered from a client-side continuous query cache
+        try (QueryCacheRegistry registry = new QueryCacheRegistry(client, "users", 8, 10_000, 5, TimeUnit.MINUTES, 10)) {
+            for (int poll = 0; poll < 3; poll++) {
+                long start = System.nanoTime();
+                int count = registry.size(Predicates.greaterThan("age", 30));
+                logger.info("Query cache poll {}: {} users older than 30 in {} us", poll, count,
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+            registry.getMetrics().forEach(metrics -> logger.info("Query cache {}", metrics));
+        }
     }
 
-    private static void demonstrateAggregations(IMap<String, User> userMap) {
+    private static void demonstrateAggregations(HazelcastInstance client, IMap<String, User> userMap) {
         logger.info("--- Aggregations Demo ---");
 
-        // Calculate average age
-        Double avgAge = userMap.aggregate(Aggregators.doubleAvg("age"));
-        logger.info("Average age: {}", avgAge);
-
-        // Calculate maximum age
-        Integer maxAge = userMap.aggregate(Aggregators.integerMax("age"));
-        logger.info("Maximum age: {}", maxAge);
-
-        // Count users
-        Long userCount = userMap.aggregate(Aggregators.count());
-        logger.info("Total users: {}", userCount);
-
-        // Sum of all ages
-        Long totalAge = userMap.aggregate(Aggregators.longSum("age"));
-        logger.info("Sum of all ages: {}", totalAge);
+        // Count, sum, min, max and average of age in one pass over the map,
+        // with a histogram of ages in buckets of 10 years
+        NumericStats ageStats = userMap.aggregate(new NumericStatsAggregator<>("age", 10));
+        logger.info("Total users: {}", ageStats.getCount());
+        logger.info("Average age: {}", ageStats.getAverage());
+        logger.info("Maximum age: {}", ageStats.getMax());
+        logger.info("Sum of all ages: {}", ageStats.getSum());
+        logger.info("Age histogram: {}", ageStats.getHistogram());
+
+        // The same stats kept up to date by UserStatsPipeline, read with a single get
+        logger.info("Streamed age stats: {}", UserStatsPipeline.get(client, "age"));
     }
 
-    private static void demonstrateTTL(IMap<String, User> userMap) {
+    /**
+     * Puts a user with a 5 second time to live, waits for it to expire and returns whether
+     * the map still has it then, which it must not even when the map has a store to load from
+     */
+    static boolean demonstrateTTL(IMap<String, User> userMap) {
         logger.info("--- TTL Demo ---");
 
-        // Add a user with 5 seconds TTL
-        userMap.put("temp-user", new User("Temp", "User", 25, "temp@example.com"), 5, TimeUnit.SECONDS);
-        logger.info("Added temporary user with 5-second TTL");
-
-        // Check if user exists
-        boolean exists = userMap.containsKey("temp-user");
-        logger.info("Temporary user exists: {}", exists);
-
-        // Wait for TTL to expire
-        try {
-            Thread.sleep(6000);
-            exists = userMap.containsKey("temp-user");
-            logger.info("After 6 seconds, temporary user exists: {}", exists);
+        // Wait for the expired event instead of sleeping and polling the map
+        CountDownLatch expired = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + 5000;
+        try (ExpiryMonitor<String, User> monitor = new ExpiryMonitor<>(userMap, user -> deadline, event -> {
+            if ("temp-user".equals(event.getKey())) {
+                expired.countDown();
+            }
+        })) {
+            // Add a user with 5 seconds TTL
+            userMap.put("temp-user", new User("Temp", "User", 25, "temp@example.com"), 5, TimeUnit.SECONDS);
+            logger.info("Added temporary user with 5-second TTL, exists: {}", userMap.containsKey("temp-user"));
+
+            // The expiration task removes it within one of its periods after the deadline
+            if (expired.await(30, TimeUnit.SECONDS)) {
+                logger.info("Temporary user expired {} ms after its deadline",
+                        TimeUnit.NANOSECONDS.toMillis(monitor.getLag().getMaxNanos()));
+            } else {
+                logger.warn("Temporary user did not expire within 30 seconds");
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             logger.error("Interrupted while waiting for TTL", e);
         }
+
+        // Reading it again must not bring it back from the store
+        boolean exists = userMap.containsKey("temp-user");
+        logger.info("After expiry, temporary user exists: {}", exists);
+        return exists;
     }
 
     private static void demonstrateIndexedMap(HazelcastInstance client) {
@@ -143,14 +168,14 @@ public class MapExamples {
         indexedMap.put("idx2", new User("Indexed", "User2", 30, "idx2@example.com"));
         indexedMap.put("idx3", new User("Indexed", "User3", 35, "idx3@example.com"));
 
-        // Note: In a real application, you would configure indexes in the Hazelcast configuration
-        // For this demo, we'll just show how queries work
+        // Indexes on age, email and lastName are configured in HazelcastConfig.addUserIndexes,
+        // so this range count uses the sorted age index instead of scanning every entry
         Predicate<String, User> ageQuery = Predicates.greaterThan("age", 30);
-        var results = indexedMap.entrySet(ageQuery);
-        logger.info("Found {} users older than 30 in indexed map", results.size());
+        long results = indexedMap.aggregate(Aggregators.count(), ageQuery);
+        logger.info("Found {} users older than 30 in indexed map", results);
     }
 
-    // Inner class for demo data
+    // Inner class for demo data, serialized with UserCompactSerializer
     public static class User {
         private String firstName;
         private String lastName;
@@ -177,6 +202,26 @@ public class MapExamples {
         public String getEmail() { return email; }
         public void setEmail(String email) { this.email = email; }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof User)) {
+                return false;
+            }
+            User user = (User) o;
+            return age == user.age
+                    && Objects.equals(firstName, user.firstName)
+                    && Objects.equals(lastName, user.lastName)
+                    && Objects.equals(email, user.email);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(firstName, lastName, age, email);
+        }
+
         @Override
         public String toString() {
             return String.format("User{firstName='%s', lastName='%s', age=%d, email='%s'}", 
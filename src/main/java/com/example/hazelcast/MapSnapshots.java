@@ -0,0 +1,386 @@
+package com.example.hazelcast;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.PartitioningStrategyConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.partition.PartitioningStrategy;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Binary per-partition snapshots of a map for fast restarts.
+ *
+ * <p>{@link #snapshot()} writes every partition the member owns to
+ * {@code <directory>/<map>/partition-<id>.snap} through a memory-mapped file, entries in
+ * their serialized form. {@link #restore()} maps the files of the partitions the member
+ * owns and inserts their entries in batches on the member itself, so nothing is
+ * deserialized and no entry crosses the network. Entries go in the way a
+ * {@code MapLoader}'s do: they are not written to the map's {@code MapStore} again. Each
+ * member runs both for its own partitions; the directory may be shared by all members on
+ * a host.
+ *
+ * <p>Snapshots are taken while the map changes, so one may mix older and newer values of
+ * different keys. A partition that already holds entries when {@code restore()} runs, for
+ * example because a {@code MapLoader} loaded it from a newer source or another restore
+ * filled it, is left alone.
+ */
+public class MapSnapshots {
+    private static final Logger logger = LoggerFactory.getLogger(MapSnapshots.class);
+
+    private static final int MAGIC = 0x485a534e;
+    private static final String PREFIX = "partition-";
+    private static final String SUFFIX = ".snap";
+    private static final int FETCH_SIZE = 1000;
+    private static final int RESTORE_BATCH_SIZE = 10_000;
+
+    private final HazelcastInstance member;
+    private final IMap<Object, Object> map;
+    private final String mapName;
+    private final Path directory;
+    private final int threads;
+    private final SerializationService serializationService;
+    private final PartitioningStrategy<?> partitioningStrategy;
+    private volatile RestoreResult lastRestore;
+
+    /**
+     * @param threads partitions written or restored in parallel
+     */
+    public MapSnapshots(HazelcastInstance member, String mapName, Path directory, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.member = member;
+        this.map = member.getMap(mapName);
+        this.mapName = mapName;
+        this.directory = directory.resolve(mapName);
+        this.threads = threads;
+        this.serializationService = ((SerializationServiceSupport) member).getSerializationService();
+        this.partitioningStrategy = partitioningStrategy(member.getConfig().findMapConfig(mapName));
+    }
+
+    // Keys must be serialized the way the map does it, or restored entries land in the wrong partition
+    private static PartitioningStrategy<?> partitioningStrategy(MapConfig mapConfig) {
+        PartitioningStrategyConfig config = mapConfig.getPartitioningStrategyConfig();
+        if (config == null) {
+            return null;
+        }
+        if (config.getPartitioningStrategy() != null) {
+            return config.getPartitioningStrategy();
+        }
+        if (config.getPartitioningStrategyClass() == null) {
+            return null;
+        }
+        try {
+            return (PartitioningStrategy<?>) Class.forName(config.getPartitioningStrategyClass())
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + config.getPartitioningStrategyClass(), e);
+        }
+    }
+
+    /**
+     * Writes the partitions this member owns
+     *
+     * @return the number of entries written
+     */
+    public long snapshot() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Integer> partitions = localPartitions();
+        AtomicLong entries = new AtomicLong();
+        runInParallel(partitions, partitionId -> entries.addAndGet(snapshotPartition(partitionId)));
+        logger.info("Snapshot of {}: {} entries in {} partitions in {} ms", mapName, entries.get(),
+                partitions.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return entries.get();
+    }
+
+    /**
+     * Takes a snapshot every {@code interval}; failures are logged and the next one still runs
+     */
+    public ScheduledFuture<?> scheduleSnapshots(ScheduledExecutorService scheduler, long interval, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Snapshot of {} failed", mapName, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, interval, interval, unit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long snapshotPartition(int partitionId) throws IOException {
+        // Keys and values serialized again in map form; the first object of each type also
+        // with its schema, so a fresh cluster can read the rest
+        List<byte[]> samples = new ArrayList<>();
+        Set<Class<?>> sampledTypes = new HashSet<>();
+        List<byte[]> records = new ArrayList<>();
+        long size = 0;
+        Iterator<Map.Entry<Object, Object>> entries =
+                ((MapProxyImpl<Object, Object>) map).iterator(FETCH_SIZE, partitionId, true);
+        while (entries.hasNext()) {
+            Map.Entry<Object, Object> entry = entries.next();
+            for (Object object : new Object[]{entry.getKey(), entry.getValue()}) {
+                if (sampledTypes.add(object.getClass())) {
+                    samples.add(serializationService.toDataWithSchema(object).toByteArray());
+                }
+            }
+            byte[] key = serializationService.toData(entry.getKey(), partitioningStrategy).toByteArray();
+            byte[] value = serializationService.toData(entry.getValue()).toByteArray();
+            records.add(key);
+            records.add(value);
+            size += 8 + key.length + value.length;
+        }
+        for (byte[] sample : samples) {
+            size += 4 + sample.length;
+        }
+
+        // magic, partition count, sample count, entry count ... crc
+        long fileSize = 16 + size + 4;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Partition " + partitionId + " of " + mapName + " is too large for one snapshot file");
+        }
+        Path target = directory.resolve(PREFIX + partitionId + SUFFIX);
+        Path temporary = directory.resolve(PREFIX + partitionId + SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.putInt(MAGIC);
+            buffer.putInt(member.getPartitionService().getPartitions().size());
+            buffer.putInt(samples.size());
+            buffer.putInt(records.size() / 2);
+            for (byte[] sample : samples) {
+                buffer.putInt(sample.length).put(sample);
+            }
+            for (byte[] record : records) {
+                buffer.putInt(record.length).put(record);
+            }
+            buffer.putInt(checksum(buffer, (int) fileSize - 4));
+            buffer.force();
+        }
+        // Readers never see a half-written snapshot
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records.size() / 2;
+    }
+
+    /**
+     * Inserts the snapshots of the partitions this member owns, except into partitions
+     * that already hold entries
+     */
+    public RestoreResult restore() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        if (!Files.isDirectory(directory)) {
+            return finishRestore(new RestoreResult(0, 0, System.nanoTime() - start));
+        }
+        List<Integer> partitions = new ArrayList<>();
+        int skipped = 0;
+        for (int partitionId : localPartitions()) {
+            if (!Files.exists(directory.resolve(PREFIX + partitionId + SUFFIX))) {
+                continue;
+            }
+            if (holdsEntries(partitionId)) {
+                skipped++;
+            } else {
+                partitions.add(partitionId);
+            }
+        }
+        if (skipped > 0) {
+            logger.info("{} partitions of map {} already hold entries, not restoring their snapshots", skipped, mapName);
+        }
+        AtomicLong entries = new AtomicLong();
+        runInParallel(partitions, partitionId -> entries.addAndGet(restorePartition(partitionId)));
+        return finishRestore(new RestoreResult(entries.get(), partitions.size(), System.nanoTime() - start));
+    }
+
+    private RestoreResult finishRestore(RestoreResult result) {
+        lastRestore = result;
+        logger.info("Map {} ready after {} ms: {} entries restored from {} partition snapshots",
+                mapName, result.getTimeToReadyMillis(), result.getEntries(), result.getPartitions());
+        return result;
+    }
+
+    private long restorePartition(int partitionId) throws IOException {
+        Path file = directory.resolve(PREFIX + partitionId + SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int length = (int) channel.size();
+            if (length < 20 || buffer.getInt(0) != MAGIC || buffer.getInt(length - 4) != checksum(buffer, length - 4)) {
+                logger.warn("Skipping damaged snapshot {}", file);
+                return 0;
+            }
+            if (buffer.getInt(4) != member.getPartitionService().getPartitions().size()) {
+                logger.warn("Skipping snapshot {} taken with a different partition count", file);
+                return 0;
+            }
+            buffer.position(8);
+            int sampleCount = buffer.getInt();
+            int entryCount = buffer.getInt();
+            for (int i = 0; i < sampleCount; i++) {
+                // Reading a sample learns its schema, writing it again shares it with the cluster
+                serializationService.toData(serializationService.toObject(new HeapData(read(buffer))));
+            }
+            // Keys and values alternate, as in the batches a MapLoader's entries are put in
+            List<Data> batch = new ArrayList<>();
+            for (int i = 0; i < entryCount; i++) {
+                batch.add(new HeapData(read(buffer)));
+                batch.add(new HeapData(read(buffer)));
+                if (batch.size() == 2 * RESTORE_BATCH_SIZE || i == entryCount - 1) {
+                    putFromLoad(partitionId, new ArrayList<>(batch));
+                    batch.clear();
+                }
+            }
+            return entryCount;
+        }
+    }
+
+    /**
+     * Puts the entries as loaded ones, which skips the map store and its write-behind queue
+     */
+    @SuppressWarnings("unchecked")
+    private void putFromLoad(int partitionId, List<Data> keysAndValues) {
+        MapProxyImpl<Object, Object> proxy = (MapProxyImpl<Object, Object>) map;
+        MapOperationProvider provider = proxy.getService().getMapServiceContext().getMapOperationProvider(mapName);
+        Operation operation = provider.createPutFromLoadAllOperation(mapName, keysAndValues, false);
+        proxy.getNodeEngine().getOperationService()
+                .invokeOnPartition(MapService.SERVICE_NAME, operation, partitionId).join();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean holdsEntries(int partitionId) {
+        return ((MapProxyImpl<Object, Object>) map).iterator(1, partitionId, false).hasNext();
+    }
+
+    private static byte[] read(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private List<Integer> localPartitions() {
+        List<Integer> partitions = new ArrayList<>();
+        for (Partition partition : member.getPartitionService().getPartitions()) {
+            Member owner = partition.getOwner();
+            if (owner != null && owner.localMember()) {
+                partitions.add(partition.getPartitionId());
+            }
+        }
+        return partitions;
+    }
+
+    private void runInParallel(List<Integer> partitions, PartitionTask task) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, partitions.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int partitionId : partitions) {
+                futures.add(executor.submit(() -> {
+                    task.run(partitionId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Snapshot task failed for " + mapName, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Result of the last {@link #restore()}, or {@code null} before the first one
+     */
+    public RestoreResult getLastRestore() {
+        return lastRestore;
+    }
+
+    private interface PartitionTask {
+        void run(int partitionId) throws IOException;
+    }
+
+    /**
+     * Entries and partitions restored and the time until the map was ready
+     */
+    public static final class RestoreResult {
+        private final long entries;
+        private final int partitions;
+        private final long nanos;
+
+        RestoreResult(long entries, int partitions, long nanos) {
+            this.entries = entries;
+            this.partitions = partitions;
+            this.nanos = nanos;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public long getTimeToReadyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public double getEntriesPerSecond() {
+            return nanos == 0 ? 0 : entries * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "RestoreResult{entries=" + entries + ", partitions=" + partitions
+                    + ", timeToReadyMillis=" + getTimeToReadyMillis() + "}";
+        }
+    }
+}
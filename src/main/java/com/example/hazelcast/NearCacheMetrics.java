@@ -0,0 +1,91 @@
+package com.example.hazelcast;
+
+import com.hazelcast.map.IMap;
+import com.hazelcast.nearcache.NearCacheStats;
+
+/**
+ * Snapshot of the client near cache counters of a map.
+ *
+ * <p>Invalidations count entries dropped because the member reported a change, and
+ * expirations count entries dropped by TTL/max-idle; together they show how often
+ * cached values went stale.
+ */
+public class NearCacheMetrics {
+
+    private final String mapName;
+    private final long hits;
+    private final long misses;
+    private final long entries;
+    private final long invalidations;
+    private final long evictions;
+    private final long expirations;
+
+    private NearCacheMetrics(String mapName, NearCacheStats stats) {
+        this.mapName = mapName;
+        this.hits = stats.getHits();
+        this.misses = stats.getMisses();
+        this.entries = stats.getOwnedEntryCount();
+        this.invalidations = stats.getInvalidations();
+        this.evictions = stats.getEvictions();
+        this.expirations = stats.getExpirations();
+    }
+
+    /**
+     * Reads the near cache counters of a client map proxy
+     *
+     * @throws IllegalStateException if the map has no near cache
+     */
+    public static NearCacheMetrics of(IMap<?, ?> map) {
+        NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+        if (stats == null) {
+            throw new IllegalStateException("No near cache configured for map: " + map.getName());
+        }
+        return new NearCacheMetrics(map.getName(), stats);
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Entries dropped because they were, or could have become, stale
+     */
+    public long getStaleEntries() {
+        return invalidations + expirations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NearCacheMetrics{map='%s', hits=%d, misses=%d, hitRatio=%.3f, entries=%d, invalidations=%d, evictions=%d, expirations=%d}",
+                mapName, hits, misses, getHitRatio(), entries, invalidations, evictions, expirations);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.hazelcast;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Count, sum, min, max and average of a numeric attribute, plus an optional
+ * fixed-width histogram. Produced by {@link NumericStatsAggregator}.
+ *
+ * <p>While every value is integral ({@code long}, {@code int}, {@code short} or
+ * {@code byte}) the sum is kept exactly as a {@code long}; the first floating point
+ * value, or a sum overflowing {@code long}, switches it to a {@code double}.
+ */
+public class NumericStats implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final double bucketWidth;
+    private long count;
+    private boolean integral = true;
+    private long longSum;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final TreeMap<Double, Long> histogram = new TreeMap<>();
+
+    /**
+     * @param bucketWidth width of the histogram buckets, or {@code 0} for no histogram
+     */
+    public NumericStats(double bucketWidth) {
+        if (bucketWidth < 0) {
+            throw new IllegalArgumentException("bucketWidth must not be negative");
+        }
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Adds the value, exactly when it is integral
+     */
+    public void add(Number value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            add(value.longValue());
+        } else {
+            add(value.doubleValue());
+        }
+    }
+
+    public void add(long value) {
+        addToSum(value);
+        addToRange(value);
+    }
+
+    public void add(double value) {
+        toDoubleSum();
+        sum += value;
+        addToRange(value);
+    }
+
+    public void merge(NumericStats other) {
+        count += other.count;
+        if (other.integral) {
+            addToSum(other.longSum);
+        } else {
+            toDoubleSum();
+            sum += other.sum;
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        other.histogram.forEach((bucket, bucketCount) -> histogram.merge(bucket, bucketCount, Long::sum));
+    }
+
+    private void addToSum(long value) {
+        if (integral) {
+            long result = longSum + value;
+            // Same overflow test as Math.addExact
+            if (((longSum ^ result) & (value ^ result)) >= 0) {
+                longSum = result;
+                return;
+            }
+            toDoubleSum();
+        }
+        sum += value;
+    }
+
+    private void toDoubleSum() {
+        if (integral) {
+            integral = false;
+            sum = longSum;
+        }
+    }
+
+    private void addToRange(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (bucketWidth > 0) {
+            histogram.merge(Math.floor(value / bucketWidth) * bucketWidth, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Number of non-null values seen
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return integral ? longSum : sum;
+    }
+
+    /**
+     * Exact sum, or {@code null} once a floating point value was seen or the sum
+     * overflowed
+     */
+    public Long getLongSum() {
+        return integral ? longSum : null;
+    }
+
+    /**
+     * Smallest value, or {@code null} when no value was seen
+     */
+    public Double getMin() {
+        return count == 0 ? null : min;
+    }
+
+    /**
+     * Largest value, or {@code null} when no value was seen
+     */
+    public Double getMax() {
+        return count == 0 ? null : max;
+    }
+
+    /**
+     * Average value, or {@code null} when no value was seen
+     */
+    public Double getAverage() {
+        return count == 0 ? null : getSum() / count;
+    }
+
+    /**
+     * Number of values per bucket, keyed by the lower bound of the bucket
+     */
+    public Map<Double, Long> getHistogram() {
+        return Collections.unmodifiableMap(histogram);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NumericStats{count=%d, sum=%s, min=%s, max=%s, avg=%s%s}",
+                count, integral ? String.valueOf(longSum) : String.valueOf(sum), getMin(), getMax(), getAverage(),
+                bucketWidth > 0 ? ", histogram=" + histogram : "");
+    }
+}
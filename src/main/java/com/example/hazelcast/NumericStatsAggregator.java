@@ -0,0 +1,75 @@
+package com.example.hazelcast;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+/**
+ * Computes {@link NumericStats} for a numeric attribute in a single pass over the map,
+ * replacing separate count/sum/min/max/avg aggregations that each scan every partition.
+ *
+ * <pre>
+ * NumericStats ageStats = userMap.aggregate(new NumericStatsAggregator&lt;&gt;("age"));
+ * </pre>
+ *
+ * The attribute is extracted through the entry as in queries and the built-in
+ * aggregators, so nested paths, {@code __key}, {@code [any]} and custom value extractors
+ * work, and fields of Compact values are read without deserializing the value. Null
+ * values are skipped.
+ */
+public class NumericStatsAggregator<I> implements Aggregator<I, NumericStats> {
+    private static final long serialVersionUID = 3L;
+
+    private final String attributePath;
+    private final NumericStats stats;
+
+    public NumericStatsAggregator(String attributePath) {
+        this(attributePath, 0);
+    }
+
+    /**
+     * @param bucketWidth width of the histogram buckets, or {@code 0} for no histogram
+     */
+    public NumericStatsAggregator(String attributePath, double bucketWidth) {
+        if (attributePath == null || attributePath.isEmpty()) {
+            throw new IllegalArgumentException("attributePath must not be empty");
+        }
+        this.attributePath = attributePath;
+        this.stats = new NumericStats(bucketWidth);
+    }
+
+    @Override
+    public void accumulate(I input) {
+        // Map entries handed to aggregators on the members are extractable
+        Object value = input instanceof Extractable ? ((Extractable) input).getAttributeValue(attributePath) : input;
+        if (value instanceof MultiResult) {
+            for (Object element : ((MultiResult<?>) value).getResults()) {
+                add(element);
+            }
+        } else {
+            add(value);
+        }
+    }
+
+    private void add(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(attributePath + " is not numeric: " + value.getClass().getName());
+        }
+        stats.add((Number) value);
+    }
+
+    // Aggregator declares combine with a raw parameter, so it cannot be overridden with a typed one
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void combine(Aggregator aggregator) {
+        stats.merge(((NumericStatsAggregator<?>) aggregator).stats);
+    }
+
+    @Override
+    public NumericStats aggregate() {
+        return stats;
+    }
+}
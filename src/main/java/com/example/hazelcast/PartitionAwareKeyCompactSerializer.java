@@ -0,0 +1,38 @@
+package com.example.hazelcast;
+
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Compact serializer for {@link HazelcastPartitionAwareKey}.
+ * Missing fields are tolerated the same way as in {@link UserCompactSerializer}.
+ */
+public class PartitionAwareKeyCompactSerializer implements CompactSerializer<HazelcastPartitionAwareKey> {
+
+    public static final String TYPE_NAME = "partitionAwareKey";
+
+    @Override
+    public HazelcastPartitionAwareKey read(CompactReader reader) {
+        String val = reader.getFieldKind("val") == FieldKind.STRING ? reader.readString("val") : null;
+        int partitionKey = reader.getFieldKind("partitionKey") == FieldKind.INT32 ? reader.readInt32("partitionKey") : 0;
+        return new HazelcastPartitionAwareKey(val, partitionKey);
+    }
+
+    @Override
+    public void write(CompactWriter writer, HazelcastPartitionAwareKey key) {
+        writer.writeString("val", key.getVal());
+        writer.writeInt32("partitionKey", (Integer) key.getPartitionKey());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<HazelcastPartitionAwareKey> getCompactClass() {
+        return HazelcastPartitionAwareKey.class;
+    }
+}
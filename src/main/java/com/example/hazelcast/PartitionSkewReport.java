@@ -0,0 +1,106 @@
+package com.example.hazelcast;
+
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.partition.PartitioningStrategy;
+
+/**
+ * Per-partition entry counts for a set of keys and how evenly they are spread
+ */
+public class PartitionSkewReport {
+
+    private final long[] counts;
+    private final long total;
+    private final long min;
+    private final long max;
+    private final int usedPartitions;
+    private final double stdDev;
+
+    public PartitionSkewReport(long[] counts) {
+        this.counts = counts.clone();
+        long sum = 0;
+        long lowest = Long.MAX_VALUE;
+        long highest = 0;
+        int used = 0;
+        for (long count : counts) {
+            sum += count;
+            lowest = Math.min(lowest, count);
+            highest = Math.max(highest, count);
+            if (count > 0) {
+                used++;
+            }
+        }
+        this.total = sum;
+        this.min = counts.length == 0 ? 0 : lowest;
+        this.max = highest;
+        this.usedPartitions = used;
+
+        double mean = getMean();
+        double squares = 0;
+        for (long count : counts) {
+            squares += (count - mean) * (count - mean);
+        }
+        this.stdDev = counts.length == 0 ? 0 : Math.sqrt(squares / counts.length);
+    }
+
+    /**
+     * Counts the partition each key lands on when the map uses the given strategy
+     */
+    public static PartitionSkewReport of(PartitionService partitionService,
+                                         PartitioningStrategy<Object> strategy,
+                                         Iterable<?> keys) {
+        int partitionCount = partitionService.getPartitions().size();
+        long[] counts = new long[partitionCount];
+        for (Object key : keys) {
+            Object partitionKey = strategy == null ? null : strategy.getPartitionKey(key);
+            int partitionId = partitionService.getPartition(partitionKey == null ? key : partitionKey).getPartitionId();
+            counts[partitionId]++;
+        }
+        return new PartitionSkewReport(counts);
+    }
+
+    public long getCount(int partitionId) {
+        return counts[partitionId];
+    }
+
+    public int getPartitionCount() {
+        return counts.length;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public int getUsedPartitions() {
+        return usedPartitions;
+    }
+
+    public double getMean() {
+        return counts.length == 0 ? 0 : (double) total / counts.length;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    /**
+     * Entries on the fullest partition relative to a perfectly even spread, 1.0 is ideal
+     */
+    public double getMaxToMean() {
+        double mean = getMean();
+        return mean == 0 ? 0 : max / mean;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PartitionSkewReport{entries=%d, partitions=%d/%d used, min=%d, max=%d, mean=%.1f, stdDev=%.1f, maxToMean=%.2f}",
+                total, usedPartitions, counts.length, min, max, getMean(), stdDev, getMaxToMean());
+    }
+}
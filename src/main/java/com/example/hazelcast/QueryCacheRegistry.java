@@ -0,0 +1,464 @@
+package com.example.hazelcast;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EventLostEvent;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.EventLostListener;
+import com.hazelcast.query.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Client-side continuous query caches over one map, one per predicate, for dashboards
+ * that poll the same queries.
+ *
+ * <p>The first read of a predicate creates a {@link QueryCache}: the members run the
+ * query once to populate it and then stream the changes that match, batched and
+ * coalesced per key. Later reads of the same predicate are answered from client memory.
+ * Predicates are told apart with {@code equals}, which Hazelcast's built-in predicates
+ * implement on their attributes and values, so a predicate built again for each poll
+ * finds the same cache. Predicates without their own {@code equals}, such as lambdas,
+ * would get a new cache on every poll and are rejected; read them through the methods
+ * that take an explicit cache key instead.
+ *
+ * <p>A cache that would hold more than {@code maxEntriesPerCache} entries cannot answer
+ * for its predicate, since it would have to drop matching entries. Such a cache is
+ * destroyed, and the predicate is answered by querying the map from then on, see
+ * {@link #getUncachedPredicates()}. The registry holds at most {@code maxCaches} caches;
+ * creating one more destroys the least recently read. Caches
+ * not read for {@code idleTimeout} are destroyed, which also stops their event streams.
+ * {@link #getMetrics()} reports the size, events and lag of every cache. The lag is
+ * sampled: for one event in {@code lagSampleRate} the entry's last update time is read
+ * back from the map, so it needs per-entry stats on the map, which maps with eviction
+ * have anyway.
+ *
+ * <p>A removal reaches a cache only if its event carries the old value to test against
+ * the predicate: entries taken out with {@code IMap.delete} stay in the caches until
+ * they are repopulated, so writers of polled maps should use {@code remove}.
+ *
+ * <p>The client must have been configured with {@link #configure(ClientConfig, String, int)},
+ * with the same {@code maxEntriesPerCache} as the registry.
+ */
+public class QueryCacheRegistry implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(QueryCacheRegistry.class);
+
+    private static final String CACHE_SUFFIX = "-cq-";
+
+    private final IMap<Object, Object> map;
+    private final int maxCaches;
+    private final int maxEntriesPerCache;
+    private final long idleTimeoutMillis;
+    private final int lagSampleRate;
+    private final ConcurrentMap<Object, Cache> caches = new ConcurrentHashMap<>();
+    private final Set<Object> uncached = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sweeper;
+    private final ExecutorService lagProbes;
+
+    public QueryCacheRegistry(HazelcastInstance client, String mapName, int maxCaches, int maxEntriesPerCache,
+                              long idleTimeout, TimeUnit unit, int lagSampleRate) {
+        if (maxCaches < 1 || maxEntriesPerCache < 1 || lagSampleRate < 1) {
+            throw new IllegalArgumentException("maxCaches, maxEntriesPerCache and lagSampleRate must be positive");
+        }
+        this.map = client.getMap(mapName);
+        this.maxCaches = maxCaches;
+        this.maxEntriesPerCache = maxEntriesPerCache;
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.lagSampleRate = lagSampleRate;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "query-cache-sweeper-" + mapName));
+        long sweepMillis = Math.max(10, idleTimeoutMillis / 4);
+        sweeper.scheduleWithFixedDelay(this::destroyIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        // One probe at a time; probes that find it busy are skipped, not queued
+        this.lagProbes = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                runnable -> daemon(runnable, "query-cache-lag-" + mapName), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Registers the query cache settings for the registry's caches of {@code mapName}:
+     * values kept as objects so reads do not deserialize, and events sent in batches of up
+     * to 1000 at least once a second and coalesced per key. Caches are bounded one entry
+     * above {@code maxEntriesPerCache}, so a cache that outgrew the limit can be told from
+     * one that is exactly full.
+     */
+    public static ClientConfig configure(ClientConfig clientConfig, String mapName, int maxEntriesPerCache) {
+        EvictionConfig evictionConfig = new EvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(maxEntriesPerCache + 1);
+        QueryCacheConfig queryCacheConfig = new QueryCacheConfig(mapName + CACHE_SUFFIX + "*")
+                .setPopulate(true)
+                .setIncludeValue(true)
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setBatchSize(1000)
+                .setBufferSize(16_384)
+                .setDelaySeconds(1)
+                .setCoalesce(true)
+                .setEvictionConfig(evictionConfig);
+        return clientConfig.addQueryCacheConfig(mapName, queryCacheConfig);
+    }
+
+    /**
+     * Entries matching the predicate, from its cache
+     *
+     * @throws IllegalArgumentException if the predicate does not implement {@code equals}
+     */
+    public <K, V> Set<Map.Entry<K, V>> entrySet(Predicate<K, V> predicate) {
+        return readEntrySet(predicateKey(predicate), predicate);
+    }
+
+    /**
+     * Entries matching the predicate, from the cache registered under {@code cacheKey};
+     * the same key must always be used with the same predicate
+     */
+    public <K, V> Set<Map.Entry<K, V>> entrySet(String cacheKey, Predicate<K, V> predicate) {
+        return readEntrySet(cacheKey, predicate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Set<Map.Entry<K, V>> readEntrySet(Object key, Predicate<K, V> predicate) {
+        return (Set<Map.Entry<K, V>>) (Set<?>) read(key, predicate, QueryCache::entrySet, IMap::entrySet);
+    }
+
+    /**
+     * Values matching the predicate, from its cache
+     *
+     * @throws IllegalArgumentException if the predicate does not implement {@code equals}
+     */
+    public <K, V> Collection<V> values(Predicate<K, V> predicate) {
+        return readValues(predicateKey(predicate), predicate);
+    }
+
+    /**
+     * Values matching the predicate, from the cache registered under {@code cacheKey}
+     */
+    public <K, V> Collection<V> values(String cacheKey, Predicate<K, V> predicate) {
+        return readValues(cacheKey, predicate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Collection<V> readValues(Object key, Predicate<K, V> predicate) {
+        return (Collection<V>) read(key, predicate, QueryCache::values, IMap::values);
+    }
+
+    /**
+     * Number of entries matching the predicate, from its cache
+     *
+     * @throws IllegalArgumentException if the predicate does not implement {@code equals}
+     */
+    public int size(Predicate<?, ?> predicate) {
+        return readSize(predicateKey(predicate), predicate);
+    }
+
+    /**
+     * Number of entries matching the predicate, from the cache registered under {@code cacheKey}
+     */
+    public int size(String cacheKey, Predicate<?, ?> predicate) {
+        return readSize(cacheKey, predicate);
+    }
+
+    private int readSize(Object key, Predicate<?, ?> predicate) {
+        return read(key, predicate, QueryCache::size,
+                (map, query) -> map.aggregate(Aggregators.count(), query).intValue());
+    }
+
+    private static Object predicateKey(Predicate<?, ?> predicate) {
+        if (!VALUE_EQUALITY.get(predicate.getClass())) {
+            throw new IllegalArgumentException("Predicate " + predicate.getClass().getName()
+                    + " does not implement equals; read it with an explicit cache key");
+        }
+        return predicate;
+    }
+
+    private static final ClassValue<Boolean> VALUE_EQUALITY = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(Object key, Predicate<?, ?> predicate, Function<QueryCache<Object, Object>, T> reader,
+                       BiFunction<IMap<Object, Object>, Predicate<Object, Object>, T> query) {
+        while (true) {
+            Cache cache = uncached.contains(key) ? null : cache(key, predicate);
+            if (cache == null) {
+                return query.apply(map, (Predicate<Object, Object>) predicate);
+            }
+            cache.lastRead = System.currentTimeMillis();
+            T result = reader.apply(cache.queryCache);
+            // A cache that outgrew its limit has dropped matching entries
+            if (cache.queryCache.size() > maxEntriesPerCache) {
+                if (uncached.add(key)) {
+                    logger.warn("Query cache {} for {} holds more than {} entries, querying the map instead",
+                            cache.queryCache.getName(), cache.predicate, maxEntriesPerCache);
+                }
+                destroy(cache);
+                continue;
+            }
+            // A cache destroyed by the sweeper while it was read may have answered empty
+            if (!cache.destroyed) {
+                return result;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache cache(Object key, Predicate<?, ?> predicate) {
+        Cache cache = caches.get(key);
+        if (cache != null) {
+            return cache;
+        }
+        Cache created = caches.computeIfAbsent(key, k -> {
+            // Query caches are shared by name on the client, so names must not repeat across registries
+            String name = map.getName() + CACHE_SUFFIX + UUID.randomUUID();
+            long start = System.nanoTime();
+            QueryCache<Object, Object> queryCache = map.getQueryCache(name, (Predicate<Object, Object>) predicate, true);
+            Cache populated = new Cache(k, String.valueOf(k), queryCache);
+            queryCache.addEntryListener(new EventRecorder(populated), false);
+            logger.info("Query cache {} for {} populated with {} entries in {} ms", name, populated.predicate,
+                    queryCache.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return populated;
+        });
+        if (caches.size() > maxCaches) {
+            caches.values().stream()
+                    .filter(other -> other != created)
+                    .min(Comparator.comparingLong(other -> other.lastRead))
+                    .ifPresent(this::destroy);
+        }
+        return created;
+    }
+
+    private void destroyIdle() {
+        long now = System.currentTimeMillis();
+        for (Cache cache : caches.values()) {
+            if (now - cache.lastRead > idleTimeoutMillis) {
+                destroy(cache);
+            }
+        }
+    }
+
+    private void destroy(Cache cache) {
+        if (caches.remove(cache.key, cache)) {
+            cache.destroyed = true;
+            cache.queryCache.destroy();
+            logger.info("Query cache {} for {} destroyed", cache.queryCache.getName(), cache.predicate);
+        }
+    }
+
+    /**
+     * Predicates, or cache keys, whose results were too large for a cache and that are
+     * answered by querying the map
+     */
+    public Set<String> getUncachedPredicates() {
+        Set<String> predicates = new TreeSet<>();
+        uncached.forEach(key -> predicates.add(String.valueOf(key)));
+        return predicates;
+    }
+
+    /**
+     * Size, events and lag of every live cache
+     */
+    public List<CacheMetrics> getMetrics() {
+        List<CacheMetrics> metrics = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Cache cache : caches.values()) {
+            metrics.add(new CacheMetrics(cache, now));
+        }
+        metrics.sort(Comparator.comparing(CacheMetrics::getPredicate));
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        lagProbes.shutdownNow();
+        caches.values().forEach(this::destroy);
+    }
+
+    private static final class Cache {
+        final Object key;
+        final String predicate;
+        final QueryCache<Object, Object> queryCache;
+        final LongAdder events = new LongAdder();
+        final LongAdder lostEvents = new LongAdder();
+        final LatencyHistogram lag = new LatencyHistogram();
+        volatile long lastRead = System.currentTimeMillis();
+        volatile boolean destroyed;
+
+        Cache(Object key, String predicate, QueryCache<Object, Object> queryCache) {
+            this.key = key;
+            this.predicate = predicate;
+            this.queryCache = queryCache;
+        }
+    }
+
+    private final class EventRecorder implements EntryAddedListener<Object, Object>, EntryUpdatedListener<Object, Object>,
+            EntryRemovedListener<Object, Object>, EntryEvictedListener<Object, Object>, EventLostListener {
+        private final Cache cache;
+
+        EventRecorder(Cache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<Object, Object> event) {
+            changed(event);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<Object, Object> event) {
+            changed(event);
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<Object, Object> event) {
+            cache.events.increment();
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<Object, Object> event) {
+            cache.events.increment();
+        }
+
+        @Override
+        public void eventLost(EventLostEvent event) {
+            cache.lostEvents.increment();
+            // Events were dropped on the members; repopulate so the cache is not left stale
+            if (!cache.queryCache.tryRecover()) {
+                logger.warn("Query cache {} lost events and could not recover", cache.queryCache.getName());
+            }
+        }
+
+        private void changed(EntryEvent<Object, Object> event) {
+            cache.events.increment();
+            if (cache.events.sum() % lagSampleRate != 0) {
+                return;
+            }
+            long received = System.currentTimeMillis();
+            Object key = event.getKey();
+            try {
+                lagProbes.execute(() -> {
+                    EntryView<Object, Object> view = map.getEntryView(key);
+                    // Maps without per-entry stats report no update time
+                    if (view != null && view.getLastUpdateTime() > 0 && view.getLastUpdateTime() <= received) {
+                        cache.lag.record(TimeUnit.MILLISECONDS.toNanos(received - view.getLastUpdateTime()));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Closed
+            }
+        }
+    }
+
+    /**
+     * Size, event counts and sampled event lag of one cache
+     */
+    public static final class CacheMetrics {
+        private final String predicate;
+        private final String name;
+        private final int size;
+        private final long events;
+        private final long lostEvents;
+        private final long idleMillis;
+        private final LatencyHistogram lag;
+
+        CacheMetrics(Cache cache, long now) {
+            this.predicate = cache.predicate;
+            this.name = cache.queryCache.getName();
+            this.size = cache.queryCache.size();
+            this.events = cache.events.sum();
+            this.lostEvents = cache.lostEvents.sum();
+            this.idleMillis = now - cache.lastRead;
+            this.lag = cache.lag;
+        }
+
+        public String getPredicate() {
+            return predicate;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Changes applied since the cache was populated
+         */
+        public long getEvents() {
+            return events;
+        }
+
+        /**
+         * Times the members reported dropped events, each followed by a recovery
+         */
+        public long getLostEvents() {
+            return lostEvents;
+        }
+
+        public long getIdleMillis() {
+            return idleMillis;
+        }
+
+        /**
+         * Time from a sampled change on the member to its event reaching this cache, at
+         * millisecond resolution
+         */
+        public LatencyHistogram getLag() {
+            return lag;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s): %d entries, %d events, %d lost, lag %s, idle %d ms",
+                    predicate, name, size, events, lostEvents, lag, idleMillis);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.hazelcast;
+
+import com.hazelcast.collection.IQueue;
+import com.hazelcast.core.HazelcastInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Producer/consumer pipeline over an {@link IQueue} that moves items in batches.
+ *
+ * <p>Producers call {@link #publish(Collection)}, which sends the items with {@code addAll}
+ * in chunks of at most {@code maxBatchSize}. When the queue is too full to take a chunk the
+ * producer backs off until enough capacity is free, so a bounded queue slows producers
+ * down instead of failing them. A chunk larger than the whole queue could ever hold is
+ * split into chunks of the queue's capacity, and later chunks are capped to it as well.
+ *
+ * <p>{@link #start()} runs {@code consumers} worker threads that take items with
+ * {@code drainTo} and hand each batch to the handler. A worker doubles its batch size
+ * while it keeps draining full batches and halves it when the queue runs dry, so busy
+ * queues are drained with few round trips and quiet queues keep a low latency. An idle
+ * worker blocks in {@code poll} instead of spinning.
+ *
+ * <p>Items are removed from the queue before the handler sees them; a handler failure
+ * is logged and counted but the batch is not redelivered.
+ */
+public class QueuePipeline<E> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(QueuePipeline.class);
+
+    private static final int MIN_BATCH_SIZE = 16;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private final IQueue<E> queue;
+    private final int maxBatchSize;
+    private final int consumers;
+    private final Consumer<List<E>> handler;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile int chunkSize;
+
+    private final AtomicLong produced = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong producerBatches = new AtomicLong();
+    private final AtomicLong consumerBatches = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile long startNanos = System.nanoTime();
+
+    public QueuePipeline(HazelcastInstance instance, String queueName, int maxBatchSize, int consumers,
+                         Consumer<List<E>> handler) {
+        if (maxBatchSize < 1 || consumers < 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive and consumers not negative");
+        }
+        this.queue = instance.getQueue(queueName);
+        this.maxBatchSize = maxBatchSize;
+        this.chunkSize = maxBatchSize;
+        this.consumers = consumers;
+        this.handler = handler;
+    }
+
+    /**
+     * Starts the consumer workers
+     */
+    public void start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Pipeline for queue " + queue.getName() + " is already running");
+        }
+        startNanos = System.nanoTime();
+        for (int i = 0; i < consumers; i++) {
+            Thread worker = new Thread(this::consume, "queue-pipeline-" + queue.getName() + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        logger.info("Started {} consumers on queue {}", consumers, queue.getName());
+    }
+
+    /**
+     * Adds the items to the queue in batches, waiting for free capacity when the queue is full
+     */
+    public void publish(Collection<? extends E> items) throws InterruptedException {
+        List<E> batch = new ArrayList<>(Math.min(items.size(), maxBatchSize));
+        Iterator<? extends E> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() >= chunkSize || !iterator.hasNext()) {
+                addBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void addBatch(List<E> batch) throws InterruptedException {
+        long backoff = 1;
+        while (true) {
+            try {
+                queue.addAll(batch);
+                break;
+            } catch (IllegalStateException e) {
+                // addAll on a bounded queue stores nothing and throws "Queue full" when the batch does not fit
+                backpressureWaits.incrementAndGet();
+            }
+            do {
+                int capacity = capacity();
+                if (batch.size() > capacity) {
+                    // Waiting would never free enough room for the whole batch
+                    chunkSize = capacity;
+                    for (int from = 0; from < batch.size(); from += capacity) {
+                        addBatch(batch.subList(from, Math.min(from + capacity, batch.size())));
+                    }
+                    return;
+                }
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } while (queue.remainingCapacity() < batch.size());
+        }
+        produced.addAndGet(batch.size());
+        producerBatches.incrementAndGet();
+    }
+
+    /**
+     * Maximum size of the queue. Reading the size before the free capacity means items
+     * taken in between by the consumers make the result too large, which only delays the
+     * split until a later call while they drain, rather than too small, which would shrink
+     * every later chunk for good. Only items added in between by other producers can still
+     * make it too small.
+     */
+    private int capacity() {
+        long size = queue.size();
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, size + queue.remainingCapacity()));
+    }
+
+    private void consume() {
+        int batchSize = Math.min(MIN_BATCH_SIZE, maxBatchSize);
+        List<E> batch = new ArrayList<>(maxBatchSize);
+        while (running.get()) {
+            try {
+                int drained = queue.drainTo(batch, batchSize);
+                if (drained == 0) {
+                    E first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                batchSize = nextBatchSize(batchSize, batch.size());
+                handle(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (running.get()) {
+                    logger.warn("Consumer on queue {} failed to drain", queue.getName(), e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private int nextBatchSize(int batchSize, int drained) {
+        if (drained >= batchSize) {
+            return Math.min(batchSize * 2, maxBatchSize);
+        }
+        if (drained < batchSize / 2) {
+            return Math.max(batchSize / 2, Math.min(MIN_BATCH_SIZE, maxBatchSize));
+        }
+        return batchSize;
+    }
+
+    private void handle(List<E> batch) {
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            logger.warn("Handler failed for a batch of {} items from queue {}", batch.size(), queue.getName(), e);
+        }
+        consumed.addAndGet(batch.size());
+        consumerBatches.incrementAndGet();
+    }
+
+    /**
+     * Current counters; lag is the number of items published through this pipeline but not yet consumed
+     */
+    public Metrics getMetrics() {
+        return new Metrics(produced.get(), consumed.get(), producerBatches.get(), consumerBatches.get(),
+                backpressureWaits.get(), failedBatches.get(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Stops the consumers after their current batch; items still in the queue stay there.
+     * When interrupted, returns without waiting for the consumers and keeps the interrupt.
+     */
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.clear();
+        logger.info("Stopped consumers on queue {}: {}", queue.getName(), getMetrics());
+    }
+
+    /**
+     * Snapshot of the pipeline counters
+     */
+    public static class Metrics {
+        private final long produced;
+        private final long consumed;
+        private final long producerBatches;
+        private final long consumerBatches;
+        private final long backpressureWaits;
+        private final long failedBatches;
+        private final long elapsedNanos;
+
+        Metrics(long produced, long consumed, long producerBatches, long consumerBatches,
+                long backpressureWaits, long failedBatches, long elapsedNanos) {
+            this.produced = produced;
+            this.consumed = consumed;
+            this.producerBatches = producerBatches;
+            this.consumerBatches = consumerBatches;
+            this.backpressureWaits = backpressureWaits;
+            this.failedBatches = failedBatches;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getProduced() {
+            return produced;
+        }
+
+        public long getConsumed() {
+            return consumed;
+        }
+
+        public long getLag() {
+            return Math.max(0, produced - consumed);
+        }
+
+        public long getProducerBatches() {
+            return producerBatches;
+        }
+
+        public long getConsumerBatches() {
+            return consumerBatches;
+        }
+
+        public long getBackpressureWaits() {
+            return backpressureWaits;
+        }
+
+        public long getFailedBatches() {
+            return failedBatches;
+        }
+
+        public double getConsumedPerSecond() {
+            return elapsedNanos == 0 ? 0 : consumed * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public double getAverageConsumerBatchSize() {
+            return consumerBatches == 0 ? 0 : (double) consumed / consumerBatches;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Metrics{produced=%d, consumed=%d, lag=%d, consumedPerSecond=%.0f, "
+                            + "avgBatch=%.1f, backpressureWaits=%d, failedBatches=%d}",
+                    produced, consumed, getLag(), getConsumedPerSecond(), getAverageConsumerBatchSize(),
+                    backpressureWaits, failedBatches);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecord;
+
+import java.util.Map;
+
+/**
+ * Reads one scalar field (boolean, int32, int64, float64 or string) of a Compact
+ * value without deserializing the rest of it.
+ * Being {@link ReadOnly}, it takes no lock on the key and, when offloaded, does not
+ * block the partition thread.
+ */
+public class ReadFieldProcessor<K, V> extends GenericRecordEntryProcessor<K, V, Object> implements ReadOnly, Offloadable {
+    private static final long serialVersionUID = 1L;
+
+    private final String fieldName;
+    private final String executorName;
+
+    public ReadFieldProcessor(String fieldName) {
+        this(fieldName, NO_OFFLOADING);
+    }
+
+    public ReadFieldProcessor(String fieldName, String executorName) {
+        this.fieldName = fieldName;
+        this.executorName = executorName;
+    }
+
+    @Override
+    protected Object process(Map.Entry<K, V> entry, GenericRecord record) {
+        FieldKind kind = record.getFieldKind(fieldName);
+        switch (kind) {
+            case NOT_AVAILABLE:
+                return null;
+            case BOOLEAN:
+                return record.getBoolean(fieldName);
+            case INT32:
+                return record.getInt32(fieldName);
+            case INT64:
+                return record.getInt64(fieldName);
+            case FLOAT64:
+                return record.getFloat64(fieldName);
+            case STRING:
+                return record.getString(fieldName);
+            default:
+                throw new IllegalArgumentException("Unsupported kind " + kind + " for field " + fieldName);
+        }
+    }
+
+    @Override
+    public String getExecutorName() {
+        return executorName;
+    }
+}
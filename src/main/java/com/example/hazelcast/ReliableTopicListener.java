@@ -0,0 +1,59 @@
+package com.example.hazelcast;
+
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import com.hazelcast.topic.ReliableMessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adapts a plain {@link MessageListener} to a reliable topic with a {@link SlowSubscriberPolicy}.
+ *
+ * <p>The listener starts at the tail of the topic and remembers the last sequence it
+ * saw, so a re-registered instance continues where it left off. Exceptions thrown by
+ * the delegate are logged; only {@link SlowSubscriberPolicy#ERROR} cancels the
+ * subscription on them.
+ */
+public class ReliableTopicListener<E> implements ReliableMessageListener<E> {
+    private static final Logger logger = LoggerFactory.getLogger(ReliableTopicListener.class);
+
+    private final MessageListener<E> delegate;
+    private final SlowSubscriberPolicy policy;
+    private volatile long lastSequence = -1;
+
+    public ReliableTopicListener(MessageListener<E> delegate, SlowSubscriberPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public void onMessage(Message<E> message) {
+        delegate.onMessage(message);
+    }
+
+    @Override
+    public long retrieveInitialSequence() {
+        // -1 means start with the next published message
+        return lastSequence < 0 ? -1 : lastSequence + 1;
+    }
+
+    @Override
+    public void storeSequence(long sequence) {
+        lastSequence = sequence;
+    }
+
+    @Override
+    public boolean isLossTolerant() {
+        return policy.isLossTolerant();
+    }
+
+    @Override
+    public boolean isTerminal(Throwable failure) {
+        logger.warn("Reliable topic listener failed on message after sequence {}", lastSequence, failure);
+        return policy == SlowSubscriberPolicy.ERROR;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
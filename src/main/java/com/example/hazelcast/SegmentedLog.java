@@ -0,0 +1,480 @@
+package com.example.hazelcast;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only key/value log split into fixed-size, memory-mapped segment files.
+ *
+ * <p>Every put or delete appends a record {@code [length][crc32][version][type][keyLength][key][value]}
+ * to the active segment; when it is full a new segment is started. Versions increase
+ * with every append and start from the wall clock, so records of logs written by
+ * different members on one host can be ordered against each other. An in-memory index
+ * maps each key to its latest record; values are read back from the mapped segments
+ * and never kept on the heap.
+ *
+ * <p>On open the segments are scanned in order and the index is rebuilt. A record with
+ * a zero length or a wrong checksum marks the end of a segment, so a torn write at the
+ * end of the log is ignored. {@link #compact(double)} copies the live records of
+ * mostly-dead sealed segments to the active segment and deletes them. Deletes are kept
+ * as tombstones so that an older record in another log cannot come back.
+ *
+ * <p>A put may carry an expiration time in epoch milliseconds, stored as the first 8
+ * bytes after the key of an expiring record. The log keeps expired records like any
+ * other, so they still hide older records of the key; readers skip them by comparing
+ * {@link Lookup#getExpirationTime()} with the clock.
+ *
+ * <p>Appends reach the page cache immediately; {@link #force()} writes them to disk.
+ * A log can be opened read-only while another process appends to it, and
+ * {@link #refresh()} then follows its appends. All methods are synchronized.
+ */
+public class SegmentedLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // length + crc, then version + type + keyLength in the checksummed body
+    private static final int FRAME_HEADER = 8;
+    private static final int BODY_HEADER = 13;
+    private static final int EXPIRY = 8;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte PUT_EXPIRING = 3;
+
+    /**
+     * Expiration time of records that never expire
+     */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean readOnly;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<ByteBuffer, Location> index = new HashMap<>();
+    private Segment active;
+    private long lastVersion;
+
+    private SegmentedLog(Path directory, int segmentSize, boolean readOnly) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Opens or creates the log in the directory for reading and appending
+     */
+    public static SegmentedLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024 bytes");
+        }
+        Files.createDirectories(directory);
+        SegmentedLog log = new SegmentedLog(directory, segmentSize, false);
+        log.recover();
+        return log;
+    }
+
+    /**
+     * Opens an existing log for reading only, for example one written by another member
+     */
+    public static SegmentedLog openReadOnly(Path directory) throws IOException {
+        SegmentedLog log = new SegmentedLog(directory, 0, true);
+        log.recover();
+        return log;
+    }
+
+    private void recover() throws IOException {
+        for (long id : segmentIds()) {
+            Segment segment = mapSegment(id);
+            segments.put(id, segment);
+            scan(segment);
+        }
+        if (!readOnly) {
+            active = segments.isEmpty() ? createSegment(0) : segments.lastEntry().getValue();
+        }
+    }
+
+    private List<Long> segmentIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> ids.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * Picks up what the writer of a read-only log appended and compacted since the last
+     * call. Records are read from the shared mapping, so they show up as soon as they are
+     * written, before they are forced to disk.
+     */
+    public synchronized void refresh() throws IOException {
+        if (!readOnly) {
+            throw new IllegalStateException("Only read-only logs need a refresh");
+        }
+        List<Long> ids = segmentIds();
+        for (long id : ids) {
+            Segment segment = segments.get(id);
+            if (segment == null) {
+                segment = mapSegment(id);
+                segments.put(id, segment);
+            } else if (segment.buffer.limit() < segment.channel.size()) {
+                // Mapped while the writer was still growing the file
+                int position = segment.position;
+                segment.channel.close();
+                segment = mapSegment(id);
+                segment.position = position;
+                segments.put(id, segment);
+            }
+            scan(segment);
+        }
+        // A segment deleted by compaction can go once its records were seen in their new place
+        Set<Segment> referenced = new HashSet<>();
+        for (Location location : index.values()) {
+            referenced.add(location.segment);
+        }
+        for (Iterator<Segment> it = segments.values().iterator(); it.hasNext(); ) {
+            Segment segment = it.next();
+            if (!ids.contains(segment.id) && !referenced.contains(segment)) {
+                segment.channel.close();
+                it.remove();
+            }
+        }
+    }
+
+    // Continues where the previous scan of the segment stopped
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = segment.position;
+        while (position + FRAME_HEADER + BODY_HEADER <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length < BODY_HEADER || position + FRAME_HEADER + length > buffer.limit()
+                    || buffer.getInt(position + 4) != checksum(buffer, position + FRAME_HEADER, length)) {
+                break;
+            }
+            int body = position + FRAME_HEADER;
+            long version = buffer.getLong(body);
+            byte type = buffer.get(body + 8);
+            int keyLength = buffer.getInt(body + 9);
+            byte[] key = read(buffer, body + BODY_HEADER, keyLength);
+            long expirationTime = type == PUT_EXPIRING ? buffer.getLong(body + BODY_HEADER + keyLength) : NO_EXPIRY;
+            segment.liveBytes += FRAME_HEADER + length;
+            index(ByteBuffer.wrap(key), new Location(segment, position, FRAME_HEADER + length, version, type, expirationTime));
+            lastVersion = Math.max(lastVersion, version);
+            position += FRAME_HEADER + length;
+        }
+        segment.position = position;
+    }
+
+    private void index(ByteBuffer key, Location location) {
+        Location previous = index.get(key);
+        if (previous != null && previous.version > location.version) {
+            location.segment.liveBytes -= location.length;
+            return;
+        }
+        if (previous != null) {
+            previous.segment.liveBytes -= previous.length;
+        }
+        index.put(key, location);
+    }
+
+    public synchronized void put(byte[] key, byte[] value) throws IOException {
+        put(key, value, NO_EXPIRY);
+    }
+
+    /**
+     * Appends a record that expires at the given epoch milliseconds, or never for
+     * {@link #NO_EXPIRY}
+     */
+    public synchronized void put(byte[] key, byte[] value, long expirationTime) throws IOException {
+        if (expirationTime == NO_EXPIRY) {
+            append(key, value, PUT, nextVersion(), NO_EXPIRY);
+        } else {
+            byte[] payload = ByteBuffer.allocate(EXPIRY + value.length).putLong(expirationTime).put(value).array();
+            append(key, payload, PUT_EXPIRING, nextVersion(), expirationTime);
+        }
+    }
+
+    public synchronized void delete(byte[] key) throws IOException {
+        append(key, new byte[0], DELETE, nextVersion(), NO_EXPIRY);
+    }
+
+    private long nextVersion() {
+        lastVersion = Math.max(lastVersion + 1, System.currentTimeMillis() * 1000);
+        return lastVersion;
+    }
+
+    private void append(byte[] key, byte[] value, byte type, long version, long expirationTime) throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("Log " + directory + " is read-only");
+        }
+        int length = BODY_HEADER + key.length + value.length;
+        if (FRAME_HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit a segment of " + segmentSize);
+        }
+        if (active.position + FRAME_HEADER + length > segmentSize) {
+            active = createSegment(active.id + 1);
+        }
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.position;
+        int body = position + FRAME_HEADER;
+        buffer.putLong(body, version);
+        buffer.put(body + 8, type);
+        buffer.putInt(body + 9, key.length);
+        buffer.duplicate().position(body + BODY_HEADER).put(key).put(value);
+        buffer.putInt(position + 4, checksum(buffer, body, length));
+        // The length goes last: a record without it is not visible on recovery
+        buffer.putInt(position, length);
+        active.position = body + length;
+        active.liveBytes += FRAME_HEADER + length;
+        index(ByteBuffer.wrap(key.clone()), new Location(active, position, FRAME_HEADER + length, version, type, expirationTime));
+    }
+
+    /**
+     * Latest record for the key, or {@code null} when the log has never seen it
+     */
+    public synchronized Lookup lookup(byte[] key) {
+        Location location = index.get(ByteBuffer.wrap(key));
+        if (location == null) {
+            return null;
+        }
+        return new Lookup(location.version, location.isDeleted() ? null : location.readValue(), location.expirationTime);
+    }
+
+    /**
+     * Visits the latest version of every key, including deleted and expired ones
+     */
+    public synchronized void forEachKey(KeyVisitor visitor) {
+        for (Map.Entry<ByteBuffer, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            visitor.visit(entry.getKey().array(), location.version, location.isDeleted(), location.expirationTime);
+        }
+    }
+
+    /**
+     * Number of keys whose latest record is not a delete
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Location location : index.values()) {
+            if (!location.isDeleted()) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Rewrites sealed segments whose share of live bytes is below {@code maxLiveRatio}
+     * and deletes them
+     *
+     * @return the number of segments removed
+     */
+    public synchronized int compact(double maxLiveRatio) throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("Log " + directory + " is read-only");
+        }
+        List<Segment> victims = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active && segment.liveBytes < segment.position * maxLiveRatio) {
+                victims.add(segment);
+            }
+        }
+        if (victims.isEmpty()) {
+            return 0;
+        }
+        for (Map.Entry<ByteBuffer, Location> entry : new ArrayList<>(index.entrySet())) {
+            Location location = entry.getValue();
+            if (victims.contains(location.segment)) {
+                append(entry.getKey().array(), location.readPayload(), location.type, location.version, location.expirationTime);
+            }
+        }
+        // Copies are on disk before the originals go away
+        active.buffer.force();
+        for (Segment victim : victims) {
+            segments.remove(victim.id);
+            victim.channel.close();
+            Files.deleteIfExists(victim.path);
+        }
+        return victims.size();
+    }
+
+    /**
+     * Writes appended records to disk
+     */
+    public synchronized void force() {
+        if (active != null) {
+            active.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Iterator<Segment> it = segments.values().iterator(); it.hasNext(); ) {
+            it.next().channel.close();
+            it.remove();
+        }
+        index.clear();
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        if (active != null) {
+            active.buffer.force();
+        }
+        Segment segment = new Segment(id, directory.resolve(segmentName(id)));
+        segment.channel = FileChannel.open(segment.path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.buffer = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(long id) throws IOException {
+        Segment segment = new Segment(id, directory.resolve(segmentName(id)));
+        if (readOnly) {
+            segment.channel = FileChannel.open(segment.path, StandardOpenOption.READ);
+            segment.buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.channel.size());
+        } else {
+            segment.channel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment.buffer = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(segmentSize, segment.channel.size()));
+        }
+        return segment;
+    }
+
+    private static String segmentName(long id) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX);
+    }
+
+    private static byte[] read(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.duplicate().position(offset).get(bytes);
+        return bytes;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(offset).limit(offset + length));
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        FileChannel channel;
+        MappedByteBuffer buffer;
+        int position;
+        long liveBytes;
+
+        Segment(long id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+    }
+
+    private static final class Location {
+        final Segment segment;
+        final int offset;
+        final int length;
+        final long version;
+        final byte type;
+        final long expirationTime;
+
+        Location(Segment segment, int offset, int length, long version, byte type, long expirationTime) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.version = version;
+            this.type = type;
+            this.expirationTime = expirationTime;
+        }
+
+        boolean isDeleted() {
+            return type == DELETE;
+        }
+
+        // Everything after the key, including the expiration time of an expiring record
+        byte[] readPayload() {
+            int body = offset + FRAME_HEADER;
+            int keyLength = segment.buffer.getInt(body + 9);
+            return read(segment.buffer, body + BODY_HEADER + keyLength, length - FRAME_HEADER - BODY_HEADER - keyLength);
+        }
+
+        byte[] readValue() {
+            int body = offset + FRAME_HEADER;
+            int keyLength = segment.buffer.getInt(body + 9);
+            int skip = type == PUT_EXPIRING ? EXPIRY : 0;
+            return read(segment.buffer, body + BODY_HEADER + keyLength + skip,
+                    length - FRAME_HEADER - BODY_HEADER - keyLength - skip);
+        }
+    }
+
+    /**
+     * Latest version of a key and its value, which is {@code null} for a delete
+     */
+    public static final class Lookup {
+        private final long version;
+        private final byte[] value;
+        private final long expirationTime;
+
+        Lookup(long version, byte[] value, long expirationTime) {
+            this.version = version;
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+
+        public boolean isDeleted() {
+            return value == null;
+        }
+
+        /**
+         * Epoch milliseconds at which the value expires, or {@link #NO_EXPIRY}
+         */
+        public long getExpirationTime() {
+            return expirationTime;
+        }
+
+        /**
+         * Whether the value is deleted or expired at the given epoch milliseconds
+         */
+        public boolean isAbsentAt(long now) {
+            return isDeleted() || expirationTime <= now;
+        }
+    }
+
+    /**
+     * Receives the keys of {@link #forEachKey(KeyVisitor)}
+     */
+    public interface KeyVisitor {
+        void visit(byte[] key, long version, boolean deleted, long expirationTime);
+    }
+}
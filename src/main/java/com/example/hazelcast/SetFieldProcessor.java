@@ -0,0 +1,42 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecord;
+
+import java.util.Map;
+
+/**
+ * Replaces a string field of a Compact value in place, for example
+ * {@code new SetFieldProcessor<>("email", "jane@example.org")}. Never returns a result.
+ */
+public class SetFieldProcessor<K, V> extends GenericRecordEntryProcessor<K, V, Object> implements Offloadable {
+    private static final long serialVersionUID = 1L;
+
+    private final String fieldName;
+    private final String value;
+    private final String executorName;
+
+    public SetFieldProcessor(String fieldName, String value) {
+        this(fieldName, value, NO_OFFLOADING);
+    }
+
+    public SetFieldProcessor(String fieldName, String value, String executorName) {
+        this.fieldName = fieldName;
+        this.value = value;
+        this.executorName = executorName;
+    }
+
+    @Override
+    protected Object process(Map.Entry<K, V> entry, GenericRecord record) {
+        if (record.getFieldKind(fieldName) == FieldKind.STRING) {
+            setRecord(entry, record.newBuilderWithClone().setString(fieldName, value).build());
+        }
+        return null;
+    }
+
+    @Override
+    public String getExecutorName() {
+        return executorName;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hazelcast;
+
+import com.hazelcast.topic.TopicOverloadPolicy;
+
+/**
+ * What a reliable topic does when a subscriber cannot keep up with the publishers.
+ *
+ * <p>A reliable topic stores messages in a ringbuffer that every subscriber reads at
+ * its own pace. Once the ringbuffer is full the publisher side decides what happens
+ * through the {@link TopicOverloadPolicy}, and a subscriber that finds its next
+ * message already overwritten either skips ahead or stops, depending on whether it
+ * is loss tolerant.
+ */
+public enum SlowSubscriberPolicy {
+    /**
+     * Overwrite the oldest messages; lagging subscribers skip what they missed
+     */
+    DROP(TopicOverloadPolicy.DISCARD_OLDEST, true),
+    /**
+     * Publishers wait until the oldest messages expire from the ringbuffer,
+     * which needs a ringbuffer time to live
+     */
+    BLOCK(TopicOverloadPolicy.BLOCK, false),
+    /**
+     * Publishers get a {@code TopicOverloadException}; a subscriber that lost
+     * messages or fails on one is cancelled
+     */
+    ERROR(TopicOverloadPolicy.ERROR, false);
+
+    private final TopicOverloadPolicy overloadPolicy;
+    private final boolean lossTolerant;
+
+    SlowSubscriberPolicy(TopicOverloadPolicy overloadPolicy, boolean lossTolerant) {
+        this.overloadPolicy = overloadPolicy;
+        this.lossTolerant = lossTolerant;
+    }
+
+    public TopicOverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public boolean isLossTolerant() {
+        return lossTolerant;
+    }
+}
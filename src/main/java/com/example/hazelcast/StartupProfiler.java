@@ -0,0 +1,131 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.partition.PartitionService;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breaks a member's time to ready into its phases: JVM start, join, partition
+ * assignment and data load.
+ *
+ * <p>{@link #sinceJvmStart()} counts the time from the JVM's start to the profiler's
+ * creation as the first phase, which includes class loading up to {@code main}. The
+ * other phases are timed by running them through {@link #time}; a phase timed more than
+ * once adds up. {@link #assignPartitions} times the partition phase itself: a new cluster
+ * assigns its partitions on first use and then copies backups to the members, so the
+ * member is only ready once every partition has an owner and the cluster is safe.
+ * Profilers are not thread-safe; time phases running in parallel, such as several
+ * members joining, as one step.
+ */
+public class StartupProfiler {
+
+    /**
+     * Phases of a member's startup, in the order they run
+     */
+    public enum Phase {
+        JVM_START, JOIN, PARTITION_ASSIGNMENT, DATA_LOAD
+    }
+
+    /**
+     * A timed step, which may throw a checked exception of type {@code E}
+     */
+    @FunctionalInterface
+    public interface Step<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+
+    /**
+     * Profiler with no phase recorded yet, for members started after the JVM has been up
+     * for a while, as in tests and benchmarks
+     */
+    public StartupProfiler() {
+    }
+
+    /**
+     * Profiler whose {@link Phase#JVM_START} is the time since the JVM started
+     */
+    public static StartupProfiler sinceJvmStart() {
+        StartupProfiler profiler = new StartupProfiler();
+        long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        profiler.add(Phase.JVM_START, TimeUnit.MILLISECONDS.toNanos(Math.max(0, sinceStart)));
+        return profiler;
+    }
+
+    /**
+     * Runs the step and adds its time to the phase
+     */
+    public <T, E extends Exception> T time(Phase phase, Step<T, E> step) throws E {
+        long start = System.nanoTime();
+        try {
+            return step.run();
+        } finally {
+            add(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Waits until every partition of the member's cluster has an owner and no migration or
+     * backup copy is pending, and adds the wait to {@link Phase#PARTITION_ASSIGNMENT}
+     *
+     * @throws IllegalStateException if that takes longer than the timeout
+     */
+    public void assignPartitions(HazelcastInstance member, long timeout, TimeUnit unit) throws InterruptedException {
+        time(Phase.PARTITION_ASSIGNMENT, () -> {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            PartitionService partitionService = member.getPartitionService();
+            // Asking for the owners triggers the first assignment
+            for (Partition partition : partitionService.getPartitions()) {
+                while (partition.getOwner() == null) {
+                    awaitUntil(deadline, "owner of partition " + partition.getPartitionId());
+                }
+            }
+            while (!partitionService.isClusterSafe()) {
+                awaitUntil(deadline, "a safe cluster");
+            }
+            return null;
+        });
+    }
+
+    private static void awaitUntil(long deadline, String what) throws InterruptedException {
+        if (System.nanoTime() > deadline) {
+            throw new IllegalStateException("Timed out waiting for " + what);
+        }
+        Thread.sleep(10);
+    }
+
+    private void add(Phase phase, long elapsedNanos) {
+        nanos.merge(phase, elapsedNanos, Long::sum);
+    }
+
+    /**
+     * Time spent in the phase, {@code 0} if it was not recorded
+     */
+    public long getMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.getOrDefault(phase, 0L));
+    }
+
+    /**
+     * Sum of all recorded phases
+     */
+    public long getTimeToReadyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("StartupProfiler{");
+        for (Phase phase : Phase.values()) {
+            builder.append(phase.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                    .append('=').append(getMillis(phase)).append("ms, ");
+        }
+        return builder.append("ready=").append(getTimeToReadyMillis()).append("ms}").toString();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.hazelcast;
+
+import com.hazelcast.client.impl.proxy.ClientMapProxy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy query results over a map, for result sets too large to hold at once.
+ *
+ * <p>{@link #entries}, {@link #project} and {@link #keys} walk the partitions one after
+ * another and fetch at most {@code fetchSize} results per round trip. The members run the
+ * predicate and the projection, so only matching results, and only the projected fields,
+ * cross the wire, and the client holds one batch at a time whatever the size of the
+ * result. Results come in partition order; an entry changed during the walk may be seen
+ * with its old or its new value, and entries added or removed may or may not be seen.
+ *
+ * <p>{@link #sorted} and {@link #sortedKeys} return the results in comparator order, one
+ * page of {@code fetchSize} per round trip, with a {@link PagingPredicate}. Every page
+ * makes each member sort its matches up to the end of that page, so deep pages cost more
+ * than the unsorted walk; the comparator must be serializable and on the members'
+ * classpath. Members cannot project paged results, so use {@code sortedKeys} to
+ * transfer keys only.
+ *
+ * <p>Works with maps from a client or from a member. The streams hold nothing on the
+ * members, so one that is not read to the end can simply be dropped.
+ */
+public class StreamingQuery<K, V> {
+
+    private final IMap<K, V> map;
+    private final PartitionIterators<K, V> partitionIterators;
+    private final int partitionCount;
+    private final int fetchSize;
+
+    /**
+     * @throws IllegalArgumentException if the instance's maps have no partition iterators,
+     *                                  which only Hazelcast's own client and member proxies have
+     */
+    public StreamingQuery(HazelcastInstance instance, String mapName, int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.map = Instrumentation.unwrap(instance.getMap(mapName));
+        this.partitionIterators = partitionIterators(map);
+        this.partitionCount = instance.getPartitionService().getPartitions().size();
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Query iterator over one partition of a map
+     */
+    private interface PartitionIterators<K, V> {
+        <R> Iterator<R> iterator(int fetchSize, int partitionId, Projection<? super Map.Entry<K, V>, R> projection,
+                                 Predicate<K, V> predicate);
+    }
+
+    // The partition iterators are only on Hazelcast's own proxies; look them up once, so
+    // another map fails here rather than at the first read of a stream
+    private static <K, V> PartitionIterators<K, V> partitionIterators(IMap<K, V> map) {
+        if (map instanceof ClientMapProxy) {
+            ClientMapProxy<K, V> proxy = (ClientMapProxy<K, V>) map;
+            return new PartitionIterators<K, V>() {
+                @Override
+                public <R> Iterator<R> iterator(int fetchSize, int partitionId,
+                                                Projection<? super Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+                    return proxy.iterator(fetchSize, partitionId, projection, predicate);
+                }
+            };
+        }
+        if (map instanceof MapProxyImpl) {
+            MapProxyImpl<K, V> proxy = (MapProxyImpl<K, V>) map;
+            return new PartitionIterators<K, V>() {
+                @Override
+                public <R> Iterator<R> iterator(int fetchSize, int partitionId,
+                                                Projection<? super Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+                    return proxy.iterator(fetchSize, partitionId, projection, predicate);
+                }
+            };
+        }
+        throw new IllegalArgumentException("No partition iterator for " + map.getClass().getName());
+    }
+
+    /**
+     * Entries matching the predicate, in partition order
+     */
+    public Stream<Map.Entry<K, V>> entries(Predicate<K, V> predicate) {
+        return project(Projections.identity(), predicate);
+    }
+
+    /**
+     * Projections of the entries matching the predicate, computed on the members, in
+     * partition order
+     */
+    public <R> Stream<R> project(Projection<? super Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Use sorted(...) for paging predicates");
+        }
+        return stream(new Iterator<R>() {
+            private int partitionId = -1;
+            private Iterator<R> partition = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                // Start the next partition only when the previous one is used up. A
+                // partition iterator that has ended starts over if asked again, so drop it
+                while (!partition.hasNext()) {
+                    partition = Collections.emptyIterator();
+                    if (partitionId + 1 == partitionCount) {
+                        return false;
+                    }
+                    partition = partitionIterators.iterator(fetchSize, ++partitionId, projection, predicate);
+                }
+                return true;
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return partition.next();
+            }
+        });
+    }
+
+    /**
+     * Every key of the map, without the values, in partition order
+     */
+    public Stream<K> keys() {
+        return project(Projections.singleAttribute("__key"), Predicates.alwaysTrue());
+    }
+
+    /**
+     * Entries matching the predicate in comparator order, fetched a page at a time
+     */
+    public Stream<Map.Entry<K, V>> sorted(Predicate<K, V> predicate, Comparator<Map.Entry<K, V>> comparator) {
+        return pages(predicate, comparator, map::entrySet);
+    }
+
+    /**
+     * Keys of the entries matching the predicate in comparator order, fetched a page at
+     * a time without their values
+     */
+    public Stream<K> sortedKeys(Predicate<K, V> predicate, Comparator<Map.Entry<K, V>> comparator) {
+        return pages(predicate, comparator, map::keySet);
+    }
+
+    private <R> Stream<R> pages(Predicate<K, V> predicate, Comparator<Map.Entry<K, V>> comparator,
+                                Function<Predicate<K, V>, Collection<R>> query) {
+        PagingPredicate<K, V> paging = Predicates.pagingPredicate(predicate, comparator, fetchSize);
+        return stream(new Iterator<R>() {
+            private Iterator<R> page = Collections.emptyIterator();
+            private boolean started;
+            private boolean last;
+
+            @Override
+            public boolean hasNext() {
+                if (!page.hasNext() && !last) {
+                    if (started) {
+                        paging.nextPage();
+                    }
+                    started = true;
+                    Collection<R> results = query.apply(paging);
+                    // A short page is the last one, which saves a round trip for an empty page
+                    last = results.size() < fetchSize;
+                    page = results.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        });
+    }
+
+    private static <R> Stream<R> stream(Iterator<R> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
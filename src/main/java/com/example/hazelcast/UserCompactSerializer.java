@@ -0,0 +1,52 @@
+package com.example.hazelcast;
+
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+/**
+ * Compact serializer for {@link User}.
+ *
+ * <p>Field names match the attribute names used in predicates, indexes and
+ * aggregations ({@code firstName}, {@code lastName}, {@code age}, {@code email}).
+ * Every field is read through {@link CompactReader#getFieldKind(String)} so records
+ * written by an older or newer version of this class, with fields added or removed,
+ * can still be read: missing fields fall back to {@code null} or {@code 0}.
+ */
+public class UserCompactSerializer implements CompactSerializer<User> {
+
+    public static final String TYPE_NAME = "user";
+
+    @Override
+    public User read(CompactReader reader) {
+        return new User(
+                readString(reader, "firstName"),
+                readString(reader, "lastName"),
+                reader.getFieldKind("age") == FieldKind.INT32 ? reader.readInt32("age") : 0,
+                readString(reader, "email"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, User user) {
+        writer.writeString("firstName", user.getFirstName());
+        writer.writeString("lastName", user.getLastName());
+        writer.writeInt32("age", user.getAge());
+        writer.writeString("email", user.getEmail());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<User> getCompactClass() {
+        return User.class;
+    }
+
+    private static String readString(CompactReader reader, String fieldName) {
+        return reader.getFieldKind(fieldName) == FieldKind.STRING ? reader.readString(fieldName) : null;
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.hazelcast;
+
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.function.FunctionEx;
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.Traversers;
+import com.hazelcast.jet.Util;
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.pipeline.JournalInitialPosition;
+import com.hazelcast.jet.pipeline.Pipeline;
+import com.hazelcast.jet.pipeline.Sinks;
+import com.hazelcast.jet.pipeline.SourceBuilder;
+import com.hazelcast.jet.pipeline.Sources;
+import com.hazelcast.jet.pipeline.StreamSource;
+import com.hazelcast.jet.pipeline.StreamStage;
+import com.hazelcast.map.EventJournalMapEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Streaming job that keeps count, sum, average, min and max of numeric {@link User}
+ * attributes up to date from the event journal of a map, so readers get the stats with
+ * one {@code get} on {@value #RESULTS_MAP} instead of an {@code aggregate} over every entry.
+ *
+ * <p>The journal only retains the latest events of each partition, so entries written
+ * before the job started may have no event left. The job therefore also reads the
+ * entries the map holds when it starts, and merges them with the journal, read from
+ * the oldest retained event, per key: it remembers the attribute values it counted for
+ * every key and turns each new value of a key into a change per attribute, taking the
+ * counted value out of the stats and adding the new one. A key's journal events win
+ * over the entry read at startup, which may be older; an entry read at startup only
+ * counts while no event of its key has been seen. Puts, updates, removals, evictions
+ * and expirations therefore all keep the stats equal to what an aggregation of the
+ * entries in memory would return, and changes to entries that existed before the job
+ * are not applied to stats that never counted them. Values that are not a
+ * {@code User} are ignored. Removing the maximum needs the next largest value, so each
+ * attribute keeps a count per distinct value; that is small for attributes such as age.
+ * The values per key take job state in proportion to the number of keys seen, removed
+ * ones included.
+ *
+ * <p>The job runs with exactly-once snapshots every second: after a member leaves or
+ * the job restarts it continues from the journal offsets of the last snapshot with the
+ * state of that snapshot, so no event is counted twice, and reads the map's entries
+ * again, which only adds keys the journal has not mentioned. The journal must retain
+ * the events written while the job is down.
+ */
+public final class UserStatsPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsPipeline.class);
+
+    public static final String JOB_NAME = "user-stats";
+    public static final String RESULTS_MAP = "user-stats";
+
+    private UserStatsPipeline() {
+    }
+
+    /**
+     * Stats of {@code age} over {@code users}, published to {@value #RESULTS_MAP}
+     */
+    public static Pipeline build() {
+        Map<String, FunctionEx<User, ? extends Number>> attributes = new LinkedHashMap<>();
+        attributes.put("age", User::getAge);
+        return build("users", RESULTS_MAP, attributes);
+    }
+
+    /**
+     * Stats of the given attributes of the {@code User} values of {@code sourceMap},
+     * published to {@code resultsMap} under the attribute names
+     */
+    public static Pipeline build(String sourceMap, String resultsMap,
+                                 Map<String, FunctionEx<User, ? extends Number>> attributes) {
+        // The functions are sent to the members, so keep them in a serializable map
+        Map<String, FunctionEx<User, ? extends Number>> extractors = new LinkedHashMap<>(attributes);
+        String[] names = extractors.keySet().toArray(new String[0]);
+        Pipeline pipeline = Pipeline.create();
+        StreamStage<Map.Entry<Object, Observation>> events = pipeline
+                .readFrom(Sources.<Map.Entry<Object, Object>, Object, Object>mapJournal(sourceMap,
+                        JournalInitialPosition.START_FROM_OLDEST,
+                        event -> Util.entry(event.getKey(), event.getNewValue()),
+                        UserStatsPipeline::isUserEvent))
+                .withoutTimestamps()
+                .map(event -> Util.entry(event.getKey(), new Observation(values(extractors, event.getValue()), true)));
+        StreamStage<Map.Entry<Object, Observation>> entries = pipeline
+                .readFrom(entriesAtStart(sourceMap))
+                .withoutTimestamps()
+                .map(entry -> Util.entry(entry.getKey(), new Observation(values(extractors, entry.getValue()), false)));
+        events.merge(entries)
+                .groupingKey(Map.Entry::getKey)
+                .flatMapStateful(KeyState::new, (state, key, observation) ->
+                        Traversers.traverseIterable(state.apply(names, observation.getValue())))
+                .groupingKey(Change::getAttribute)
+                .mapStateful(RunningStats::new, (stats, attribute, change) -> {
+                    stats.apply(change);
+                    return Util.entry(attribute, stats.toAttributeStats());
+                })
+                .writeTo(Sinks.map(resultsMap));
+        return pipeline;
+    }
+
+    private static boolean isUserEvent(EventJournalMapEvent<Object, Object> event) {
+        return event.getOldValue() instanceof User || event.getNewValue() instanceof User;
+    }
+
+    /**
+     * The {@code User} entries of the map when the job starts, read once by one member
+     */
+    private static StreamSource<Map.Entry<Object, Object>> entriesAtStart(String sourceMap) {
+        return SourceBuilder.stream("entries-of-" + sourceMap,
+                        context -> context.hazelcastInstance().getMap(sourceMap).entrySet().iterator())
+                .<Map.Entry<Object, Object>>fillBufferFn((iterator, buffer) -> {
+                    for (int i = 0; i < 1000 && iterator.hasNext(); i++) {
+                        Map.Entry<Object, Object> entry = iterator.next();
+                        if (entry.getValue() instanceof User) {
+                            buffer.add(Util.entry(entry.getKey(), entry.getValue()));
+                        }
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The attribute values of a {@code User}, or {@code null} for any other value
+     */
+    private static Double[] values(Map<String, FunctionEx<User, ? extends Number>> extractors, Object value) {
+        if (!(value instanceof User)) {
+            return null;
+        }
+        Double[] values = new Double[extractors.size()];
+        int i = 0;
+        for (FunctionEx<User, ? extends Number> extractor : extractors.values()) {
+            values[i++] = toDouble(extractor.apply((User) value));
+        }
+        return values;
+    }
+
+    private static Double toDouble(Number number) {
+        return number == null ? null : number.doubleValue();
+    }
+
+    /**
+     * Submits the {@link #build()} job unless it is already running
+     */
+    public static Job start(HazelcastInstance instance) {
+        JobConfig jobConfig = new JobConfig()
+                .setName(JOB_NAME)
+                .setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE)
+                .setSnapshotIntervalMillis(1000);
+        Job job = instance.getJet().newJobIfAbsent(build(), jobConfig);
+        logger.info("Streaming stats job {} is {}", JOB_NAME, job.getStatus());
+        return job;
+    }
+
+    /**
+     * Current stats of an attribute, or {@code null} before the first user was seen
+     */
+    public static AttributeStats get(HazelcastInstance instance, String attribute) {
+        return instance.<String, AttributeStats>getMap(RESULTS_MAP).get(attribute);
+    }
+
+    /**
+     * Attribute values of a key, from its journal or from the entries read at startup
+     */
+    static final class Observation implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Double[] values;
+        private final boolean fromJournal;
+
+        Observation(Double[] values, boolean fromJournal) {
+            this.values = values;
+            this.fromJournal = fromJournal;
+        }
+    }
+
+    /**
+     * Job state of one key: the attribute values counted for it, and whether its journal
+     * has been seen
+     */
+    static final class KeyState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Double[] counted;
+        private boolean journalSeen;
+
+        List<Change> apply(String[] names, Observation observation) {
+            if (!observation.fromJournal && journalSeen) {
+                // Read at startup, possibly before the events already applied
+                return Collections.emptyList();
+            }
+            journalSeen |= observation.fromJournal;
+            List<Change> changes = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                Double before = counted == null ? null : counted[i];
+                Double after = observation.values == null ? null : observation.values[i];
+                if (!Objects.equals(before, after)) {
+                    changes.add(new Change(names[i], before, after));
+                }
+            }
+            counted = observation.values;
+            return changes;
+        }
+    }
+
+    /**
+     * One attribute value leaving and/or entering the stats
+     */
+    static final class Change implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String attribute;
+        private final Double removed;
+        private final Double added;
+
+        Change(String attribute, Double removed, Double added) {
+            this.attribute = attribute;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        String getAttribute() {
+            return attribute;
+        }
+    }
+
+    /**
+     * Job state of one attribute: count and sum, and a count per distinct value for min and max
+     */
+    static final class RunningStats implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long count;
+        private double sum;
+        private final TreeMap<Double, Long> values = new TreeMap<>();
+
+        void apply(Change change) {
+            if (change.removed != null) {
+                count--;
+                sum -= change.removed;
+                values.compute(change.removed, (value, n) -> n == null || n == 1 ? null : n - 1);
+            }
+            if (change.added != null) {
+                count++;
+                sum += change.added;
+                values.merge(change.added, 1L, Long::sum);
+            }
+        }
+
+        AttributeStats toAttributeStats() {
+            return values.isEmpty()
+                    ? new AttributeStats(count, sum, null, null)
+                    : new AttributeStats(count, sum, values.firstKey(), values.lastKey());
+        }
+    }
+
+    /**
+     * Published stats of one attribute; immutable
+     */
+    public static final class AttributeStats implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long count;
+        private final double sum;
+        private final Double min;
+        private final Double max;
+
+        AttributeStats(long count, double sum, Double min, Double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        /**
+         * Smallest value, or {@code null} when there is none
+         */
+        public Double getMin() {
+            return min;
+        }
+
+        /**
+         * Largest value, or {@code null} when there is none
+         */
+        public Double getMax() {
+            return max;
+        }
+
+        /**
+         * Average value, or {@code null} when there is none
+         */
+        public Double getAverage() {
+            return count == 0 ? null : sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("AttributeStats{count=%d, sum=%s, min=%s, max=%s, average=%s}",
+                    count, sum, min, max, getAverage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.hazelcast;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for blocking Hazelcast calls: virtual threads when the JVM has them and
+ * {@value #ENABLED_PROPERTY} is {@code true}, platform threads otherwise.
+ *
+ * <p>The project is compiled for Java 11, so {@code Thread.ofVirtual()} and
+ * {@code Executors.newThreadPerTaskExecutor} are looked up reflectively. On Java 21 and
+ * later a blocked call parks its virtual thread and frees the carrier, so tens of
+ * thousands of calls can wait at once on a handful of platform threads. The opt-in
+ * {@code java21} Maven profile ({@code -Pjava21}) turns the property on for the tests.
+ */
+public final class VirtualThreads {
+
+    /**
+     * System property that switches blocking work to virtual threads where available
+     */
+    public static final String ENABLED_PROPERTY = "hazelcast.study.virtual-threads";
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method threadPerTaskExecutor = null;
+        try {
+            // Methods of the public interfaces, the builder classes themselves are not exported
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            threadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            // Before Java 21
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        THREAD_PER_TASK_EXECUTOR = threadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether this JVM has virtual threads
+     */
+    public static boolean isAvailable() {
+        return THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Whether blocking work runs on virtual threads: they are available and
+     * {@value #ENABLED_PROPERTY} is {@code true}
+     */
+    public static boolean isEnabled() {
+        return isAvailable() && Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Factory of virtual threads named {@code prefix} and a sequence number
+     *
+     * @throws UnsupportedOperationException before Java 21
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21, this is " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Executor with a new virtual thread per task when {@link #isEnabled()}, otherwise a
+     * pool of {@code platformThreads} daemon threads
+     */
+    public static ExecutorService newExecutor(String prefix, int platformThreads) {
+        if (isEnabled()) {
+            try {
+                return (ExecutorService) THREAD_PER_TASK_EXECUTOR.invoke(null, factory(prefix));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Could not create a virtual thread executor", e);
+            }
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Member tuning for a dominant kind of workload.
+ *
+ * <p>A profile adjusts every map config of a {@link Config}, including {@code default}
+ * which covers maps without a config of their own: how the backups are split between
+ * sync and async, and whether reads may be served from backups. The in-memory format is
+ * only set for the maps named as entry-processor heavy: {@link #QUERY_HEAVY} keeps them
+ * in OBJECT format, so processors work on the stored object instead of deserializing and
+ * serializing it on every call, and the other profiles keep them in BINARY, which lets
+ * gets and queries return the stored bytes and lets predicates read Compact fields
+ * without deserializing. A named map whose eviction is sized by heap stays in BINARY
+ * whatever the profile, since OBJECT records are not counted towards the heap size and
+ * would never be evicted. Other maps keep the format they were configured with. The
+ * profile also sizes the partition
+ * and generic operation thread pools and the IO threads relative to the available
+ * processors. Select one with {@link HazelcastConfig#createConfig(WorkloadProfile)} or
+ * the {@value #PROPERTY} system property.
+ */
+public enum WorkloadProfile {
+    /**
+     * Many gets per put: reads may be answered by backup replicas and backups are
+     * async, so more members can serve each key
+     */
+    READ_HEAVY(false, 0, 1, true, 1, 1, 1, 2),
+    /**
+     * Mostly puts: async backups keep the write path at one round trip, and the extra
+     * partition threads and input threads take the incoming operations
+     */
+    WRITE_HEAVY(false, 0, 1, false, 2, 1, 2, 1),
+    /**
+     * Predicates, aggregations and entry processors: OBJECT format for entry-processor
+     * maps, and a larger generic pool for the query fan-out
+     */
+    QUERY_HEAVY(true, 1, 0, false, 1, 2, 1, 1),
+    /**
+     * Short request/response operations: async backups only, reads from backups, one
+     * partition thread per core and a quicker IO balancer
+     */
+    LOW_LATENCY(false, 0, 1, true, 1, 1, 1, 1);
+
+    /**
+     * System property naming the profile applied by {@link HazelcastConfig#createConfig()}
+     */
+    public static final String PROPERTY = "hazelcast.study.profile";
+
+    private final boolean objectFormatForEntryProcessorMaps;
+    private final int backupCount;
+    private final int asyncBackupCount;
+    private final boolean readBackupData;
+    private final int partitionThreadsPerCore;
+    private final int genericThreadsPerCore;
+    private final int inputThreadsPerCore;
+    private final int outputThreadsPerCore;
+
+    WorkloadProfile(boolean objectFormatForEntryProcessorMaps, int backupCount, int asyncBackupCount, boolean readBackupData,
+                    int partitionThreadsPerCore, int genericThreadsPerCore,
+                    int inputThreadsPerCore, int outputThreadsPerCore) {
+        this.objectFormatForEntryProcessorMaps = objectFormatForEntryProcessorMaps;
+        this.backupCount = backupCount;
+        this.asyncBackupCount = asyncBackupCount;
+        this.readBackupData = readBackupData;
+        this.partitionThreadsPerCore = partitionThreadsPerCore;
+        this.genericThreadsPerCore = genericThreadsPerCore;
+        this.inputThreadsPerCore = inputThreadsPerCore;
+        this.outputThreadsPerCore = outputThreadsPerCore;
+    }
+
+    /**
+     * Applies the profile to the maps and thread pools of the configuration
+     *
+     * @param entryProcessorMaps maps that are mostly updated through entry processors
+     */
+    public Config apply(Config config, String... entryProcessorMaps) {
+        return apply(config, Runtime.getRuntime().availableProcessors(), entryProcessorMaps);
+    }
+
+    Config apply(Config config, int cores, String... entryProcessorMaps) {
+        InMemoryFormat entryProcessorFormat = objectFormatForEntryProcessorMaps ? InMemoryFormat.OBJECT : InMemoryFormat.BINARY;
+        for (String name : entryProcessorMaps) {
+            // getMapConfig registers a config for the name if there is none yet
+            MapConfig mapConfig = config.getMapConfig(name);
+            mapConfig.setInMemoryFormat(isHeapSized(mapConfig) ? InMemoryFormat.BINARY : entryProcessorFormat);
+        }
+        List<MapConfig> mapConfigs = new ArrayList<>(config.getMapConfigs().values());
+        if (!config.getMapConfigs().containsKey("default")) {
+            mapConfigs.add(config.getMapConfig("default"));
+        }
+        for (MapConfig mapConfig : mapConfigs) {
+            mapConfig.setBackupCount(backupCount);
+            mapConfig.setAsyncBackupCount(asyncBackupCount);
+            mapConfig.setReadBackupData(readBackupData);
+        }
+
+        // Never go below Hazelcast's defaults: 2 partition and generic threads, 3 IO threads each way
+        config.setProperty("hazelcast.partition.operation.thread.count",
+                String.valueOf(Math.max(2, cores * partitionThreadsPerCore)));
+        config.setProperty("hazelcast.operation.generic.thread.count",
+                String.valueOf(Math.max(2, cores * genericThreadsPerCore / 2)));
+        config.setProperty("hazelcast.io.input.thread.count",
+                String.valueOf(Math.max(3, cores * inputThreadsPerCore / 2)));
+        config.setProperty("hazelcast.io.output.thread.count",
+                String.valueOf(Math.max(3, cores * outputThreadsPerCore / 2)));
+        // The balancer moves busy connections between IO threads; react faster when latency matters
+        config.setProperty("hazelcast.io.balancer.interval.seconds", this == LOW_LATENCY ? "5" : "20");
+        return config;
+    }
+
+    private static boolean isHeapSized(MapConfig mapConfig) {
+        switch (mapConfig.getEvictionConfig().getMaxSizePolicy()) {
+            case USED_HEAP_SIZE:
+            case USED_HEAP_PERCENTAGE:
+            case FREE_HEAP_SIZE:
+            case FREE_HEAP_PERCENTAGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isObjectFormatForEntryProcessorMaps() {
+        return objectFormatForEntryProcessorMaps;
+    }
+
+    public int getBackupCount() {
+        return backupCount;
+    }
+
+    public int getAsyncBackupCount() {
+        return asyncBackupCount;
+    }
+
+    public boolean isReadBackupData() {
+        return readBackupData;
+    }
+}
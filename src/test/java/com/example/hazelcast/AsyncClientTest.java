@@ -0,0 +1,118 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncClientTest {
+
+    @Test
+    void testOperationsComplete() {
+        HazelcastInstance client = TestCluster.shared().client();
+        String name = TestCluster.uniqueName("async");
+        try (AsyncClient async = new AsyncClient(client, 64, 1_000)) {
+            assertNull(join(async.put(name, "key", "first")));
+            assertEquals("first", join(async.put(name, "key", "second")));
+            join(async.set(name, "other", "value"));
+            assertEquals("second", join(async.get(name, "key")));
+            assertEquals("value", join(async.remove(name, "other")));
+
+            assertTrue(join(async.offer(name, "item")));
+            assertEquals("item", join(async.poll(name, 1, TimeUnit.SECONDS)));
+            assertNull(join(async.poll(name, 10, TimeUnit.MILLISECONDS)));
+            join(async.publish(name, "message"));
+            assertEquals(42, join(async.submit(name, new Answer())));
+
+            // Many more calls than may be in flight all complete
+            CompletableFuture<?>[] puts = new CompletableFuture<?>[500];
+            for (int i = 0; i < puts.length; i++) {
+                puts[i] = async.set(name, "key-" + i, i).toCompletableFuture();
+            }
+            CompletableFuture.allOf(puts).join();
+            assertEquals(puts.length + 1, client.getMap(name).size());
+            assertEquals(0, async.getInFlight());
+            assertEquals(0, async.getWaiting());
+        }
+    }
+
+    @Test
+    void testCallsBeyondTheLimitsWaitOrAreRejected() {
+        HazelcastInstance client = TestCluster.shared().client();
+        String name = TestCluster.uniqueName("limited");
+        try (AsyncClient async = new AsyncClient(client, 1, 1)) {
+            CompletableFuture<Object> poll = async.poll(name, 30, TimeUnit.SECONDS).toCompletableFuture();
+            CompletableFuture<Object> get = async.get(name, "key").toCompletableFuture();
+            CompletableFuture<Void> rejected = async.set(name, "key", "value").toCompletableFuture();
+
+            CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+            assertTrue(failure.getCause() instanceof RejectedExecutionException);
+            assertEquals(1, async.getInFlight());
+            assertEquals(1, async.getWaiting());
+            assertFalse(get.isDone(), "waits for the poll");
+
+            client.getQueue(name).offer("item");
+            assertEquals("item", poll.join());
+            assertNull(get.join());
+            assertEquals(0, async.getWaiting());
+        }
+    }
+
+    @Test
+    void testWaitingPollsDoNotHoldUpOffers() {
+        HazelcastInstance client = TestCluster.shared().client();
+        String name = TestCluster.uniqueName("polled");
+        try (AsyncClient async = new AsyncClient(client, 1_000, 1_000)) {
+            CompletableFuture<?>[] polls = new CompletableFuture<?>[AsyncClient.BLOCKING_THREADS * 2];
+            for (int i = 0; i < polls.length; i++) {
+                polls[i] = async.poll(name, 30, TimeUnit.SECONDS).toCompletableFuture();
+            }
+            // With a shared pool the offers would queue behind polls waiting for them
+            CompletableFuture<?>[] offers = new CompletableFuture<?>[polls.length];
+            for (int i = 0; i < offers.length; i++) {
+                offers[i] = async.offer(name, "item-" + i).toCompletableFuture();
+            }
+            CompletableFuture.allOf(offers).orTimeout(10, TimeUnit.SECONDS).join();
+            CompletableFuture.allOf(polls).orTimeout(20, TimeUnit.SECONDS).join();
+            for (CompletableFuture<?> poll : polls) {
+                assertNotNull(poll.join());
+            }
+        }
+    }
+
+    @Test
+    void testPlatformThreadsWithoutVirtualThreads() throws Exception {
+        if (VirtualThreads.isAvailable()) {
+            assertNotNull(VirtualThreads.factory("test-").newThread(() -> { }));
+        } else {
+            assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.factory("test-"));
+            assertFalse(VirtualThreads.isEnabled());
+        }
+        ExecutorService executor = VirtualThreads.newExecutor("test-", 2);
+        try {
+            assertNotNull(executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static <T> T join(CompletionStage<T> stage) {
+        return stage.toCompletableFuture().join();
+    }
+
+    static class Answer implements Callable<Integer>, Serializable {
+        @Override
+        public Integer call() {
+            return 42;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.hazelcast;
+
+import com.hazelcast.partition.PartitionAware;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalancedPartitioningStrategyTest {
+
+    @Test
+    void testGroupsAreKeptTogether() {
+        BalancedPartitioningStrategy strategy = new BalancedPartitioningStrategy(Map.of());
+
+        Object first = strategy.getPartitionKey(new HazelcastPartitionAwareKey("key1", 7));
+        Object second = strategy.getPartitionKey(new HazelcastPartitionAwareKey("key2", 7));
+
+        // Same as the default strategy: the group itself is the partition key
+        assertEquals(7, first);
+        assertEquals(first, second);
+        assertNull(strategy.getPartitionKey("plain-key"));
+    }
+
+    @Test
+    void testHotGroupIsSplit() {
+        BalancedPartitioningStrategy strategy = new BalancedPartitioningStrategy(Map.of(1, 8));
+
+        Set<Object> hotKeys = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            hotKeys.add(strategy.getPartitionKey(new HazelcastPartitionAwareKey("key" + i, 1)));
+        }
+        assertEquals(8, hotKeys.size());
+
+        // Splitting is stable for a given key and leaves other groups alone
+        HazelcastPartitionAwareKey key = new HazelcastPartitionAwareKey("key42", 1);
+        assertEquals(strategy.getPartitionKey(key), strategy.getPartitionKey(new HazelcastPartitionAwareKey("key42", 1)));
+        assertEquals(2, strategy.getPartitionKey(new HazelcastPartitionAwareKey("key42", 2)));
+    }
+
+    @Test
+    void testHotGroupSplitNeedsAStableHash() {
+        BalancedPartitioningStrategy strategy = new BalancedPartitioningStrategy(Map.of(1, 8));
+
+        // Only the value picks the sub-key, so it does not depend on how hashCode is written
+        assertEquals(BalancedPartitioningStrategy.stableHash(new HazelcastPartitionAwareKey("key42", 1)), "key42".hashCode());
+        assertEquals(strategy.getPartitionKey(new ValueKey("a")), strategy.getPartitionKey(new ValueKey("a")));
+        assertThrows(IllegalArgumentException.class, () -> strategy.getPartitionKey(new IdentityKey()));
+        assertEquals(2, strategy.getPartitionKey(new IdentityKey() {
+            @Override
+            public Object getPartitionKey() {
+                return 2;
+            }
+        }), "keys of groups that are not split keep any hashCode");
+    }
+
+    static class IdentityKey implements PartitionAware<Object> {
+        @Override
+        public Object getPartitionKey() {
+            return 1;
+        }
+    }
+
+    static final class ValueKey implements PartitionAware<Object> {
+        private final String id;
+
+        ValueKey(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public Object getPartitionKey() {
+            return 1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ValueKey && id.equals(((ValueKey) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+
+    @Test
+    void testHotGroupsProperty() {
+        assertEquals(Map.of("1", 16, "42", 8), BalancedPartitioningStrategy.parseHotGroups("1:16, 42:8"));
+        assertTrue(BalancedPartitioningStrategy.parseHotGroups("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> BalancedPartitioningStrategy.parseHotGroups("1"));
+    }
+
+    @Test
+    void testSkewReport() {
+        PartitionSkewReport report = new PartitionSkewReport(new long[] {0, 10, 30, 0});
+
+        assertEquals(40, report.getTotal());
+        assertEquals(2, report.getUsedPartitions());
+        assertEquals(0, report.getMin());
+        assertEquals(30, report.getMax());
+        assertEquals(10.0, report.getMean(), 0.001);
+        assertEquals(3.0, report.getMaxToMean(), 0.001);
+    }
+}
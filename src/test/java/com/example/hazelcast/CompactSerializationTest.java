@@ -0,0 +1,83 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.compact.Schema;
+import com.hazelcast.internal.serialization.impl.compact.SchemaService;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecord;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecordBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactSerializationTest {
+
+    private InternalSerializationService serializationService;
+
+    @BeforeEach
+    void setUp() {
+        SerializationConfig serializationConfig = new SerializationConfig();
+        HazelcastConfig.configureSerialization(serializationConfig);
+        serializationService = new DefaultSerializationServiceBuilder()
+                .setConfig(serializationConfig)
+                .setSchemaService(new LocalSchemaService())
+                .build();
+    }
+
+    @Test
+    void testUserRoundTrip() {
+        MapExamples.User user = new MapExamples.User("John", "Doe", 25, "john@example.com");
+
+        Data data = serializationService.toData(user);
+        assertTrue(data.isCompact());
+        assertEquals(user, serializationService.toObject(data));
+    }
+
+    @Test
+    void testKeyRoundTrip() {
+        HazelcastPartitionAwareKey key = new HazelcastPartitionAwareKey("key1", 3);
+
+        HazelcastPartitionAwareKey copy = serializationService.toObject(serializationService.toData(key));
+        assertEquals(key, copy);
+        assertEquals(key.hashCode(), copy.hashCode());
+        assertEquals(3, copy.getPartitionKey());
+    }
+
+    @Test
+    void testReadsOlderSchema() {
+        // A record written before the email field existed
+        GenericRecord oldRecord = GenericRecordBuilder.compact(UserCompactSerializer.TYPE_NAME)
+                .setString("firstName", "Jane")
+                .setString("lastName", "Smith")
+                .setInt32("age", 30)
+                .build();
+
+        MapExamples.User user = serializationService.toObject(serializationService.toData(oldRecord));
+        assertEquals(new MapExamples.User("Jane", "Smith", 30, null), user);
+    }
+
+    private static class LocalSchemaService implements SchemaService {
+        private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+        @Override
+        public Schema get(long schemaId) {
+            return schemas.get(schemaId);
+        }
+
+        @Override
+        public void put(Schema schema) {
+            schemas.put(schema.getSchemaId(), schema);
+        }
+
+        @Override
+        public void putLocal(Schema schema) {
+            put(schema);
+        }
+    }
+}
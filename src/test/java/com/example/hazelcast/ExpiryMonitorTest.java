@@ -0,0 +1,68 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiryMonitorTest {
+
+    @Test
+    void testExpiredEntriesReachTheHandlerWithoutBeingRead() throws Exception {
+        try (TestCluster cluster = TestCluster.start(1, config -> HazelcastConfig.configureExpiration(config, 1, 100, 0))) {
+            IMap<Integer, Long> map = cluster.client().getMap(TestCluster.uniqueName("expiring"));
+            Set<Integer> keys = ConcurrentHashMap.newKeySet();
+            try (ExpiryMonitor<Integer, Long> monitor = new ExpiryMonitor<>(map, Long::longValue, event -> {
+                keys.add(event.getKey());
+                if (event.getKey() == 0) {
+                    throw new IllegalStateException("handler failure");
+                }
+            })) {
+                // Each value is the entry's deadline
+                for (int i = 0; i < 500; i++) {
+                    map.set(i, System.currentTimeMillis() + 1000, 1, TimeUnit.SECONDS);
+                }
+                long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (monitor.getExpired() < 500 && System.nanoTime() < end) {
+                    Thread.sleep(100);
+                }
+
+                assertEquals(500, monitor.getExpired(), "a failing handler does not stop later events");
+                assertEquals(500, keys.size());
+                assertEquals(500, monitor.getLag().getCount());
+                assertTrue(monitor.getLag().quantile(0.5) < TimeUnit.SECONDS.toNanos(10), monitor.getLag().toString());
+                assertEquals(0, map.size());
+            }
+        }
+    }
+
+    @Test
+    void testExpiredUserIsNotLoadedFromTheStore(@TempDir Path directory) {
+        MapConfig users = HazelcastConfig.createConfig().getMapConfig("users");
+        users.getMapStoreConfig().setProperty("directory", directory.toString());
+        try (TestCluster cluster = TestCluster.start(1, config -> HazelcastConfig.configureExpiration(
+                config.addMapConfig(users), 1, 100, 0))) {
+            assertFalse(MapExamples.demonstrateTTL(cluster.client().getMap("users")));
+        }
+    }
+
+    @Test
+    void testExpirationTuning() {
+        Config config = HazelcastConfig.configureExpiration(new Config(), 2, 25, 8);
+        assertEquals("2", config.getProperty("hazelcast.internal.map.expiration.task.period.seconds"));
+        assertEquals("25", config.getProperty("hazelcast.internal.map.expiration.cleanup.percentage"));
+        assertEquals("8", config.getProperty("hazelcast.internal.map.expiration.cleanup.operation.count"));
+        assertNull(HazelcastConfig.configureExpiration(new Config(), 5, 10, 0)
+                .getProperty("hazelcast.internal.map.expiration.cleanup.operation.count"));
+        assertThrows(IllegalArgumentException.class, () -> HazelcastConfig.configureExpiration(new Config(), 0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> HazelcastConfig.configureExpiration(new Config(), 5, 101, 0));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.SimpleEntryView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrequencyEvictionTest {
+
+    @Test
+    void testSketchCountsAndAges() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(42);
+        }
+        sketch.increment(7);
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(42));
+        assertEquals(1, sketch.frequency(7));
+        assertEquals(0, sketch.frequency(8));
+        assertEquals(3, sketch.raise(9, 3));
+        assertEquals(3, sketch.raise(9, 1), "raise never lowers a counter");
+
+        sketch.reset();
+        assertEquals(7, sketch.frequency(42));
+        assertEquals(0, sketch.frequency(7));
+    }
+
+    @Test
+    void testConcurrentRaisesDoNotCorruptCounters() throws Exception {
+        // Large enough that the raises below never trigger aging
+        FrequencySketch sketch = new FrequencySketch(1 << 16);
+        int keys = 4_096;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int frequency = 1; frequency <= FrequencySketch.MAX_FREQUENCY; frequency++) {
+                    for (int key = 0; key < keys; key++) {
+                        sketch.raise(Integer.hashCode(key), frequency);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Every counter of every key was raised to the maximum; a lost or carried update shows as less
+        for (int key = 0; key < keys; key++) {
+            assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(Integer.hashCode(key)), "key " + key);
+        }
+    }
+
+    @Test
+    void testSketchNeverUnderestimates() {
+        FrequencySketch sketch = new FrequencySketch(1 << 14);
+        int exact = 0;
+        for (int key = 0; key < 2_000; key++) {
+            for (int i = 0; i < key % 16; i++) {
+                sketch.increment(Integer.hashCode(key));
+            }
+        }
+        for (int key = 0; key < 2_000; key++) {
+            int estimate = sketch.frequency(Integer.hashCode(key));
+            assertTrue(estimate >= Math.min(key % 16, FrequencySketch.MAX_FREQUENCY), "key " + key);
+            exact += estimate == key % 16 ? 1 : 0;
+        }
+        assertTrue(exact > 1_900, "exact estimates: " + exact);
+    }
+
+    @Test
+    void testComparatorPrefersFrequentThenRecent() {
+        FrequencyEvictionPolicyComparator comparator = new FrequencyEvictionPolicyComparator(1024, 60_000);
+        long now = 10_000_000;
+        SimpleEntryView<Object, Object> hot = entry("hot", 10, now - 5_000);
+        SimpleEntryView<Object, Object> scanned = entry("scanned", 0, now);
+        SimpleEntryView<Object, Object> older = entry("older", 0, now - 1_000);
+        SimpleEntryView<Object, Object> stale = entry("stale", 10, now - 5 * 60_000);
+
+        assertTrue(comparator.compare(scanned, hot) < 0, "a one-off entry goes before a hot one");
+        assertTrue(comparator.compare(older, scanned) < 0, "least recently used among equals");
+        assertTrue(comparator.compare(stale, scanned) < 0, "idle frequencies decay");
+
+        // An evicted hot key that comes back starts with the frequency it had
+        assertTrue(comparator.compare(entry("scanned-2", 0, now), entry("hot", 0, now - 1)) < 0);
+    }
+
+    @Test
+    void testMaxSizeFormats() {
+        EvictionConfig entries = HazelcastConfig.createFrequencyEvictionConfig("1000");
+        assertEquals(MaxSizePolicy.PER_NODE, entries.getMaxSizePolicy());
+        assertEquals(1000, entries.getSize());
+        assertEquals(MaxSizePolicy.USED_HEAP_SIZE, HazelcastConfig.createFrequencyEvictionConfig("256mb").getMaxSizePolicy());
+        assertEquals(2048, HazelcastConfig.createFrequencyEvictionConfig("2GB").getSize());
+        EvictionConfig share = HazelcastConfig.createFrequencyEvictionConfig("25%");
+        assertEquals(MaxSizePolicy.USED_HEAP_PERCENTAGE, share.getMaxSizePolicy());
+        assertEquals(25, share.getSize());
+        assertTrue(share.getComparator() instanceof FrequencyEvictionPolicyComparator);
+    }
+
+    @Test
+    void testHotEntriesSurviveScan() {
+        HazelcastInstance member = TestCluster.shared().member();
+        String mapName = TestCluster.uniqueName("evicting");
+        member.getConfig().addMapConfig(new MapConfig(mapName)
+                .setEvictionConfig(HazelcastConfig.createFrequencyEvictionConfig("710")));
+        IMap<String, String> map = member.getMap(mapName);
+        for (int i = 0; i < 50; i++) {
+            map.set("hot-" + i, "value");
+            for (int read = 0; read < 5; read++) {
+                map.get("hot-" + i);
+            }
+        }
+        for (int i = 0; i < 5_000; i++) {
+            map.set("scan-" + i, "value");
+        }
+
+        assertTrue(map.size() <= 710 + 71, "size: " + map.size());
+        long survivors = map.keySet().stream().filter(key -> key.startsWith("hot-")).count();
+        assertTrue(survivors >= 45, "hot entries left: " + survivors);
+    }
+
+    private static SimpleEntryView<Object, Object> entry(String key, long hits, long lastAccessTime) {
+        SimpleEntryView<Object, Object> entry = new SimpleEntryView<>(key, "value");
+        entry.setHits(hits);
+        entry.setLastAccessTime(lastAccessTime);
+        return entry;
+    }
+}
@@ -1,48 +1,50 @@
 package com.example.hazelcast;
 
-import com.hazelcast.client.HazelcastClient;
-import com.hazelcast.client.config.ClientConfig;
-import com.hazelcast.core.Hazelcast;
+import com.hazelcast.config.ExecutorConfig;
+import com.hazelcast.config.QueueConfig;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
 import com.hazelcast.map.IMap;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecord;
+import com.hazelcast.nio.serialization.genericrecord.GenericRecordBuilder;
 import com.hazelcast.collection.IQueue;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.TestInstance;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.hazelcast.TestCluster.uniqueName;
 import static org.junit.jupiter.api.Assertions.*;
 
-@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+/**
+ * Runs against the cluster shared by all test classes; every test names its own data
+ * structures, so nothing has to be cleaned up between tests.
+ */
 public class HazelcastDemoTest {
     
-    private HazelcastInstance server;
-    private HazelcastInstance client;
-
-    @BeforeEach
-    void setUp() {
-        // Start server
-        server = Hazelcast.newHazelcastInstance();
-        
-        // Start client
-        ClientConfig clientConfig = new ClientConfig();
-        clientConfig.setClusterName("dev");
-        client = HazelcastClient.newHazelcastClient(clientConfig);
-    }
+    private static HazelcastInstance client;
 
-    @AfterEach
-    void tearDown() {
-        if (client != null) {
-            client.shutdown();
-        }
-        if (server != null) {
-            server.shutdown();
-        }
+    @BeforeAll
+    static void setUp() {
+        client = TestCluster.shared().client();
     }
 
     @Test
     void testDistributedMap() {
-        IMap<String, String> map = client.getMap("test-map");
+        IMap<String, String> map = client.getMap(uniqueName("test-map"));
         
         // Test basic operations
         map.put("key1", "value1");
@@ -61,7 +63,7 @@ public class HazelcastDemoTest {
 
     @Test
     void testDistributedQueue() {
-        IQueue<String> queue = client.getQueue("test-queue");
+        IQueue<String> queue = client.getQueue(uniqueName("test-queue"));
         
         // Test offer and poll
         assertTrue(queue.offer("item1"));
@@ -76,7 +78,7 @@ public class HazelcastDemoTest {
 
     @Test
     void testMapWithCustomObjects() {
-        IMap<String, MapExamples.User> userMap = client.getMap("test-users");
+        IMap<String, MapExamples.User> userMap = client.getMap(uniqueName("test-users"));
         
         MapExamples.User user = new MapExamples.User("John", "Doe", 25, "john@example.com");
         userMap.put("user1", user);
@@ -91,7 +93,7 @@ public class HazelcastDemoTest {
 
     @Test
     void testMapPredicates() {
-        IMap<String, MapExamples.User> userMap = client.getMap("test-predicates");
+        IMap<String, MapExamples.User> userMap = client.getMap(uniqueName("test-predicates"));
         
         // Add test data
         userMap.put("user1", new MapExamples.User("John", "Doe", 25, "john@example.com"));
@@ -117,7 +119,7 @@ public class HazelcastDemoTest {
 
     @Test
     void testMapAggregations() {
-        IMap<String, MapExamples.User> userMap = client.getMap("test-aggregations");
+        IMap<String, MapExamples.User> userMap = client.getMap(uniqueName("test-aggregations"));
         
         // Add test data
         userMap.put("user1", new MapExamples.User("John", "Doe", 25, "john@example.com"));
@@ -137,16 +139,294 @@ public class HazelcastDemoTest {
         assertEquals(35, maxAge);
     }
 
+    @Test
+    void testNumericStatsAggregator() {
+        IMap<String, MapExamples.User> userMap = client.getMap(uniqueName("test-stats"));
+        
+        userMap.put("user1", new MapExamples.User("John", "Doe", 25, "john@example.com"));
+        userMap.put("user2", new MapExamples.User("Jane", "Smith", 30, "jane@example.com"));
+        userMap.put("user3", new MapExamples.User("Bob", "Johnson", 35, "bob@example.com"));
+        
+        NumericStats stats = userMap.aggregate(new NumericStatsAggregator<>("age", 10));
+        assertEquals(3, stats.getCount());
+        assertEquals(90.0, stats.getSum(), 0.01);
+        assertEquals(90L, stats.getLongSum());
+        assertEquals(25.0, stats.getMin(), 0.01);
+        assertEquals(35.0, stats.getMax(), 0.01);
+        assertEquals(30.0, stats.getAverage(), 0.01);
+        assertEquals(Map.of(20.0, 1L, 30.0, 2L), stats.getHistogram());
+        
+        // Empty result
+        NumericStats none = userMap.aggregate(new NumericStatsAggregator<>("age"),
+            com.hazelcast.query.Predicates.greaterThan("age", 100));
+        assertEquals(0, none.getCount());
+        assertNull(none.getAverage());
+
+        // Compact values are read field by field, without a class to deserialize them to
+        IMap<String, GenericRecord> records = client.getMap(uniqueName("test-stats-compact"));
+        for (int age = 20; age < 30; age++) {
+            records.set("record" + age, GenericRecordBuilder.compact("stats-record").setInt32("age", age).build());
+        }
+        NumericStats compact = records.aggregate(new NumericStatsAggregator<>("age"));
+        assertEquals(10, compact.getCount());
+        assertEquals(245L, compact.getLongSum());
+
+        // Integral sums stay exact beyond a double's 53 bits
+        NumericStats large = new NumericStats(0);
+        large.add(Long.valueOf((1L << 53) + 1));
+        large.add(Integer.valueOf(1));
+        assertEquals((1L << 53) + 2, large.getLongSum());
+        large.add(Double.valueOf(0.5));
+        assertNull(large.getLongSum());
+    }
+
+    @Test
+    void testFieldUpdateProcessors() {
+        IMap<String, MapExamples.User> userMap = client.getMap(uniqueName("test-field-updates"));
+        
+        userMap.put("user1", new MapExamples.User("John", "Doe", 25, "john@example.com"));
+        userMap.put("user2", new MapExamples.User("Jane", "Smith", 30, "jane@example.com"));
+        userMap.put("user3", new MapExamples.User("Bob", "Johnson", 35, "bob@example.com"));
+        
+        // Update all entries and return the new ages
+        Map<String, Integer> results = userMap.executeOnEntries(new IncrementFieldProcessor<>("age", 1, true));
+        assertEquals(Map.of("user1", 26, "user2", 31, "user3", 36), results);
+        
+        // Predicate-scoped update without results
+        Map<String, Integer> noResults = userMap.executeOnEntries(new IncrementFieldProcessor<>("age", 10, false),
+            com.hazelcast.query.Predicates.greaterThan("age", 30));
+        assertTrue(noResults.isEmpty());
+        
+        // Key-scoped update of a string field
+        userMap.executeOnKeys(java.util.Set.of("user1"), new SetFieldProcessor<>("email", "john@example.org"));
+        
+        // Values written as records are still read back as User
+        assertEquals(new MapExamples.User("John", "Doe", 26, "john@example.org"), userMap.get("user1"));
+        assertEquals(41, userMap.get("user2").getAge());
+        assertEquals(46, userMap.executeOnKey("user3", new ReadFieldProcessor<>("age")));
+    }
+
+    @Test
+    void testBulkLoader() throws InterruptedException {
+        String mapName = uniqueName("test-bulk");
+        BulkLoader<HazelcastPartitionAwareKey, String> loader = new BulkLoader<>(client, mapName, 100, 4);
+
+        BulkLoader.Result result = loader.load(IntStream.range(0, 1000)
+                .mapToObj(i -> Map.entry(new HazelcastPartitionAwareKey("key" + i, i % 10), "value" + i)));
+        assertEquals(1000, result.getEntries());
+
+        loader.loadPipelined(IntStream.range(1000, 1500)
+                .mapToObj(i -> Map.entry(new HazelcastPartitionAwareKey("key" + i, i % 10), "value" + i)));
+
+        IMap<HazelcastPartitionAwareKey, String> map = client.getMap(mapName);
+        assertEquals(1500, map.size());
+        assertEquals("value42", map.get(new HazelcastPartitionAwareKey("key42", 2)));
+        assertEquals("value1200", map.get(new HazelcastPartitionAwareKey("key1200", 0)));
+    }
+
+    @Test
+    void testQueuePipeline() throws InterruptedException {
+        // Small bound so the producer has to wait for the consumers
+        String queueName = uniqueName("test-pipeline");
+        client.getConfig().addQueueConfig(new QueueConfig(queueName).setMaxSize(100));
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        
+        try (QueuePipeline<Integer> pipeline = new QueuePipeline<>(client, queueName, 50, 2, received::addAll)) {
+            pipeline.start();
+            pipeline.publish(IntStream.range(0, 2000).boxed().collect(Collectors.toList()));
+            
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (received.size() < 2000 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2000, received.size());
+            
+            QueuePipeline.Metrics metrics = pipeline.getMetrics();
+            assertEquals(2000, metrics.getProduced());
+            assertEquals(2000, metrics.getConsumed());
+            assertEquals(0, metrics.getLag());
+            assertEquals(40, metrics.getProducerBatches());
+        }
+        assertEquals(0, client.getQueue(queueName).size());
+    }
+
+    @Test
+    void testQueuePipelineBatchLargerThanQueue() throws InterruptedException {
+        String queueName = uniqueName("test-pipeline-small");
+        client.getConfig().addQueueConfig(new QueueConfig(queueName).setMaxSize(30));
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+
+        try (QueuePipeline<Integer> pipeline = new QueuePipeline<>(client, queueName, 100, 1, received::addAll)) {
+            pipeline.start();
+            pipeline.publish(IntStream.range(0, 500).boxed().collect(Collectors.toList()));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (received.size() < 500 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(500, received.size());
+            assertEquals(500, pipeline.getMetrics().getProduced());
+        }
+    }
+
+    @Test
+    void testReliableTopicBatchPublish() throws Exception {
+        var topic = client.<Integer>getReliableTopic(uniqueName("test-fast-topic"));
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        ReliableTopicListener<Integer> listener = new ReliableTopicListener<>(
+            message -> received.add(message.getMessageObject()), SlowSubscriberPolicy.DROP);
+        var listenerId = topic.addMessageListener(listener);
+        
+        topic.publishAll(IntStream.range(0, 500).boxed().collect(Collectors.toList()));
+        topic.publish(500);
+        
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (received.size() < 501 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Messages from one publisher arrive in publish order
+        assertEquals(IntStream.rangeClosed(0, 500).boxed().collect(Collectors.toList()), received);
+        assertEquals(500, listener.getLastSequence());
+        topic.removeMessageListener(listenerId);
+    }
+
+    @Test
+    void testDataLocalExecutor() throws Exception {
+        // Tiny queue so the member rejects tasks and the executor has to retry them
+        String executorName = uniqueName("test-local-executor");
+        String mapName = uniqueName("test-local");
+        client.getConfig().addExecutorConfig(new ExecutorConfig(executorName, 1).setQueueCapacity(2));
+        IMap<String, String> map = client.getMap(mapName);
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        
+        DataLocalExecutor executor = new DataLocalExecutor(client, executorName, null, 20);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(executor.submitToKeyOwner(new LocalReadTask(mapName, "key" + i), "key" + i));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals("value" + i, results.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertTrue(executor.getRejected() > 0);
+        assertEquals(0, executor.getFailed());
+        
+        Integer entries = executor.reduceOverMembers(new HazelcastDemo.LocalEntryCountTask(mapName), 0, Integer::sum)
+            .get(10, TimeUnit.SECONDS);
+        assertEquals(100, entries);
+    }
+
+    // Reads an entry only if it is stored on the member running the task
+    static class LocalReadTask implements Callable<String>, Serializable, HazelcastInstanceAware {
+        private final String mapName;
+        private final String key;
+        private transient HazelcastInstance instance;
+
+        LocalReadTask(String mapName, String key) {
+            this.mapName = mapName;
+            this.key = key;
+        }
+
+        @Override
+        public void setHazelcastInstance(HazelcastInstance instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public String call() throws InterruptedException {
+            Thread.sleep(5);
+            IMap<String, String> map = instance.getMap(mapName);
+            return map.localKeySet().contains(key) ? map.get(key) : null;
+        }
+    }
+
+    @Test
+    void testEntityLocks() throws Exception {
+        String lockMapName = uniqueName("test-entity-locks");
+        EntityLocks locks = new EntityLocks(client, lockMapName, 0);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(locks.tryLock("user-1", 1, TimeUnit.SECONDS));
+            assertTrue(locks.isLocked("user-1"));
+            // Held by this thread, free for other entities
+            assertFalse(other.submit(() -> locks.tryLock("user-1", 10, TimeUnit.MILLISECONDS)).get());
+            assertTrue(other.submit(() -> {
+                boolean acquired = locks.tryLock("user-2", 10, TimeUnit.MILLISECONDS);
+                locks.unlock("user-2");
+                return acquired;
+            }).get());
+            locks.unlock("user-1");
+            assertFalse(locks.isLocked("user-1"));
+            
+            assertEquals("done", locks.withLock("user-1", 1, TimeUnit.SECONDS, () -> "done"));
+        } finally {
+            other.shutdown();
+        }
+        
+        // An action outliving the lease may have overlapped another holder
+        EntityLocks shortLease = new EntityLocks(client, lockMapName, 0, 500, TimeUnit.MILLISECONDS);
+        assertThrows(IllegalStateException.class, () -> shortLease.withLock("user-3", 1, TimeUnit.SECONDS, () -> {
+            try {
+                Thread.sleep(700);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (shortLease.isLocked("user-3") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(shortLease.isLocked("user-3"));
+        
+        // Striped locks bound the number of lock keys
+        EntityLocks striped = new EntityLocks(client, lockMapName, 4);
+        assertEquals(4, IntStream.range(0, 1000).mapToObj(i -> striped.lockKey("user-" + i)).distinct().count());
+        
+        // Single-entry updates need no lock at all
+        IMap<String, Integer> counters = client.getMap(uniqueName("test-counters"));
+        counters.put("c", 0);
+        for (int i = 0; i < 10; i++) {
+            EntityLocks.atomically(counters, "c", entry -> entry.setValue(entry.getValue() + 1));
+        }
+        assertEquals(10, counters.get("c"));
+    }
+
+    @Test
+    void testEntriesSurviveMigration() {
+        try (TestCluster cluster = TestCluster.start(2)) {
+            IMap<String, String> map = cluster.client().getMap(uniqueName("test-migration"));
+            for (int i = 0; i < 1000; i++) {
+                map.set("key" + i, "value" + i);
+            }
+            
+            // A third member takes over part of the partitions
+            HazelcastInstance joined = cluster.addMember();
+            assertEquals(3, cluster.client().getCluster().getMembers().size());
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (!joined.getPartitionService().isClusterSafe() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            
+            assertTrue(joined.getMap(map.getName()).getLocalMapStats().getOwnedEntryCount() > 0);
+            assertEquals(1000, map.size());
+            assertEquals("value500", map.get("key500"));
+        } catch (InterruptedException e) {
+            fail("Interrupted while waiting for migrations");
+        }
+    }
+
     @Test
     void testDistributedLock() {
-        var lock = client.getCPSubsystem().getLock("test-lock");
+        var lock = client.getCPSubsystem().getLock(uniqueName("test-lock"));
         
         try {
             // Test lock acquisition
             assertTrue(lock.tryLock(5, java.util.concurrent.TimeUnit.SECONDS));
             
-            // Test that lock is held
-            assertFalse(lock.tryLock(1, java.util.concurrent.TimeUnit.MILLISECONDS));
+            // Test that lock is held; the lock is reentrant, so try from another thread
+            assertFalse(CompletableFuture.supplyAsync(() -> lock.tryLock(1, java.util.concurrent.TimeUnit.MILLISECONDS)).get());
             
             // Release lock
             lock.unlock();
@@ -0,0 +1,71 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyMetricsTest {
+
+    @Test
+    void testHistogramQuantilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMaxNanos());
+        assertEquals(50_000_000, histogram.quantile(0.5), 50_000_000 * 0.07);
+        assertEquals(99_000_000, histogram.quantile(0.99), 99_000_000 * 0.07);
+        assertTrue(histogram.quantile(0.5) >= 50_000_000, "quantiles never underestimate");
+        assertEquals(100_000_000, histogram.quantile(1.0));
+    }
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+            assertTrue(highest >= value, "bucket of " + value);
+            assertTrue(highest - value <= Math.max(1, value / 16), "precision at " + value);
+        }
+    }
+
+    @Test
+    void testInstrumentedMapRecordsOperationsAndErrors() throws Exception {
+        HazelcastInstance member = TestCluster.shared().member();
+        String mapName = TestCluster.uniqueName("metered");
+        LatencyMetrics metrics = new LatencyMetrics(true);
+        HttpServer server = metrics.startHttpServer(0);
+        try {
+            HazelcastInstance instrumented = Instrumentation.instrument(member, metrics);
+            IMap<String, String> map = instrumented.getMap(mapName);
+            for (int i = 0; i < 100; i++) {
+                map.set("key" + i, "value" + i);
+                map.get("key" + i);
+            }
+            map.getAsync("key1").toCompletableFuture().join();
+            assertThrows(NullPointerException.class, () -> map.get(null));
+            assertSame(map, instrumented.getMap(mapName));
+
+            assertEquals(100, metrics.operation("map", mapName, "set").getCount());
+            assertEquals(101, metrics.operation("map", mapName, "get").getCount());
+            assertEquals(1, metrics.operation("map", mapName, "get").getErrors());
+            assertEquals(1, metrics.operation("map", mapName, "getAsync").getCount());
+
+            String text;
+            try (InputStream in = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics").openStream()) {
+                text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(text.contains("hazelcast_client_operation_latency_seconds_count{structure=\"map\",name=\"" + mapName + "\",operation=\"set\"} 100"), text);
+            assertTrue(text.contains("hazelcast_client_operation_errors_total{structure=\"map\",name=\"" + mapName + "\",operation=\"get\"} 1"), text);
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    @Test
+    void testDistributionsStayInRangeAndSkew() {
+        Random random = new Random(42);
+        long records = 10_000;
+        KeyDistribution zipfian = KeyDistribution.zipfian(records, 0.99);
+        KeyDistribution hotspot = KeyDistribution.hotspot(records, 0.2, 0.8);
+        KeyDistribution uniform = KeyDistribution.uniform(records);
+        int zipfianTop = 0;
+        int hotspotHot = 0;
+        int uniformHot = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long z = zipfian.next(random);
+            long h = hotspot.next(random);
+            long u = uniform.next(random);
+            assertTrue(z >= 0 && z < records && h >= 0 && h < records && u >= 0 && u < records);
+            zipfianTop += z < 100 ? 1 : 0;
+            hotspotHot += h < 2_000 ? 1 : 0;
+            uniformHot += u < 2_000 ? 1 : 0;
+        }
+        // The top 1% of keys take roughly half of a zipfian(0.99) workload
+        assertTrue(zipfianTop > 40_000, "zipfian top 1%: " + zipfianTop);
+        assertEquals(80_000, hotspotHot, 1_000);
+        assertEquals(20_000, uniformHot, 1_000);
+        assertThrows(IllegalArgumentException.class, () -> KeyDistribution.of("gaussian", records, 0.99, 0.2, 0.8));
+    }
+
+    @Test
+    void testScrambledZipfianSpreadsHotKeysOverPartitionKeys() {
+        Random random = new Random(42);
+        long records = 10_000;
+        KeyDistribution scrambled = KeyDistribution.of("zipfian", records, 0.99, 0.2, 0.8);
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long index = scrambled.next(random);
+            assertTrue(index >= 0 && index < records);
+            counts.merge(index, 1, Integer::sum);
+        }
+        // Still skewed, but the ten hottest keys no longer share one partition key
+        List<Long> hottest = counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                .limit(10).map(Map.Entry::getKey).collect(Collectors.toList());
+        assertTrue(counts.get(hottest.get(0)) > 5_000, "hottest key: " + counts.get(hottest.get(0)));
+        assertTrue(hottest.stream().map(index -> LoadGenerator.key(index, 10).getPartitionKey()).distinct().count() >= 8,
+                "partition keys of the hottest keys: " + hottest);
+    }
+
+    @Test
+    void testOptionsRejectBadWorkloads() {
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Options.parse("--read=0.5", "--update=0.4"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Options.parse("--reads=1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Options.parse("threads=4"));
+    }
+
+    @Test
+    void testRunReportsEveryOperationType() throws Exception {
+        HazelcastInstance client = TestCluster.shared().client();
+        String mapName = TestCluster.uniqueName("load");
+        LoadGenerator generator = new LoadGenerator(client, LoadGenerator.Options.parse(
+                "--map=" + mapName, "--records=1000", "--value-size=100", "--threads=2", "--target=2000",
+                "--read=0.4", "--update=0.3", "--write=0.2", "--scan=0.1", "--distribution=hotspot",
+                "--warmup=0", "--duration=2"));
+        assertEquals(1000, generator.load().getEntries());
+
+        LoadGenerator.Report report = generator.run();
+
+        // 2000 ops/s for two seconds; the schedule keeps it from running ahead
+        assertTrue(report.getOperations() > 1000 && report.getOperations() < 4500, "operations: " + report.getOperations());
+        for (String operation : new String[]{"read", "update", "write", "scan"}) {
+            assertTrue(report.getOperation(operation).getCount() > 0, operation);
+            assertEquals(0, report.getOperation(operation).getErrors(), operation);
+        }
+        assertEquals(1000 + report.getOperation("write").getCount(), client.getMap(mapName).size(), 10);
+        String json = report.toJson();
+        assertTrue(json.startsWith("{\"workload\":{\"map\":\"" + mapName + "\""), json);
+        assertTrue(json.contains("\"scan\":{\"count\":"), json);
+        assertTrue(json.contains("\"p999\":"), json);
+    }
+}
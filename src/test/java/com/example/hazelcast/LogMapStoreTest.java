@@ -0,0 +1,137 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogMapStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLogKeepsLatestRecordAcrossReopen() throws Exception {
+        try (SegmentedLog log = SegmentedLog.open(directory, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                log.put(bytes("key-" + (i % 10)), bytes("value-" + i));
+            }
+            log.delete(bytes("key-0"));
+            assertTrue(log.segmentCount() > 1);
+        }
+
+        try (SegmentedLog log = SegmentedLog.open(directory, 1024)) {
+            assertEquals(9, log.size());
+            assertEquals("value-99", string(log.lookup(bytes("key-9")).getValue()));
+            assertTrue(log.lookup(bytes("key-0")).isDeleted());
+            assertNull(log.lookup(bytes("missing")));
+
+            // Every sealed segment only holds overwritten records
+            int before = log.segmentCount();
+            assertTrue(log.compact(0.5) > 0);
+            assertTrue(log.segmentCount() < before);
+            assertEquals("value-91", string(log.lookup(bytes("key-1")).getValue()));
+        }
+
+        try (SegmentedLog log = SegmentedLog.open(directory, 1024)) {
+            assertEquals(9, log.size());
+            assertEquals("value-95", string(log.lookup(bytes("key-5")).getValue()));
+        }
+    }
+
+    @Test
+    void testReadOnlyLogFollowsWriter() throws Exception {
+        try (SegmentedLog writer = SegmentedLog.open(directory, 1024);
+             SegmentedLog reader = SegmentedLog.openReadOnly(directory)) {
+            for (int i = 0; i < 100; i++) {
+                writer.put(bytes("key-" + (i % 10)), bytes("value-" + i));
+            }
+            writer.compact(0.5);
+            reader.refresh();
+
+            assertEquals(10, reader.size());
+            assertEquals("value-97", string(reader.lookup(bytes("key-7")).getValue()));
+        }
+    }
+
+    @Test
+    void testMapSurvivesMemberRestart() {
+        Consumer<Config> storedUsers = config -> config.addMapConfig(new MapConfig("stored-users").setMapStoreConfig(
+                HazelcastConfig.createLogMapStoreConfig(1).setProperty("directory", directory.toString())));
+
+        // Closing shuts the member down gracefully, which flushes the write-behind queue
+        try (TestCluster cluster = TestCluster.start(1, storedUsers)) {
+            IMap<String, String> map = cluster.member().getMap("stored-users");
+            for (int i = 0; i < 1000; i++) {
+                map.set("user-" + (i % 100), "name-" + i);
+            }
+            map.delete("user-0");
+        }
+
+        try (TestCluster cluster = TestCluster.start(1, storedUsers)) {
+            IMap<String, String> reloaded = cluster.member().getMap("stored-users");
+            assertEquals(99, reloaded.size());
+            assertEquals("name-942", reloaded.get("user-42"));
+            assertNull(reloaded.get("user-0"));
+        }
+    }
+
+    @Test
+    void testExpiringRecordsKeepTheirDeadline() throws Exception {
+        long deadline = System.currentTimeMillis() + 60_000;
+        try (SegmentedLog log = SegmentedLog.open(directory, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                log.put(bytes("key-" + (i % 10)), bytes("value-" + i), deadline);
+            }
+            log.put(bytes("forever"), bytes("value"));
+            log.compact(0.5);
+        }
+
+        try (SegmentedLog log = SegmentedLog.open(directory, 1024)) {
+            SegmentedLog.Lookup lookup = log.lookup(bytes("key-3"));
+            assertEquals("value-93", string(lookup.getValue()));
+            assertEquals(deadline, lookup.getExpirationTime());
+            assertFalse(lookup.isAbsentAt(deadline - 1));
+            assertTrue(lookup.isAbsentAt(deadline));
+            assertEquals(SegmentedLog.NO_EXPIRY, log.lookup(bytes("forever")).getExpirationTime());
+        }
+    }
+
+    @Test
+    void testExpiredEntriesAreNotLoadedAgain() throws InterruptedException {
+        Consumer<Config> storedUsers = config -> config.addMapConfig(new MapConfig("expiring-users").setMapStoreConfig(
+                HazelcastConfig.createLogMapStoreConfig(1).setProperty("directory", directory.toString())));
+
+        try (TestCluster cluster = TestCluster.start(1, storedUsers)) {
+            IMap<String, String> map = cluster.member().getMap("expiring-users");
+            map.set("temporary", "value", 3, TimeUnit.SECONDS);
+            map.set("permanent", "value");
+            // Written behind after a second, expired after three
+            Thread.sleep(4_500);
+            assertNull(map.get("temporary"));
+            assertEquals("value", map.get("permanent"));
+        }
+
+        try (TestCluster cluster = TestCluster.start(1, storedUsers)) {
+            IMap<String, String> reloaded = cluster.member().getMap("expiring-users");
+            assertEquals(1, reloaded.size());
+            assertNull(reloaded.get("temporary"));
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
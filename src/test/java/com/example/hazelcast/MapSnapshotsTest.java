@@ -0,0 +1,137 @@
+package com.example.hazelcast;
+
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.config.PartitioningStrategyConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.MapStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRestoreIntoFreshCluster() throws Exception {
+        Consumer<Config> snapshotUsers = config -> {
+            HazelcastConfig.configureSerialization(config.getSerializationConfig());
+            config.addMapConfig(new MapConfig("snapshot-users").setPartitioningStrategyConfig(
+                    new PartitioningStrategyConfig(new BalancedPartitioningStrategy())));
+        };
+
+        try (TestCluster cluster = TestCluster.start(1, snapshotUsers)) {
+            IMap<HazelcastPartitionAwareKey, User> map = cluster.member().getMap("snapshot-users");
+            for (int i = 0; i < 5000; i++) {
+                map.set(new HazelcastPartitionAwareKey("key" + i, i % 100), new User("First" + i, "Last", i % 60, "user" + i));
+            }
+            assertEquals(5000, new MapSnapshots(cluster.member(), "snapshot-users", directory, 4).snapshot());
+        }
+
+        try (TestCluster cluster = TestCluster.start(1, snapshotUsers)) {
+            HazelcastInstance member = cluster.member();
+            ClientConfig clientConfig = cluster.clientConfig();
+            HazelcastConfig.configureSerialization(clientConfig.getSerializationConfig());
+            HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig);
+            try {
+                MapSnapshots.RestoreResult result = new MapSnapshots(member, "snapshot-users", directory, 4).restore();
+                assertEquals(5000, result.getEntries());
+
+                // Keys land in the partitions the map's strategy picks, and values are readable
+                IMap<HazelcastPartitionAwareKey, User> restored = client.getMap("snapshot-users");
+                assertEquals(5000, restored.size());
+                assertEquals("First4242", restored.get(new HazelcastPartitionAwareKey("key4242", 42)).getFirstName());
+
+                // A second restore does not overwrite a map that already has entries
+                assertEquals(0, new MapSnapshots(member, "snapshot-users", directory, 4).restore().getEntries());
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testEveryMemberRestoresItsPartitionsWithoutStoringThem() throws Exception {
+        CountingStore store = new CountingStore();
+        Consumer<Config> storedUsers = config -> config.addMapConfig(new MapConfig("snapshot-stored")
+                .setMapStoreConfig(new MapStoreConfig().setImplementation(store)));
+
+        try (TestCluster cluster = TestCluster.start(2, storedUsers)) {
+            IMap<String, String> map = cluster.member().getMap("snapshot-stored");
+            for (int i = 0; i < 2000; i++) {
+                map.set("key" + i, "value" + i);
+            }
+            long written = 0;
+            for (HazelcastInstance member : cluster.members()) {
+                written += new MapSnapshots(member, "snapshot-stored", directory, 2).snapshot();
+            }
+            assertEquals(2000, written);
+        }
+
+        store.stored.set(0);
+        try (TestCluster cluster = TestCluster.start(2, storedUsers)) {
+            // The second member restores its own partitions although the first filled the map with its share
+            long restored = 0;
+            for (HazelcastInstance member : cluster.members()) {
+                restored += new MapSnapshots(member, "snapshot-stored", directory, 2).restore().getEntries();
+            }
+            assertEquals(2000, restored);
+            IMap<String, String> map = cluster.member().getMap("snapshot-stored");
+            assertEquals(2000, map.size());
+            assertEquals("value42", map.get("key42"));
+            assertEquals(0, store.stored.get());
+        }
+    }
+
+    private static class CountingStore implements MapStore<String, String> {
+        final AtomicInteger stored = new AtomicInteger();
+
+        @Override
+        public void store(String key, String value) {
+            stored.incrementAndGet();
+        }
+
+        @Override
+        public void storeAll(Map<String, String> map) {
+            stored.addAndGet(map.size());
+        }
+
+        @Override
+        public void delete(String key) {
+        }
+
+        @Override
+        public void deleteAll(Collection<String> keys) {
+        }
+
+        @Override
+        public String load(String key) {
+            return null;
+        }
+
+        @Override
+        public Map<String, String> loadAll(Collection<String> keys) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Iterable<String> loadAllKeys() {
+            return Collections.emptyList();
+        }
+    }
+}
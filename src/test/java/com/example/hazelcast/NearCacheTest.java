@@ -0,0 +1,62 @@
+package com.example.hazelcast;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearCacheTest {
+
+    @Test
+    void testHitsMissesAndInvalidationAfterMemberUpdate() throws Exception {
+        Path directory = Files.createTempDirectory("near-cache-test").resolve("keys");
+        String mapName = TestCluster.uniqueName("cached-users");
+        System.setProperty(HazelcastConfig.NEAR_CACHE_DIRECTORY_PROPERTY, directory.toString());
+        NearCacheConfig nearCacheConfig;
+        try {
+            nearCacheConfig = HazelcastConfig.createNearCacheConfig(mapName, InMemoryFormat.BINARY);
+        } finally {
+            System.clearProperty(HazelcastConfig.NEAR_CACHE_DIRECTORY_PROPERTY);
+        }
+        assertFalse(directory.toFile().exists(), "building the config has no side effects");
+
+        // Invalidations are sent every second instead of every ten
+        try (TestCluster cluster = TestCluster.start(1,
+                config -> config.setProperty("hazelcast.map.invalidation.batchfrequency.seconds", "1"))) {
+            ClientConfig clientConfig = cluster.clientConfig().addNearCacheConfig(nearCacheConfig);
+            HazelcastInstance client = HazelcastConfig.createClient(clientConfig);
+            try {
+                assertTrue(new File(directory.toString()).isDirectory());
+                IMap<String, String> map = client.getMap(mapName);
+                map.set("key", "first");
+
+                assertEquals("first", map.get("key"));
+                assertEquals("first", map.get("key"));
+                NearCacheMetrics metrics = NearCacheMetrics.of(map);
+                assertEquals(1, metrics.getMisses());
+                assertEquals(1, metrics.getHits());
+                assertEquals(1, metrics.getEntries());
+
+                cluster.member().<String, String>getMap(mapName).set("key", "second");
+                long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (NearCacheMetrics.of(map).getInvalidations() == 0 && System.nanoTime() < end) {
+                    Thread.sleep(50);
+                }
+                assertTrue(NearCacheMetrics.of(map).getInvalidations() > 0);
+                assertEquals("second", map.get("key"));
+                assertEquals(2, NearCacheMetrics.of(map).getMisses());
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+}
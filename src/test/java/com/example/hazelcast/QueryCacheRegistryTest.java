@@ -0,0 +1,130 @@
+package com.example.hazelcast;
+
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.QueryCacheRegistry.CacheMetrics;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCacheRegistryTest {
+
+    @Test
+    void testCachesFollowChangesAndAreBounded() throws Exception {
+        TestCluster cluster = TestCluster.shared();
+        String mapName = TestCluster.uniqueName("polled-users");
+        cluster.member().getConfig().addMapConfig(new MapConfig(mapName).setPerEntryStatsEnabled(true));
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(
+                QueryCacheRegistry.configure(cluster.clientConfig(), mapName, 150));
+        try (QueryCacheRegistry registry = new QueryCacheRegistry(client, mapName, 2, 150, 1, TimeUnit.MINUTES, 1)) {
+            IMap<String, User> users = client.getMap(mapName);
+            for (int i = 0; i < 200; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, i, "user" + i + "@example.com"));
+            }
+
+            assertEquals(99, registry.size(Predicates.greaterThan("age", 100)));
+            assertEquals(99, registry.values(Predicates.greaterThan("age", 100)).size());
+            assertEquals(1, registry.getMetrics().size(), "an equal predicate reuses the cache");
+
+            users.set("user-5", new User("First", "Last5", 150, "user5@example.com"));
+            // A removal is only seen when its event carries the old value, as remove() does and delete() does not
+            users.remove("user-150");
+            users.set("user-160", new User("First", "Last160", 10, "user160@example.com"));
+            await(() -> registry.size(Predicates.greaterThan("age", 100)) == 98);
+            assertTrue(registry.entrySet(Predicates.greaterThan("age", 100)).stream()
+                    .anyMatch(entry -> entry.getKey().equals("user-5")));
+            CacheMetrics metrics = registry.getMetrics().get(0);
+            assertTrue(metrics.getEvents() >= 3, metrics.toString());
+            await(() -> registry.getMetrics().get(0).getLag().getCount() > 0);
+
+            // A predicate matching more than 150 entries is answered by the map, not a truncated cache
+            assertEquals(199, registry.size(Predicates.greaterEqual("age", 0)));
+            assertEquals(199, registry.entrySet(Predicates.greaterEqual("age", 0)).size());
+            assertEquals(Set.of(Predicates.greaterEqual("age", 0).toString()), registry.getUncachedPredicates());
+            assertEquals(1, registry.getMetrics().size());
+
+            // A third cache displaces the least recently read
+            registry.size(Predicates.lessThan("age", 10));
+            registry.size(Predicates.lessThan("age", 20));
+            List<CacheMetrics> live = registry.getMetrics();
+            assertEquals(2, live.size());
+            assertTrue(live.stream().noneMatch(cache -> cache.getPredicate().equals(
+                    Predicates.greaterThan("age", 100).toString())), live.toString());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void testIdleCachesAreDestroyed() throws Exception {
+        TestCluster cluster = TestCluster.shared();
+        String mapName = TestCluster.uniqueName("idle-users");
+        HazelcastInstance client = cluster.client();
+        try (QueryCacheRegistry registry = new QueryCacheRegistry(client, mapName, 4, 100, 200, TimeUnit.MILLISECONDS, 10)) {
+            client.getMap(mapName).set("user-1", new User("First", "Last", 40, "user1@example.com"));
+            assertEquals(1, registry.size(Predicates.greaterThan("age", 30)));
+            assertEquals(1, registry.getMetrics().size());
+            await(() -> registry.getMetrics().isEmpty());
+
+            // Reading again creates a fresh cache
+            assertEquals(1, registry.size(Predicates.greaterThan("age", 30)));
+        }
+    }
+
+    @Test
+    void testPredicatesWithoutEqualsNeedACacheKey() {
+        TestCluster cluster = TestCluster.shared();
+        String mapName = TestCluster.uniqueName("keyed-users");
+        HazelcastInstance client = cluster.client();
+        try (QueryCacheRegistry registry = new QueryCacheRegistry(client, mapName, 4, 100, 1, TimeUnit.MINUTES, 10)) {
+            IMap<String, User> users = client.getMap(mapName);
+            for (int i = 0; i < 10; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, 20 + i, "user" + i + "@example.com"));
+            }
+            Predicate<String, User> adults = entry -> entry.getValue().getAge() >= 25;
+            Predicate<String, User> young = entry -> entry.getValue().getAge() < 25;
+
+            assertThrows(IllegalArgumentException.class, () -> registry.size(adults));
+            assertEquals(5, registry.size("adults", adults));
+            assertEquals(5, registry.values("young", young).size());
+            assertEquals(2, registry.getMetrics().size(), "distinct keys get distinct caches");
+            assertEquals(5, registry.entrySet("adults", adults).size());
+            assertEquals(2, registry.getMetrics().size());
+        }
+    }
+
+    @Test
+    void testRegistriesOnOneClientDoNotShareCaches() {
+        TestCluster cluster = TestCluster.shared();
+        String mapName = TestCluster.uniqueName("shared-users");
+        HazelcastInstance client = cluster.client();
+        try (QueryCacheRegistry first = new QueryCacheRegistry(client, mapName, 4, 100, 1, TimeUnit.MINUTES, 10);
+             QueryCacheRegistry second = new QueryCacheRegistry(client, mapName, 4, 100, 1, TimeUnit.MINUTES, 10)) {
+            IMap<String, User> users = client.getMap(mapName);
+            for (int i = 0; i < 10; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, 20 + i, "user" + i + "@example.com"));
+            }
+
+            assertEquals(3, first.size(Predicates.greaterThan("age", 26)));
+            assertEquals(2, second.size(Predicates.lessThan("age", 22)));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupProfilerTest {
+
+    @Test
+    void testTcpJoinReplacesMulticast() {
+        Config config = HazelcastConfig.createConfig(null);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        assertFalse(join.getMulticastConfig().isEnabled());
+        assertTrue(join.getTcpIpConfig().isEnabled());
+        assertEquals(List.of("127.0.0.1"), join.getTcpIpConfig().getMembers());
+
+        HazelcastConfig.configureTcpJoin(config, List.of("10.0.0.1", "10.0.0.2:5702"), 2, 3, 20);
+        assertEquals(List.of("10.0.0.1", "10.0.0.2:5702"), join.getTcpIpConfig().getMembers());
+        assertEquals("2", config.getProperty("hazelcast.wait.seconds.before.join"));
+        assertEquals("3", config.getProperty(HazelcastConfig.JOIN_MIN_CLUSTER_SIZE_PROPERTY));
+        assertEquals("20", config.getProperty(HazelcastConfig.JOIN_TIMEOUT_PROPERTY));
+        assertEquals("20", config.getProperty("hazelcast.max.join.seconds"));
+        assertThrows(IllegalArgumentException.class, () -> HazelcastConfig.configureTcpJoin(config, List.of(), 0, 1, 10));
+    }
+
+    @Test
+    void testMemberFailsToStartWhenTooFewJoinInTime() {
+        String clusterName = "alone-" + UUID.randomUUID();
+        Config config = TestCluster.memberConfig(clusterName);
+        HazelcastConfig.configureTcpJoin(config, List.of("127.0.0.1"), 0, 2, 3);
+
+        long start = System.nanoTime();
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> HazelcastConfig.startMember(config));
+        assertTrue(failure.getMessage().contains("1 of 2"), failure.getMessage());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        assertTrue(Hazelcast.getAllHazelcastInstances().stream()
+                .noneMatch(instance -> clusterName.equals(instance.getConfig().getClusterName())), "the member is shut down");
+    }
+
+    @Test
+    void testProfilesMembersJoiningWithMinimumClusterSize() throws Exception {
+        String clusterName = "startup-" + UUID.randomUUID();
+        StartupProfiler profiler = new StartupProfiler();
+        List<HazelcastInstance> members = new ArrayList<>();
+        try {
+            // Neither member returns from startup before the other has joined
+            members.addAll(profiler.time(StartupProfiler.Phase.JOIN, () -> {
+                List<CompletableFuture<HazelcastInstance>> starts = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    Config config = TestCluster.memberConfig(clusterName);
+                    HazelcastConfig.configureTcpJoin(config, List.of("127.0.0.1"), 0, 2, 30);
+                    starts.add(CompletableFuture.supplyAsync(() -> HazelcastConfig.startMember(config)));
+                }
+                List<HazelcastInstance> started = new ArrayList<>();
+                for (CompletableFuture<HazelcastInstance> start : starts) {
+                    started.add(start.get(60, TimeUnit.SECONDS));
+                }
+                return started;
+            }));
+            assertEquals(2, members.get(0).getCluster().getMembers().size());
+
+            profiler.assignPartitions(members.get(0), 60, TimeUnit.SECONDS);
+            assertTrue(members.get(1).getPartitionService().isClusterSafe());
+            int loaded = profiler.time(StartupProfiler.Phase.DATA_LOAD, () -> {
+                for (int i = 0; i < 100; i++) {
+                    members.get(0).getMap("startup").set(i, i);
+                }
+                return members.get(1).getMap("startup").size();
+            });
+            assertEquals(100, loaded);
+
+            assertEquals(0, profiler.getMillis(StartupProfiler.Phase.JVM_START));
+            assertTrue(profiler.getMillis(StartupProfiler.Phase.JOIN) > 0);
+            assertTrue(profiler.getTimeToReadyMillis() >= profiler.getMillis(StartupProfiler.Phase.JOIN)
+                    + profiler.getMillis(StartupProfiler.Phase.DATA_LOAD));
+            assertTrue(StartupProfiler.sinceJvmStart().getMillis(StartupProfiler.Phase.JVM_START) > 0);
+        } finally {
+            members.forEach(HazelcastInstance::shutdown);
+        }
+    }
+}
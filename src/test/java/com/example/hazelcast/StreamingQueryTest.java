@@ -0,0 +1,84 @@
+package com.example.hazelcast;
+
+import com.example.hazelcast.MapExamples.User;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicates;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingQueryTest {
+
+    @Test
+    void testStreamsMatchTheMaterializedResults() {
+        HazelcastInstance client = TestCluster.shared().client();
+        String mapName = TestCluster.uniqueName("streamed-users");
+        IMap<String, User> users = client.getMap(mapName);
+        for (int i = 0; i < 500; i++) {
+            users.set("user-" + i, new User("First", "Last" + i, i % 80, "user" + i + "@example.com"));
+        }
+        StreamingQuery<String, User> query = new StreamingQuery<>(client, mapName, 7);
+
+        Map<String, User> older = query.entries(Predicates.greaterThan("age", 30))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals(users.entrySet(Predicates.greaterThan("age", 30)).size(), older.size());
+        assertTrue(older.values().stream().allMatch(user -> user.getAge() > 30));
+
+        List<Integer> ages = query.project(Projections.<Map.Entry<String, User>, Integer>singleAttribute("age"),
+                Predicates.lessThan("age", 10)).collect(Collectors.toList());
+        assertEquals(users.values(Predicates.lessThan("age", 10)).size(), ages.size());
+        assertTrue(ages.stream().allMatch(age -> age < 10));
+
+        assertEquals(users.keySet(), query.keys().collect(Collectors.toSet()));
+        assertEquals(3, query.keys().limit(3).count(), "a partial read stops early");
+
+        HazelcastInstance instrumented = Instrumentation.instrument(client, new LatencyMetrics(false));
+        assertEquals(500, new StreamingQuery<String, User>(instrumented, mapName, 7).keys().count());
+    }
+
+    @Test
+    void testMapsWithoutPartitionIteratorsFailAtConstruction() {
+        IMap<?, ?> foreignMap = (IMap<?, ?>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{IMap.class}, (proxy, method, args) -> null);
+        HazelcastInstance instance = (HazelcastInstance) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HazelcastInstance.class}, (proxy, method, args) -> foreignMap);
+        assertThrows(IllegalArgumentException.class, () -> new StreamingQuery<>(instance, "foreign", 10));
+    }
+
+    @Test
+    void testSortedPagesFollowTheComparator() {
+        HazelcastInstance member = TestCluster.shared().member();
+        String mapName = TestCluster.uniqueName("paged-users");
+        IMap<String, User> users = member.getMap(mapName);
+        for (int i = 0; i < 50; i++) {
+            users.set("user-" + i, new User("First", "Last" + i, 100 - i, "user" + i + "@example.com"));
+        }
+        StreamingQuery<String, User> query = new StreamingQuery<>(member, mapName, 10);
+
+        List<Integer> ages = query.sorted(Predicates.greaterEqual("age", 60), new ByAge())
+                .map(entry -> entry.getValue().getAge()).collect(Collectors.toList());
+        assertEquals(IntStream.rangeClosed(60, 100).boxed().collect(Collectors.toList()), ages);
+
+        List<String> keys = query.sortedKeys(Predicates.alwaysTrue(), new ByAge()).collect(Collectors.toList());
+        assertEquals(50, keys.size());
+        assertEquals("user-49", keys.get(0));
+        assertEquals("user-0", keys.get(49));
+    }
+
+    static class ByAge implements Comparator<Map.Entry<String, User>>, Serializable {
+        @Override
+        public int compare(Map.Entry<String, User> left, Map.Entry<String, User> right) {
+            return Integer.compare(left.getValue().getAge(), right.getValue().getAge());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.hazelcast;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-process cluster for tests.
+ *
+ * <p>Members join over TCP on the loopback interface only, with the join waits and
+ * heartbeat timeouts cut down, so a member is up in well under a second instead of
+ * waiting for multicast discovery. {@link #shared()} is started once per test JVM and
+ * shared by every test class; tests keep out of each other's way by naming their data
+ * structures with {@link #uniqueName(String)} rather than by restarting the cluster.
+ * {@link #start(int)} gives a private cluster of several members for partition and
+ * migration tests, which the test closes itself.
+ */
+public final class TestCluster implements AutoCloseable {
+    private static final AtomicInteger NAMES = new AtomicInteger();
+    private static TestCluster shared;
+
+    private final String clusterName;
+    private final Consumer<Config> customizer;
+    private final List<HazelcastInstance> members = new ArrayList<>();
+    private HazelcastInstance client;
+
+    private TestCluster(String clusterName, Consumer<Config> customizer) {
+        this.clusterName = clusterName;
+        this.customizer = customizer;
+    }
+
+    /**
+     * Single member and a client shared by all tests, shut down when the JVM exits
+     */
+    public static synchronized TestCluster shared() {
+        if (shared == null) {
+            shared = start(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "test-cluster-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * Private cluster of the given number of members; close it when done
+     */
+    public static TestCluster start(int memberCount) {
+        return start(memberCount, config -> { });
+    }
+
+    /**
+     * Private cluster whose member configuration is adjusted by {@code customizer}, for
+     * example to add map configs; close it when done
+     */
+    public static TestCluster start(int memberCount, Consumer<Config> customizer) {
+        TestCluster cluster = new TestCluster("test-" + UUID.randomUUID(), customizer);
+        for (int i = 0; i < memberCount; i++) {
+            cluster.addMember();
+        }
+        return cluster;
+    }
+
+    /**
+     * Name that no other test uses, for example {@code uniqueName("orders")} gives {@code orders-17}
+     */
+    public static String uniqueName(String prefix) {
+        return prefix + "-" + NAMES.incrementAndGet();
+    }
+
+    /**
+     * Fast-starting member configuration: loopback-only TCP join and short timeouts
+     */
+    public static Config memberConfig(String clusterName) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.getNetworkConfig().setPort(5701).setPortAutoIncrement(true).setPortCount(100);
+        config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        config.setProperty("hazelcast.wait.seconds.before.join", "0");
+        config.setProperty("hazelcast.max.wait.seconds.before.join", "0");
+        config.setProperty("hazelcast.tcp.join.port.try.count", "10");
+        config.setProperty("hazelcast.heartbeat.interval.seconds", "1");
+        config.setProperty("hazelcast.max.no.heartbeat.seconds", "5");
+        config.setProperty("hazelcast.graceful.shutdown.max.wait", "10");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        // Fewer partitions to migrate when members come and go
+        config.setProperty("hazelcast.partition.count", "71");
+        return config;
+    }
+
+    /**
+     * Client configuration that connects straight to the members of this cluster
+     */
+    public ClientConfig clientConfig() {
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName(clusterName);
+        for (HazelcastInstance member : members) {
+            clientConfig.getNetworkConfig().addAddress("127.0.0.1:" + member.getCluster().getLocalMember().getAddress().getPort());
+        }
+        clientConfig.getConnectionStrategyConfig().getConnectionRetryConfig().setClusterConnectTimeoutMillis(10_000);
+        clientConfig.setProperty("hazelcast.client.heartbeat.interval", "1000");
+        clientConfig.setProperty("hazelcast.client.heartbeat.timeout", "5000");
+        return clientConfig;
+    }
+
+    /**
+     * Starts one more member, for example to trigger a migration
+     */
+    public synchronized HazelcastInstance addMember() {
+        Config config = memberConfig(clusterName);
+        customizer.accept(config);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        members.add(member);
+        return member;
+    }
+
+    public String getClusterName() {
+        return clusterName;
+    }
+
+    public HazelcastInstance member() {
+        return members.get(0);
+    }
+
+    public List<HazelcastInstance> members() {
+        return members;
+    }
+
+    /**
+     * Client connected to the cluster, started on first use
+     */
+    public synchronized HazelcastInstance client() {
+        if (client == null) {
+            client = HazelcastClient.newHazelcastClient(clientConfig());
+        }
+        return client;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (client != null) {
+            client.shutdown();
+        }
+        members.forEach(HazelcastInstance::shutdown);
+        members.clear();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.hazelcast;
+
+import com.example.hazelcast.MapExamples.User;
+import com.example.hazelcast.UserStatsPipeline.AttributeStats;
+import com.hazelcast.config.EventJournalConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.function.FunctionEx;
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserStatsPipelineTest {
+
+    @Test
+    void testRemovingTheMaximumFallsBackToTheNextValue() {
+        UserStatsPipeline.RunningStats stats = new UserStatsPipeline.RunningStats();
+        stats.apply(new UserStatsPipeline.Change("age", null, 30.0));
+        stats.apply(new UserStatsPipeline.Change("age", null, 50.0));
+        stats.apply(new UserStatsPipeline.Change("age", null, 50.0));
+        stats.apply(new UserStatsPipeline.Change("age", 50.0, 20.0));
+        assertEquals(50.0, stats.toAttributeStats().getMax());
+        stats.apply(new UserStatsPipeline.Change("age", 50.0, null));
+
+        AttributeStats result = stats.toAttributeStats();
+        assertEquals(2, result.getCount());
+        assertEquals(30.0, result.getMax());
+        assertEquals(20.0, result.getMin());
+        assertEquals(25.0, result.getAverage());
+    }
+
+    @Test
+    void testStatsFollowChangesAndSurviveMemberLoss() throws Exception {
+        try (TestCluster cluster = TestCluster.start(2, config -> {
+            config.getJetConfig().setEnabled(true);
+            config.addMapConfig(new MapConfig("journaled-users").setEventJournalConfig(HazelcastConfig.createEventJournalConfig()));
+        })) {
+            IMap<String, Object> users = cluster.member().getMap("journaled-users");
+            IMap<String, AttributeStats> results = cluster.member().getMap("journaled-stats");
+            cluster.member().getJet().newJob(
+                    UserStatsPipeline.build("journaled-users", "journaled-stats", Map.of("age", (FunctionEx<User, Integer>) User::getAge)),
+                    new JobConfig().setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE).setSnapshotIntervalMillis(200));
+
+            for (int i = 0; i < 200; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, 20 + i % 50, "user" + i + "@example.com"));
+            }
+            users.set("not-a-user", "ignored");
+            for (int i = 0; i < 50; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, 80, "user" + i + "@example.com"));
+            }
+            for (int i = 50; i < 70; i++) {
+                users.delete("user-" + i);
+            }
+            users.evict("user-70");
+            awaitStats(results, () -> expected(users));
+            assertEquals(179, results.get("age").getCount());
+            assertEquals(80.0, results.get("age").getMax());
+
+            // The job restarts from its last snapshot on the remaining member
+            cluster.members().get(1).getLifecycleService().terminate();
+            for (int i = 0; i < 50; i++) {
+                users.delete("user-" + i);
+            }
+            awaitStats(results, () -> expected(users));
+            assertEquals(69.0, results.get("age").getMax());
+        }
+    }
+
+    @Test
+    void testEntriesWrittenBeforeTheJobAreCounted() throws Exception {
+        // Ten events per partition: most of the entries written before the job have none left
+        try (TestCluster cluster = TestCluster.start(1, config -> {
+            config.getJetConfig().setEnabled(true);
+            config.addMapConfig(new MapConfig("existing-users").setEventJournalConfig(
+                    new EventJournalConfig().setEnabled(true).setCapacity(710)));
+        })) {
+            IMap<String, Object> users = cluster.member().getMap("existing-users");
+            IMap<String, AttributeStats> results = cluster.member().getMap("existing-stats");
+            for (int i = 0; i < 2000; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, 20 + i % 50, "user" + i + "@example.com"));
+            }
+            cluster.member().getJet().newJob(
+                    UserStatsPipeline.build("existing-users", "existing-stats", Map.of("age", (FunctionEx<User, Integer>) User::getAge)),
+                    new JobConfig().setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE).setSnapshotIntervalMillis(200));
+            awaitStats(results, () -> expected(users));
+            assertEquals(2000, results.get("age").getCount());
+
+            // Updates and removals of those entries replace values that were counted
+            for (int i = 0; i < 20; i++) {
+                users.set("user-" + i, new User("First", "Last" + i, 90, "user" + i + "@example.com"));
+            }
+            for (int i = 20; i < 30; i++) {
+                users.delete("user-" + i);
+            }
+            awaitStats(results, () -> expected(users));
+            assertEquals(1990, results.get("age").getCount());
+            assertEquals(90.0, results.get("age").getMax());
+        }
+    }
+
+    private static NumericStats expected(IMap<String, Object> users) {
+        NumericStats stats = new NumericStats(0);
+        users.values().stream().filter(User.class::isInstance).forEach(user -> stats.add(((User) user).getAge()));
+        return stats;
+    }
+
+    private static void awaitStats(IMap<String, AttributeStats> results, Supplier<NumericStats> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        NumericStats want = expected.get();
+        AttributeStats actual = results.get("age");
+        while (!matches(actual, want) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            actual = results.get("age");
+        }
+        assertTrue(matches(actual, want), "expected " + want + " but was " + actual);
+    }
+
+    private static boolean matches(AttributeStats actual, NumericStats expected) {
+        return actual != null && actual.getCount() == expected.getCount() && actual.getSum() == expected.getSum()
+                && actual.getMin().equals(expected.getMin()) && actual.getMax().equals(expected.getMax());
+    }
+}
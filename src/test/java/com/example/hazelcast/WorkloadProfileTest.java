@@ -0,0 +1,70 @@
+package com.example.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadProfileTest {
+
+    @Test
+    void testProfileAppliesToConfiguredAndDefaultMaps() {
+        Config config = HazelcastConfig.createConfig(WorkloadProfile.READ_HEAVY);
+
+        for (String name : new String[]{"users", "indexed-users", "default"}) {
+            MapConfig mapConfig = config.getMapConfigs().get(name);
+            assertNotNull(mapConfig, name);
+            assertEquals(0, mapConfig.getBackupCount());
+            assertEquals(1, mapConfig.getAsyncBackupCount());
+            assertTrue(mapConfig.isReadBackupData());
+            assertEquals(InMemoryFormat.BINARY, mapConfig.getInMemoryFormat());
+        }
+        // Settings the profile does not own are kept
+        assertEquals(3600, config.getMapConfig("users").getTimeToLiveSeconds());
+    }
+
+    @Test
+    void testQueryHeavyUsesObjectFormatForEntryProcessorMaps() {
+        Config config = WorkloadProfile.QUERY_HEAVY.apply(new Config(), 8, "counters");
+
+        assertEquals(InMemoryFormat.OBJECT, config.getMapConfig("counters").getInMemoryFormat());
+        assertEquals(InMemoryFormat.BINARY, config.getMapConfig("default").getInMemoryFormat());
+        assertEquals("8", config.getProperty("hazelcast.operation.generic.thread.count"));
+
+        // The formats of other maps are left as configured
+        Config explicit = new Config().addMapConfig(new MapConfig("cache").setInMemoryFormat(InMemoryFormat.OBJECT));
+        WorkloadProfile.READ_HEAVY.apply(explicit, 8);
+        assertEquals(InMemoryFormat.OBJECT, explicit.getMapConfig("cache").getInMemoryFormat());
+        // users is queried, not processed, so it stays in BINARY
+        assertEquals(InMemoryFormat.BINARY,
+                HazelcastConfig.createConfig(WorkloadProfile.QUERY_HEAVY).getMapConfig("users").getInMemoryFormat());
+
+        // Other profiles keep entry-processor maps in BINARY
+        Config writeHeavy = WorkloadProfile.WRITE_HEAVY.apply(new Config(), 8, "counters");
+        assertEquals(InMemoryFormat.BINARY, writeHeavy.getMapConfig("counters").getInMemoryFormat());
+        assertEquals("16", writeHeavy.getProperty("hazelcast.partition.operation.thread.count"));
+    }
+
+    @Test
+    void testHeapSizedMapsStayBinary() {
+        MapConfig counters = new MapConfig("counters")
+                .setEvictionConfig(HazelcastConfig.createFrequencyEvictionConfig("256MB"));
+        Config config = WorkloadProfile.QUERY_HEAVY.apply(new Config().addMapConfig(counters), 8, "counters");
+
+        assertEquals(InMemoryFormat.BINARY, config.getMapConfig("counters").getInMemoryFormat());
+        assertEquals(MaxSizePolicy.USED_HEAP_SIZE, config.getMapConfig("counters").getEvictionConfig().getMaxSizePolicy());
+    }
+
+    @Test
+    void testThreadCountsDoNotDropBelowDefaults() {
+        Config config = WorkloadProfile.LOW_LATENCY.apply(new Config(), 1);
+
+        assertEquals("2", config.getProperty("hazelcast.partition.operation.thread.count"));
+        assertEquals("2", config.getProperty("hazelcast.operation.generic.thread.count"));
+        assertEquals("3", config.getProperty("hazelcast.io.input.thread.count"));
+        assertEquals("3", config.getProperty("hazelcast.io.output.thread.count"));
+    }
+}